@@ -1,5 +1,6 @@
 package com.sadatmalik.recipeapi;
 
+import com.sadatmalik.recipeapi.cache.warmup.CacheWarmer;
 import com.sadatmalik.recipeapi.model.*;
 import com.sadatmalik.recipeapi.repositories.RecipeRepo;
 import com.sadatmalik.recipeapi.repositories.UserRepo;
@@ -9,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -16,6 +18,7 @@ import java.util.Set;
 
 @SpringBootApplication
 @Profile("test")
+@Order(CacheWarmer.ORDER - 1) // seed before the caches are warmed
 public class RecipeapiMainTest implements CommandLineRunner {
 
     private final static Logger LOGGER = LoggerFactory.getLogger(RecipeapiMainTest.class);
@@ -0,0 +1,100 @@
+package com.sadatmalik.recipeapi.cache;
+
+import com.sadatmalik.recipeapi.cache.invalidation.BroadcastingCacheManager;
+import com.sadatmalik.recipeapi.cache.invalidation.InvalidationBus;
+import com.sadatmalik.recipeapi.cache.invalidation.LoopbackTransport;
+import com.sadatmalik.recipeapi.cache.invalidation.UdpTransport;
+import com.sadatmalik.recipeapi.cache.warmup.WarmUpProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.Caching;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Builds the JCache (Ehcache) caches from spring.cache.jcache.config, as Spring Boot would, and puts a near cache
+// in front of each one. Defining the CacheManager here switches off Boot's own cache auto-configuration.
+@Configuration
+@EnableConfigurationProperties({NearCacheProperties.class, WarmUpProperties.class})
+public class CacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager jCacheManager(@Value("${spring.cache.jcache.config}") Resource config)
+            throws IOException {
+        return Caching.getCachingProvider().getCacheManager(config.getURI(), getClass().getClassLoader());
+    }
+
+    @Bean
+    public CacheManager cacheManager(javax.cache.CacheManager jCacheManager, NearCacheProperties properties,
+                                     PlatformTransactionManager transactionManager, InvalidationBus invalidationBus) {
+        JCacheCacheManager jCacheCacheManager = new JCacheCacheManager(jCacheManager);
+        jCacheCacheManager.afterPropertiesSet();
+
+        CacheManager cacheManager = jCacheCacheManager;
+        if (properties.isEnabled()) {
+            cacheManager = new NearCacheManager(jCacheCacheManager, properties,
+                    refreshExecutor(properties, transactionManager));
+        }
+        return invalidationBus.isEnabled() ? new BroadcastingCacheManager(cacheManager, invalidationBus) : cacheManager;
+    }
+
+    // Shares cache invalidations with the other nodes of a multi-instance deployment. The transport is none
+    // (a single node), loopback (in-process, for tests) or udp, sending to recipeapi.cache.invalidation.udp.peers
+    // and signing with recipeapi.cache.invalidation.udp.secret.
+    @Bean(destroyMethod = "close")
+    public InvalidationBus invalidationBus(@Value("${recipeapi.cache.invalidation.transport:none}") String transport,
+                                           @Value("${recipeapi.cache.invalidation.udp.bind-address:127.0.0.1}")
+                                                   String bindAddress,
+                                           @Value("${recipeapi.cache.invalidation.udp.port:47000}") int port,
+                                           @Value("${recipeapi.cache.invalidation.udp.peers:}") String peers,
+                                           @Value("${recipeapi.cache.invalidation.udp.secret:}") String secret,
+                                           @Value("${recipeapi.cache.invalidation.heartbeat:PT1S}") Duration heartbeat,
+                                           @Value("${recipeapi.cache.invalidation.listener-queue-capacity:1000}")
+                                                   int listenerQueueCapacity) {
+        switch (transport) {
+            case "none":
+                return new InvalidationBus(null, heartbeat);
+            case "loopback":
+                return new InvalidationBus(new LoopbackTransport(), heartbeat);
+            case "udp":
+                List<String> peerList = Arrays.stream(peers.split(","))
+                        .map(String::trim)
+                        .filter(peer -> !peer.isEmpty())
+                        .collect(Collectors.toList());
+                return new InvalidationBus(new UdpTransport(bindAddress, port, peerList, secret), heartbeat,
+                        listenerQueueCapacity);
+            default:
+                throw new IllegalStateException("Unknown recipeapi.cache.invalidation.transport: " + transport);
+        }
+    }
+
+    // Runs refresh-ahead loads, and is shut down with the NearCacheManager. It isn't a bean of its own, since an
+    // Executor bean would replace Boot's applicationTaskExecutor (which async MVC requests run on).
+    private static ThreadPoolTaskExecutor refreshExecutor(NearCacheProperties properties,
+                                                          PlatformTransactionManager transactionManager) {
+        // a cached method normally loads inside a web request, where open-session-in-view keeps lazy collections
+        // loadable - a background load gets a read-only transaction instead
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getRefreshThreads());
+        executor.setMaxPoolSize(properties.getRefreshThreads());
+        executor.setQueueCapacity(properties.getRefreshQueueCapacity());
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setTaskDecorator(task -> () -> readOnly.executeWithoutResult(status -> task.run()));
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,141 @@
+package com.sadatmalik.recipeapi.cache;
+
+import com.sadatmalik.recipeapi.cache.ehcache.CacheMetricsListener;
+import com.sadatmalik.recipeapi.cache.invalidation.BroadcastingCacheManager;
+import org.ehcache.event.EventFiring;
+import org.ehcache.event.EventOrdering;
+import org.ehcache.event.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per cache and per tier counters, for sizing ehcache.xml and the near caches from hit ratios: L1 (near cache)
+// and L2 (Ehcache) hits and misses from the TieredCaches, Ehcache's puts, removals, evictions and expirations from
+// an event listener on each cache, and the time the cached methods take to load a value.
+// Served at GET /metrics/cache and over JMX.
+@Component
+@ManagedResource(objectName = "com.sadatmalik.recipeapi:type=CacheMetrics", description = "Cache hit ratios and events")
+public class CacheMetrics {
+
+    @Autowired
+    javax.cache.CacheManager jCacheManager;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    // the fraction of Ehcache events logged at INFO, 0 for none
+    @Value("${recipeapi.cache.metrics.log-sample-rate:0}")
+    double logSampleRate;
+
+    private final Map<String, CacheMetricsListener> listeners = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void registerListeners() {
+        for (String name : jCacheManager.getCacheNames()) {
+            CacheMetricsListener listener = new CacheMetricsListener(name, logSampleRate);
+            // the listener takes any key and value, so a wildcard view of the cache is enough
+            org.ehcache.Cache<?, ?> cache = jCacheManager.getCache(name).unwrap(org.ehcache.Cache.class);
+            cache.getRuntimeConfiguration().registerCacheEventListener(listener, EventOrdering.UNORDERED,
+                    EventFiring.ASYNCHRONOUS, EnumSet.allOf(EventType.class));
+            listeners.put(name, listener);
+        }
+    }
+
+    // statistics of every cache, by name
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new TreeMap<>();
+        for (String name : new TreeSet<>(listeners.keySet())) {
+            snapshot.put(name, statistics(name));
+        }
+        return snapshot;
+    }
+
+    @ManagedOperation(description = "Statistics of one cache")
+    public Map<String, Object> statistics(String cacheName) {
+        CacheMetricsListener listener = listeners.get(cacheName);
+        if (listener == null) {
+            return null;
+        }
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        TieredCache tiered = tieredCaches().get(cacheName);
+        if (tiered != null) {
+            long nearHits = tiered.getNearHits();
+            long nearMisses = tiered.getNearMisses();
+            long farHits = tiered.getFarHits();
+            long farMisses = tiered.getFarMisses();
+            statistics.put("hitRatio", hitRatio(tiered));
+
+            Map<String, Object> near = new LinkedHashMap<>();
+            near.put("hits", nearHits);
+            near.put("misses", nearMisses);
+            near.put("hitRatio", ratio(nearHits, nearMisses));
+            near.put("size", tiered.getNearSize());
+            near.put("refreshes", tiered.getRefreshes());
+            statistics.put("near", near);
+
+            Map<String, Object> far = new LinkedHashMap<>();
+            far.put("hits", farHits);
+            far.put("misses", farMisses);
+            far.put("loadWaits", tiered.getLoadWaits());
+            far.put("hitRatio", ratio(farHits, farMisses));
+            far.putAll(listener.getCounts());
+            statistics.put("ehcache", far);
+
+            statistics.put("loadTimes", tiered.getLoadTimes().toMap());
+        } else {
+            // no near cache (or not used yet), so only Ehcache's own events are known
+            statistics.put("ehcache", new LinkedHashMap<>(listener.getCounts()));
+        }
+        return statistics;
+    }
+
+    @ManagedAttribute(description = "Hits in either tier over all lookups of each cache")
+    public Map<String, Double> getHitRatios() {
+        Map<String, Double> ratios = new TreeMap<>();
+        tieredCaches().forEach((name, cache) -> ratios.put(name, hitRatio(cache)));
+        return ratios;
+    }
+
+    @ManagedAttribute(description = "Near cache hit ratio of each cache")
+    public Map<String, Double> getNearHitRatios() {
+        Map<String, Double> ratios = new TreeMap<>();
+        tieredCaches().forEach((name, cache) -> ratios.put(name, ratio(cache.getNearHits(), cache.getNearMisses())));
+        return ratios;
+    }
+
+    @ManagedAttribute(description = "Ehcache evictions of each cache")
+    public Map<String, Long> getEvictions() {
+        Map<String, Long> evictions = new TreeMap<>();
+        listeners.forEach((name, listener) -> evictions.put(name, listener.getCount(EventType.EVICTED)));
+        return evictions;
+    }
+
+    private Map<String, TieredCache> tieredCaches() {
+        CacheManager manager = cacheManager;
+        if (manager instanceof BroadcastingCacheManager) {
+            manager = ((BroadcastingCacheManager) manager).getDelegate();
+        }
+        return manager instanceof NearCacheManager ? ((NearCacheManager) manager).getTieredCaches() : Map.of();
+    }
+
+    // L1 or L2 hits over every lookup - each lookup is an L1 hit or miss, and a wait for another caller's load
+    // counts as a miss
+    private static double hitRatio(TieredCache cache) {
+        long lookups = cache.getNearHits() + cache.getNearMisses();
+        long hits = cache.getNearHits() + cache.getFarHits();
+        return ratio(hits, lookups - hits);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : Math.round(hits * 10000.0 / total) / 10000.0;
+    }
+}
@@ -0,0 +1,263 @@
+package com.sadatmalik.recipeapi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.sadatmalik.recipeapi.cache.invalidation.BroadcastingCacheManager;
+import com.sadatmalik.recipeapi.cache.invalidation.InvalidationBus;
+import com.sadatmalik.recipeapi.cache.invalidation.InvalidationListener;
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.repositories.RecipeRepo;
+import com.sadatmalik.recipeapi.support.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// Tracks which recipe ids each cached list page holds, and which recipes could belong on it, so that a write
+// evicts only the pages it affects instead of clearing the whole list cache. The pages tracked per cache are
+// bounded by max-pages and max-age, and a page whose dependency is dropped is evicted from the cache with it, so a
+// cached page is never left without one.
+@Component
+public class ListCacheDependencies {
+
+    public static final String RECIPE_LIST_CACHE = "recipeListCache";
+    public static final String RECIPE_SUMMARY_CACHE = "recipeSummaryCache";
+    public static final String REVIEW_LIST_CACHE = "reviewListCache";
+
+    private static final List<String> RECIPE_PAGE_CACHES = List.of(RECIPE_LIST_CACHE, RECIPE_SUMMARY_CACHE);
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    RecipeRepo recipeRepo;
+
+    @Autowired
+    InvalidationBus invalidationBus;
+
+    // at least as long as a list page stays cached, or pages are evicted before their time
+    @Value("${recipeapi.cache.dependencies.max-age:PT10M}")
+    Duration maxAge = Duration.ofMinutes(10);
+
+    // pages tracked per list cache - page keys come from client-chosen names, cursors and limits
+    @Value("${recipeapi.cache.dependencies.max-pages:10000}")
+    int maxPages = 10_000;
+
+    // cache name -> what each of its pages depends on
+    private final Map<String, PageDependencies> dependencies = new ConcurrentHashMap<>();
+
+    // Records a page of recipes in ascending id order. A recipe matching the page's query belongs on it when its
+    // id falls after the cursor and - if the page is full - no later than the page's last id.
+    public void recordPage(String cacheName, Object key, List<Long> ids, int pageSize, long after,
+                           Predicate<Recipe> query) {
+        long last = ids.size() >= pageSize ? ids.get(ids.size() - 1) : Long.MAX_VALUE;
+        record(cacheName, key, ids, recipe -> recipe.getId() != null &&
+                recipe.getId() > after && recipe.getId() <= last && query.test(recipe));
+    }
+
+    // Records a page that isn't ordered by id (rating order, for one) - any recipe matching the query evicts it.
+    public void recordUnorderedPage(String cacheName, Object key, List<Long> ids, Predicate<Recipe> query) {
+        record(cacheName, key, ids, query);
+    }
+
+    // Once the transaction commits, evicts every recipe page that holds this recipe or that it now belongs on.
+    // current is the recipe as written, or null when it was deleted.
+    public void recipeChanged(Long id, Recipe current) {
+        TransactionHooks.afterCommit(() -> evictPages(id, current, cacheManager));
+    }
+
+    // recipeChanged for a batch of written recipes, checking each recorded page once for the lot
+    public void recipesChanged(Collection<Recipe> written) {
+        List<Recipe> recipes = List.copyOf(written);
+        TransactionHooks.afterCommit(() -> evictPages(recipes, cacheManager));
+    }
+
+    // Another node wrote a recipe (and evicted it from recipeCache) - this node's pages are different from that
+    // node's, so check them against the recipe as now stored. The evictions stay local, each node does its own.
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(new InvalidationListener() {
+            @Override
+            public void onRemoteInvalidation(String cacheName, Object key) {
+                if ("recipeCache".equals(cacheName) && key instanceof Long) {
+                    Long id = (Long) key;
+                    evictPages(id, recipeRepo.findById(id).orElse(null), localCacheManager());
+                }
+            }
+
+            @Override
+            public void onRemoteGap() {
+                // the caches themselves have been cleared
+            }
+        });
+    }
+
+    private void evictPages(Long id, Recipe current, CacheManager manager) {
+        evictPages(Set.of(id), current == null ? List.of() : List.of(current), manager);
+    }
+
+    private void evictPages(List<Recipe> written, CacheManager manager) {
+        Set<Long> ids = new HashSet<>();
+        for (Recipe recipe : written) {
+            ids.add(recipe.getId());
+        }
+        evictPages(ids, written, manager);
+    }
+
+    // Evicts the pages holding any of the ids, looked up in the index, and the pages any of the written recipes
+    // could now belong on, which takes a check of each tracked page's query.
+    private void evictPages(Set<Long> ids, List<Recipe> written, CacheManager manager) {
+        for (String cacheName : RECIPE_PAGE_CACHES) {
+            PageDependencies pages = dependencies.get(cacheName);
+            Cache cache = manager.getCache(cacheName);
+            if (pages == null || cache == null) {
+                continue;
+            }
+            // dependencies are kept after eviction, in case a load that started before the write puts the
+            // old page back - a later write then still evicts it
+            for (Object key : pages.holding(ids)) {
+                cache.evict(key);
+            }
+            if (!written.isEmpty()) {
+                pages.pages.asMap().forEach((key, dependency) -> {
+                    if (written.stream().anyMatch(dependency.couldContain)) {
+                        cache.evict(key);
+                    }
+                });
+            }
+        }
+    }
+
+    // Once the transaction commits, evicts the review lists of a recipe and of the given reviewers.
+    public void reviewsChanged(Long recipeId, Collection<String> usernames) {
+        TransactionHooks.afterCommit(() -> {
+            Cache cache = cacheManager.getCache(REVIEW_LIST_CACHE);
+            if (cache == null) {
+                return;
+            }
+            if (recipeId != null) {
+                cache.evict(ListCacheKeys.reviewsByRecipe(recipeId));
+            }
+            for (String username : usernames) {
+                cache.evict(ListCacheKeys.reviewsByUser(username));
+            }
+        });
+    }
+
+    int size(String cacheName) {
+        PageDependencies pages = dependencies.get(cacheName);
+        if (pages == null) {
+            return 0;
+        }
+        pages.pages.cleanUp();
+        return (int) pages.pages.estimatedSize();
+    }
+
+    private void record(String cacheName, Object key, Collection<Long> ids, Predicate<Recipe> couldContain) {
+        dependencies.computeIfAbsent(cacheName, PageDependencies::new)
+                .record(key, new Dependency(new HashSet<>(ids), couldContain));
+    }
+
+    // evictions made here are this node's own, so they aren't broadcast
+    private CacheManager localCacheManager() {
+        return cacheManager instanceof BroadcastingCacheManager
+                ? ((BroadcastingCacheManager) cacheManager).getDelegate()
+                : cacheManager;
+    }
+
+    public static Predicate<Recipe> anyRecipe() {
+        return recipe -> true;
+    }
+
+    public static Predicate<Recipe> nameContains(String text) {
+        String lowerCaseText = text.toLowerCase(Locale.ROOT);
+        return recipe -> recipe.getName() != null &&
+                recipe.getName().toLowerCase(Locale.ROOT).contains(lowerCaseText);
+    }
+
+    public static Predicate<Recipe> authoredBy(String username) {
+        return recipe -> recipe.getUser() != null && username.equals(recipe.getUser().getUsername());
+    }
+
+    public static Predicate<Recipe> ratedAtLeast(double min) {
+        return recipe -> recipe.getAverageRating() >= min;
+    }
+
+    private static class Dependency {
+
+        final Set<Long> ids;
+
+        final Predicate<Recipe> couldContain;
+
+        Dependency(Set<Long> ids, Predicate<Recipe> couldContain) {
+            this.ids = ids;
+            this.couldContain = couldContain;
+        }
+    }
+
+    // The tracked pages of one list cache, with an index from each recipe id to the pages holding it.
+    private class PageDependencies {
+
+        final String cacheName;
+
+        final com.github.benmanes.caffeine.cache.Cache<Object, Dependency> pages;
+
+        final Map<Long, Set<Object>> pagesByRecipe = new ConcurrentHashMap<>();
+
+        PageDependencies(String cacheName) {
+            this.cacheName = cacheName;
+            this.pages = Caffeine.newBuilder()
+                    .maximumSize(maxPages)
+                    .expireAfterWrite(maxAge)
+                    // on the thread making the change, so the index never lags the pages
+                    .executor(Runnable::run)
+                    .removalListener(this::removed)
+                    .build();
+        }
+
+        synchronized void record(Object key, Dependency dependency) {
+            pages.put(key, dependency);
+            for (Long id : dependency.ids) {
+                pagesByRecipe.computeIfAbsent(id, i -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+        }
+
+        List<Object> holding(Set<Long> ids) {
+            List<Object> keys = new ArrayList<>();
+            for (Long id : ids) {
+                Set<Object> holding = pagesByRecipe.get(id);
+                if (holding != null) {
+                    keys.addAll(holding);
+                }
+            }
+            return keys;
+        }
+
+        synchronized void removed(Object key, Dependency dependency, RemovalCause cause) {
+            // a replaced dependency's ids stay indexed where the new one holds them too
+            Dependency current = pages.getIfPresent(key);
+            for (Long id : dependency.ids) {
+                if (current == null || !current.ids.contains(id)) {
+                    pagesByRecipe.computeIfPresent(id, (i, keys) -> {
+                        keys.remove(key);
+                        return keys.isEmpty() ? null : keys;
+                    });
+                }
+            }
+            if (cause.wasEvicted()) {
+                // no longer tracked, so a write couldn't evict the page - it mustn't stay cached
+                Cache cache = localCacheManager().getCache(cacheName);
+                if (cache != null) {
+                    cache.evict(key);
+                }
+            }
+        }
+    }
+}
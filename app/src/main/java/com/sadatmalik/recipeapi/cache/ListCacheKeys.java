@@ -0,0 +1,37 @@
+package com.sadatmalik.recipeapi.cache;
+
+// Keys of the list caches (recipeListCache, recipeSummaryCache and reviewListCache). @Cacheable key expressions
+// call these through T(...) so that targeted evictions build exactly the same keys.
+public final class ListCacheKeys {
+
+    private ListCacheKeys() {
+    }
+
+    public static String recipes(long after, int limit) {
+        return "all:" + after + ":" + limit;
+    }
+
+    public static String recipesByName(String name, long after, int limit) {
+        return "name:" + name + ":" + after + ":" + limit;
+    }
+
+    public static String recipesByUser(String username, long after, int limit) {
+        return "username:" + username + ":" + after + ":" + limit;
+    }
+
+    public static String recipesByMinRating(double min, long after, int limit) {
+        return "rating:" + min + ":" + after + ":" + limit;
+    }
+
+    public static String recipesByMinRatingSortedByRating(double min, Double afterRating, Long afterId, int limit) {
+        return "rating:" + min + ":by-rating:" + afterRating + ":" + afterId + ":" + limit;
+    }
+
+    public static String reviewsByRecipe(Long recipeId) {
+        return "recipeid:" + recipeId;
+    }
+
+    public static String reviewsByUser(String username) {
+        return "username:" + username;
+    }
+}
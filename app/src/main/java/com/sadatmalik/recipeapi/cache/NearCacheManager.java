@@ -0,0 +1,60 @@
+package com.sadatmalik.recipeapi.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Wraps every cache of another CacheManager (the JCache one) in a TieredCache with its own near cache.
+public class NearCacheManager implements CacheManager, DisposableBean {
+
+    private final CacheManager delegate;
+
+    private final NearCacheProperties properties;
+
+    // runs refresh-ahead loads for all the caches
+    private final ThreadPoolTaskExecutor refreshExecutor;
+
+    private final Map<String, TieredCache> caches = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager delegate, NearCacheProperties properties,
+                            ThreadPoolTaskExecutor refreshExecutor) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TieredCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache far = delegate.getCache(name);
+        if (far == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TieredCache(far, properties.maximumSizeOf(n),
+                properties.getExpireAfterWrite(), properties.refreshAfterOf(n), refreshExecutor));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdown();
+    }
+
+    // the tiered caches created so far, by name
+    public Map<String, TieredCache> getTieredCaches() {
+        return new TreeMap<>(caches);
+    }
+}
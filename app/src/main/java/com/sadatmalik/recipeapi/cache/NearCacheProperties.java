@@ -0,0 +1,43 @@
+package com.sadatmalik.recipeapi.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// recipeapi.cache.near.* - sizing of the on-heap near caches that sit in front of the Ehcache tiers
+@Getter
+@Setter
+@ConfigurationProperties("recipeapi.cache.near")
+public class NearCacheProperties {
+
+    private boolean enabled = true;
+
+    // entries per cache, unless overridden by name in maximumSize
+    private long defaultMaximumSize = 500;
+
+    private Map<String, Long> maximumSize = new HashMap<>();
+
+    // keep this no longer than the Ehcache ttl, so a near entry can't outlive the tier it was read from by much
+    private Duration expireAfterWrite = Duration.ofSeconds(30);
+
+    // per cache soft ttl - a value read after this is served while it's reloaded in the background. Caches not
+    // listed reload on expiry, with readers waiting.
+    private Map<String, Duration> refreshAfter = new HashMap<>();
+
+    // background reloads beyond what the threads and queue can take are skipped, and tried again on a later read
+    private int refreshThreads = 2;
+
+    private int refreshQueueCapacity = 100;
+
+    public long maximumSizeOf(String cacheName) {
+        return maximumSize.getOrDefault(cacheName, defaultMaximumSize);
+    }
+
+    public Duration refreshAfterOf(String cacheName) {
+        return refreshAfter.get(cacheName);
+    }
+}
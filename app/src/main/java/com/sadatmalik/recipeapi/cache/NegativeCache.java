@@ -0,0 +1,238 @@
+package com.sadatmalik.recipeapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sadatmalik.recipeapi.cache.invalidation.InvalidationBus;
+import com.sadatmalik.recipeapi.cache.invalidation.InvalidationListener;
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.support.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+
+// Remembers lookups that found nothing - a missing id, a name or username with no recipes - for a short while,
+// so that repeated probes for them don't each go to the database. @Cacheable never caches the "no such ..."
+// exceptions, so the services check here before querying and record a marker before throwing.
+//
+// Writes remove the markers they could make stale once their transaction commits. A lookup that read before
+// the commit can still put a marker back just after it, so the ttl bounds how long an absence can be reported
+// after a create.
+@Component
+public class NegativeCache {
+
+    public static final String ALL_RECIPES = "recipes:all";
+
+    private static final String NAME_PREFIX = "recipes:name:";
+    private static final String RATING_PREFIX = "recipes:rating:";
+
+    private final Cache<String, Boolean> absent;
+
+    @Autowired
+    InvalidationBus invalidationBus;
+
+    public NegativeCache(@Value("${recipeapi.cache.negative.ttl:PT10S}") Duration ttl,
+                         @Value("${recipeapi.cache.negative.maximum-size:10000}") long maximumSize) {
+        this.absent = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean isAbsent(String key) {
+        return absent.getIfPresent(key) != null;
+    }
+
+    public void markAbsent(String key) {
+        absent.put(key, Boolean.TRUE);
+    }
+
+    // throws the lookup's "not found" exception straight away if it found nothing recently
+    public <E extends Exception> void throwIfAbsent(String key, Supplier<E> notFound) throws E {
+        if (isAbsent(key)) {
+            throw notFound.get();
+        }
+    }
+
+    // records that the lookup found nothing, and returns its "not found" exception for the caller to throw
+    public <E extends Exception> E absent(String key, E notFound) {
+        markAbsent(key);
+        return notFound;
+    }
+
+    long size() {
+        absent.cleanUp();
+        return absent.estimatedSize();
+    }
+
+    // Markers are per node, so another node's cache evictions remove the marker answering the same lookup as the
+    // evicted entry - its recipe or review by id, or the query of an evicted list page. A write there that evicted
+    // no cached page of a query leaves this node's marker for it to expire with the ttl.
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(new InvalidationListener() {
+            @Override
+            public void onRemoteInvalidation(String cacheName, Object key) {
+                if (key == null) {
+                    String prefix = cacheName.startsWith("review") ? "review" : "recipe";
+                    absent.asMap().keySet().removeIf(marker -> marker.startsWith(prefix));
+                    return;
+                }
+                String marker = marker(cacheName, key);
+                if (marker != null) {
+                    absent.invalidate(marker);
+                }
+            }
+
+            @Override
+            public void onRemoteGap() {
+                absent.invalidateAll();
+            }
+        });
+    }
+
+    // the marker for the lookup a cache entry answers, or null when there's none - list pages are keyed by their
+    // query (see ListCacheKeys) followed by the page's position
+    static String marker(String cacheName, Object key) {
+        String text = key.toString();
+        switch (cacheName) {
+            case "recipeCache":
+                return key instanceof Long ? recipe((Long) key) : null;
+            case "reviewCache":
+                return key instanceof Long ? review((Long) key) : null;
+            case "reviewListCache":
+                if (text.startsWith("recipeid:")) {
+                    return reviewsByRecipe(Long.valueOf(text.substring("recipeid:".length())));
+                }
+                return text.startsWith("username:") ? reviewsByUser(text.substring("username:".length())) : null;
+            case "recipeListCache":
+            case "recipeSummaryCache":
+                if (text.startsWith("all:")) {
+                    return ALL_RECIPES;
+                }
+                if (text.startsWith("rating:")) {
+                    return recipesByMinRating(Double.parseDouble(text.split(":")[1]));
+                }
+                // a name or username may hold ':' itself, so the query is all but the last two parts
+                int limit = text.lastIndexOf(':');
+                int after = limit < 0 ? -1 : text.lastIndexOf(':', limit - 1);
+                if (after < 0) {
+                    return null;
+                }
+                if (text.startsWith("name:")) {
+                    return recipesByName(text.substring("name:".length(), after));
+                }
+                return text.startsWith("username:") ? recipesByUser(text.substring("username:".length(), after)) : null;
+            default:
+                return null;
+        }
+    }
+
+    // A recipe was created or updated - it may now answer an id, name, username, rating or "any recipe" lookup.
+    public void recipeWritten(Recipe recipe) {
+        recipesWritten(List.of(recipe));
+    }
+
+    // recipeWritten for a batch, with one pass over the markers
+    public void recipesWritten(Collection<Recipe> recipes) {
+        Set<String> keys = new HashSet<>();
+        List<String> names = new ArrayList<>();
+        // a minimum rating marker is stale if any of the recipes meets it, which the best rated one decides
+        double highestRating = Double.NEGATIVE_INFINITY;
+        for (Recipe recipe : recipes) {
+            if (recipe.getId() != null) {
+                keys.add(recipe(recipe.getId()));
+            }
+            if (recipe.getUser() != null && recipe.getUser().getUsername() != null) {
+                keys.add(recipesByUser(recipe.getUser().getUsername()));
+            }
+            if (recipe.getName() != null) {
+                names.add(recipe.getName().toLowerCase(Locale.ROOT));
+            }
+            highestRating = Math.max(highestRating, recipe.getAverageRating());
+        }
+
+        double averageRating = highestRating;
+        TransactionHooks.afterCommit(() -> {
+            absent.invalidate(ALL_RECIPES);
+            absent.invalidateAll(keys);
+            absent.asMap().keySet().removeIf(key ->
+                    nameMarkerMatches(key, names) || ratingMarkerMatches(key, averageRating));
+        });
+    }
+
+    // A recipe's average rating changed - it may now satisfy a minimum rating search.
+    public void ratingChanged(double averageRating) {
+        TransactionHooks.afterCommit(() ->
+                absent.asMap().keySet().removeIf(key -> ratingMarkerMatches(key, averageRating)));
+    }
+
+    // A review was posted - its recipe and its author each have a review now. reviewIds must include the new one.
+    public void reviewWritten(Long recipeId, String username, Collection<Long> reviewIds) {
+        TransactionHooks.afterCommit(() -> {
+            for (Long reviewId : reviewIds) {
+                absent.invalidate(review(reviewId));
+            }
+            absent.invalidate(reviewsByRecipe(recipeId));
+            if (username != null) {
+                absent.invalidate(reviewsByUser(username));
+            }
+        });
+    }
+
+    public void userCreated(String username) {
+        TransactionHooks.afterCommit(() -> absent.invalidate(user(username)));
+    }
+
+    // a name search marker is stale if any of the names contains its text
+    private static boolean nameMarkerMatches(String key, List<String> names) {
+        if (!key.startsWith(NAME_PREFIX)) {
+            return false;
+        }
+        String text = key.substring(NAME_PREFIX.length()).toLowerCase(Locale.ROOT);
+        return names.stream().anyMatch(name -> name.contains(text));
+    }
+
+    private static boolean ratingMarkerMatches(String key, double averageRating) {
+        return key.startsWith(RATING_PREFIX) &&
+                Double.parseDouble(key.substring(RATING_PREFIX.length())) <= averageRating;
+    }
+
+    // marker keys
+
+    public static String recipe(Long id) {
+        return "recipe:" + id;
+    }
+
+    public static String recipesByName(String name) {
+        return NAME_PREFIX + name;
+    }
+
+    public static String recipesByUser(String username) {
+        return "recipes:username:" + username;
+    }
+
+    public static String recipesByMinRating(double min) {
+        return RATING_PREFIX + min;
+    }
+
+    public static String review(Long id) {
+        return "review:" + id;
+    }
+
+    public static String reviewsByRecipe(Long recipeId) {
+        return "reviews:recipeid:" + recipeId;
+    }
+
+    public static String reviewsByUser(String username) {
+        return "reviews:username:" + username;
+    }
+
+    public static String user(String username) {
+        return "user:" + username;
+    }
+}
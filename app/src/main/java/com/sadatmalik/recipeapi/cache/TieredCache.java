@@ -0,0 +1,418 @@
+package com.sadatmalik.recipeapi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sadatmalik.recipeapi.exceptions.NoSuchRecipeException;
+import com.sadatmalik.recipeapi.exceptions.NoSuchReviewException;
+import com.sadatmalik.recipeapi.metrics.LatencyHistogram;
+import com.sadatmalik.recipeapi.metrics.RequestStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// An on-heap near cache (L1) in front of a Spring Cache backed by the Ehcache JCache tiers (L2). L1 holds the
+// deserialized value itself, so a hit costs a hash lookup - which means callers must treat cached values as
+// read-only, since every reader of a key shares the same instance.
+//
+// With refreshAfter set, a value older than that is still served while one background load per key replaces
+// it, so popular keys are reloaded before they expire instead of making their readers wait on a reload.
+public class TieredCache implements Cache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TieredCache.class);
+
+    private final Cache far;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, NearValue> near;
+
+    // 0 when refresh-ahead is off
+    private final long refreshAfterNanos;
+
+    private final Executor refreshExecutor;
+
+    private final Map<Object, Boolean> refreshing = new ConcurrentHashMap<>();
+
+    // the loads running for get(key, loader), by key
+    private final Map<Object, Load> loading = new ConcurrentHashMap<>();
+
+    // a slot per stripe of keys, bumped by every write or eviction of a key in it (and all of them by a clear), so a
+    // read that raced a write to its key doesn't put a stale L2 value into L1 - writes to other keys leave it be
+    private static final int STRIPES = 1024;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder nearMisses = new LongAdder();
+    private final LongAdder farHits = new LongAdder();
+    private final LongAdder farMisses = new LongAdder();
+    // L2 misses that waited for another caller's load instead of loading
+    private final LongAdder loadWaits = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    // time spent in the cached methods themselves, on misses and refreshes
+    private final LatencyHistogram loadTimes = new LatencyHistogram();
+
+    public TieredCache(Cache far, long maximumSize, Duration expireAfterWrite) {
+        this(far, maximumSize, expireAfterWrite, null, null);
+    }
+
+    public TieredCache(Cache far, long maximumSize, Duration expireAfterWrite, Duration refreshAfter,
+                       Executor refreshExecutor) {
+        this.far = far;
+        this.near = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.refreshAfterNanos = refreshAfter == null || refreshExecutor == null ? 0 : refreshAfter.toNanos();
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public String getName() {
+        return far.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return far.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long start = System.nanoTime();
+        try {
+            return lookup(key);
+        } finally {
+            RequestStats.cacheTime(System.nanoTime() - start);
+        }
+    }
+
+    private ValueWrapper lookup(Object key) {
+        ValueWrapper value = near.getIfPresent(key);
+        if (value != null) {
+            nearHits.increment();
+            RequestStats.cacheHit();
+            return value;
+        }
+        nearMisses.increment();
+
+        long readGeneration = generation(key);
+        value = far.get(key);
+        if (value == null) {
+            farMisses.increment();
+            RequestStats.cacheMiss();
+            return null;
+        }
+        farHits.increment();
+        RequestStats.cacheHit();
+        return putNear(key, value.get(), readGeneration);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        Object stored = value == null ? null : value.get();
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return (T) stored;
+    }
+
+    // Used by @Cacheable(sync = true). One caller per key runs the loader and the rest wait for its result - a
+    // loader that asks for its own key fails instead of waiting on itself. The loader runs outside L2: Ehcache's own
+    // get(key, loader) would hold an offheap segment lock while the loader waits for a database connection, and a
+    // transaction evicting from that segment holds a connection while it waits for the lock - under load that
+    // deadlocks the connection pool.
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long start = System.nanoTime();
+        try {
+            return lookup(key, valueLoader);
+        } finally {
+            RequestStats.cacheTime(System.nanoTime() - start);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(Object key, Callable<T> valueLoader) {
+        NearValue value = near.getIfPresent(key);
+        if (value != null) {
+            nearHits.increment();
+            RequestStats.cacheHit();
+            if (refreshAfterNanos > 0 && System.nanoTime() - value.loadedAt > refreshAfterNanos) {
+                refresh(key, valueLoader);
+            }
+            return (T) value.get();
+        }
+        nearMisses.increment();
+
+        long readGeneration = generation(key);
+        ValueWrapper stored = far.get(key);
+        if (stored == null) {
+            Load load = new Load();
+            Load running = loading.putIfAbsent(key, load);
+            if (running != null) {
+                if (running.thread == Thread.currentThread()) {
+                    throw new IllegalStateException("Recursive load of " + getName() + " key " + key);
+                }
+                loadWaits.increment();
+                RequestStats.cacheMiss();
+                return (T) awaitLoad(key, valueLoader, running);
+            }
+            try {
+                // a load that finished between the miss and registering this one has already stored its value
+                stored = far.get(key);
+                if (stored == null) {
+                    farMisses.increment();
+                    RequestStats.cacheMiss();
+                    T result = load(key, valueLoader, readGeneration);
+                    load.complete(result);
+                    return result;
+                }
+                load.complete(stored.get());
+            } catch (RuntimeException | Error e) {
+                load.completeExceptionally(e);
+                throw e;
+            } finally {
+                loading.remove(key, load);
+            }
+        }
+        farHits.increment();
+        RequestStats.cacheHit();
+        putNear(key, stored.get(), readGeneration);
+        return (T) stored.get();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        bump(key);
+        far.put(key, value);
+        near.put(key, new NearValue(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        bump(key);
+        near.invalidate(key);
+        return far.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        bump(key);
+        far.evict(key);
+        near.invalidate(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        bump(key);
+        near.invalidate(key);
+        return far.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        bumpAll();
+        far.clear();
+        near.invalidateAll();
+    }
+
+    @Override
+    public boolean invalidate() {
+        bumpAll();
+        near.invalidateAll();
+        return far.invalidate();
+    }
+
+    public long getNearHits() {
+        return nearHits.sum();
+    }
+
+    public long getNearMisses() {
+        return nearMisses.sum();
+    }
+
+    public long getFarHits() {
+        return farHits.sum();
+    }
+
+    public long getFarMisses() {
+        return farMisses.sum();
+    }
+
+    public long getLoadWaits() {
+        return loadWaits.sum();
+    }
+
+    public long getNearSize() {
+        return near.estimatedSize();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public LatencyHistogram getLoadTimes() {
+        return loadTimes;
+    }
+
+    @Override
+    public String toString() {
+        return getName() + " [L1 hits=" + getNearHits() + ", misses=" + getNearMisses() + ", size=" + getNearSize() +
+                " | L2 hits=" + getFarHits() + ", misses=" + getFarMisses() + ", load waits=" + getLoadWaits() +
+                " | refreshes=" + getRefreshes() + "]";
+    }
+
+    // Reloads the key in the background with this caller's loader, unless a reload of it is already running.
+    private void refresh(Object key, Callable<?> valueLoader) {
+        if (refreshing.putIfAbsent(key, Boolean.TRUE) != null) {
+            return;
+        }
+        long readGeneration = generation(key);
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Object value = timed(valueLoader);
+                    // a write or eviction since the refresh started wins over the refreshed value
+                    if (generation(key) == readGeneration) {
+                        far.put(key, value);
+                        near.put(key, new NearValue(value));
+                        if (generation(key) != readGeneration) {
+                            far.evict(key);
+                            near.invalidate(key);
+                        }
+                        refreshes.increment();
+                    }
+                } catch (Exception e) {
+                    if (isMissing(e)) {
+                        // deleted since it was cached - drop it, unless a write has already replaced it
+                        if (generation(key) == readGeneration) {
+                            evict(key);
+                        }
+                        LOGGER.debug("Refreshing " + getName() + " key " + key + " found nothing, evicted it");
+                    } else {
+                        // keep serving the old value until it expires - the next read past refreshAfter tries again
+                        LOGGER.warn("Refreshing " + getName() + " key " + key + " failed: " + e);
+                    }
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the refresh queue is full - serve the old value, a later read will try again
+            refreshing.remove(key);
+        }
+    }
+
+    private <T> T load(Object key, Callable<T> valueLoader, long readGeneration) {
+        T value;
+        try {
+            value = timed(valueLoader);
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        // a write or eviction since the load started wins over the loaded value
+        if (generation(key) == readGeneration) {
+            far.put(key, value);
+            if (generation(key) != readGeneration) {
+                far.evict(key);
+            }
+        }
+        putNear(key, value, readGeneration);
+        return value;
+    }
+
+    // the result of another caller's load of the key - or its failure, as though this caller had loaded
+    private Object awaitLoad(Object key, Callable<?> valueLoader, CompletableFuture<Object> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ValueRetrievalException) {
+                throw (ValueRetrievalException) e.getCause();
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    // whether a load failed because there's nothing stored under the key any more, such as a deleted recipe -
+    // Spring hands the cached method's exception over wrapped
+    private static boolean isMissing(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NoSuchRecipeException || cause instanceof NoSuchReviewException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> T timed(Callable<T> valueLoader) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return valueLoader.call();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            loadTimes.record(nanos);
+            RequestStats.cacheLoadTime(nanos);
+        }
+    }
+
+    private long generation(Object key) {
+        return generations.get(stripe(key));
+    }
+
+    private void bump(Object key) {
+        generations.incrementAndGet(stripe(key));
+    }
+
+    private void bumpAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private ValueWrapper putNear(Object key, Object value, long readGeneration) {
+        NearValue wrapper = new NearValue(value);
+        if (generation(key) == readGeneration) {
+            near.put(key, wrapper);
+            // re-check, in case a write or eviction landed between the check and the put
+            if (generation(key) != readGeneration) {
+                near.invalidate(key);
+            }
+        }
+        return wrapper;
+    }
+
+    // a load of one key, and the thread running it
+    private static class Load extends CompletableFuture<Object> {
+
+        final Thread thread = Thread.currentThread();
+    }
+
+    private static class NearValue extends SimpleValueWrapper {
+
+        final long loadedAt = System.nanoTime();
+
+        NearValue(Object value) {
+            super(value);
+        }
+    }
+}
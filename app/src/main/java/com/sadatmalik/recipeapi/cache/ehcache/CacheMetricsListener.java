@@ -0,0 +1,59 @@
+package com.sadatmalik.recipeapi.cache.ehcache;
+
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+import org.ehcache.event.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts one Ehcache cache's events, and logs a sample of them - the event type and key only, never the values.
+// Registered on each cache by CacheMetrics.
+public class CacheMetricsListener implements CacheEventListener<Object, Object> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheMetricsListener.class);
+
+    private final String cacheName;
+
+    // the fraction of events logged, 0 for none
+    private final double logSampleRate;
+
+    private final Map<EventType, LongAdder> counts = new EnumMap<>(EventType.class);
+
+    public CacheMetricsListener(String cacheName, double logSampleRate) {
+        this.cacheName = cacheName;
+        this.logSampleRate = logSampleRate;
+        for (EventType type : EventType.values()) {
+            counts.put(type, new LongAdder());
+        }
+    }
+
+    @Override
+    public void onEvent(CacheEvent<?, ?> cacheEvent) {
+        counts.get(cacheEvent.getType()).increment();
+        if (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+            LOGGER.info("Cache: " + cacheName + " | EventType: " + cacheEvent.getType() +
+                    " | Key: " + cacheEvent.getKey());
+        }
+    }
+
+    public long getCount(EventType type) {
+        return counts.get(type).sum();
+    }
+
+    // puts of new keys, updates, removals, evictions and expirations
+    public Map<String, Long> getCounts() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        map.put("puts", getCount(EventType.CREATED));
+        map.put("updates", getCount(EventType.UPDATED));
+        map.put("removals", getCount(EventType.REMOVED));
+        map.put("evictions", getCount(EventType.EVICTED));
+        map.put("expirations", getCount(EventType.EXPIRED));
+        return map;
+    }
+}
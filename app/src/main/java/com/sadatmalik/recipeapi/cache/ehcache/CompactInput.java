@@ -0,0 +1,91 @@
+package com.sadatmalik.recipeapi.cache.ehcache;
+
+import org.ehcache.spi.serialization.SerializerException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Reads what CompactOutput writes. The buffer may be a direct (offheap) one, so nothing here assumes an array.
+class CompactInput {
+
+    private final ByteBuffer buffer;
+
+    CompactInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    int readByte() {
+        try {
+            return buffer.get() & 0xFF;
+        } catch (BufferUnderflowException e) {
+            throw new SerializerException("Truncated cache entry", e);
+        }
+    }
+
+    long readVarLong() {
+        long value = readUnsigned();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    Long readNullableLong() {
+        long value = readUnsigned();
+        if (value == 0) {
+            return null;
+        }
+        value--;
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    Integer readNullableInt() {
+        Long value = readNullableLong();
+        return value == null ? null : value.intValue();
+    }
+
+    double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    String readString() {
+        int length = (int) readUnsigned() - 1;
+        return length < 0 ? null : new String(read(length), StandardCharsets.UTF_8);
+    }
+
+    byte[] readBytes() {
+        return read((int) readUnsigned());
+    }
+
+    // -1 for a null collection
+    int readCount() {
+        return (int) readUnsigned() - 1;
+    }
+
+    private byte[] read(int length) {
+        if (length > buffer.remaining()) {
+            throw new SerializerException("Truncated cache entry");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private long readUnsigned() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializerException("Malformed varint in cache entry");
+    }
+}
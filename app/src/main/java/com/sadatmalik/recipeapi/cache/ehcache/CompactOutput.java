@@ -0,0 +1,97 @@
+package com.sadatmalik.recipeapi.cache.ehcache;
+
+import org.ehcache.spi.serialization.SerializerException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// A growable byte buffer for the compact serializers. Integers are written as zigzag varints, so small ids, counts
+// and ratings take a byte or two. Nullable values and lengths are shifted up by one, with 0 standing for null.
+class CompactOutput {
+
+    private byte[] bytes = new byte[128];
+
+    private int size;
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) value;
+    }
+
+    void writeVarLong(long value) {
+        writeUnsigned((value << 1) ^ (value >> 63));
+    }
+
+    void writeVarInt(int value) {
+        writeVarLong(value);
+    }
+
+    void writeNullableLong(Long value) {
+        if (value == null) {
+            writeUnsigned(0);
+        } else if (value == Long.MIN_VALUE) {
+            // its zigzag form is all ones, and adding one would wrap round to the null marker
+            throw new SerializerException("Cannot write " + value);
+        } else {
+            writeUnsigned(((value << 1) ^ (value >> 63)) + 1);
+        }
+    }
+
+    void writeNullableInt(Integer value) {
+        writeNullableLong(value == null ? null : value.longValue());
+    }
+
+    void writeDouble(double value) {
+        long bits = Double.doubleToLongBits(value);
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            bytes[size++] = (byte) (bits >>> shift);
+        }
+    }
+
+    void writeString(String value) {
+        if (value == null) {
+            writeUnsigned(0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsigned(utf8.length + 1L);
+        copy(utf8);
+    }
+
+    void writeBytes(byte[] value) {
+        writeUnsigned(value.length);
+        copy(value);
+    }
+
+    // the element count of a collection that may be null
+    void writeCount(Integer count) {
+        writeUnsigned(count == null ? 0 : count + 1L);
+    }
+
+    ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, size).slice();
+    }
+
+    private void writeUnsigned(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+    }
+
+    private void copy(byte[] value) {
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, bytes, size, value.length);
+        size += value.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.sadatmalik.recipeapi.cache.ehcache;
+
+import org.ehcache.spi.serialization.Serializer;
+import org.ehcache.spi.serialization.SerializerException;
+
+import java.nio.ByteBuffer;
+
+// Base of the serializers registered in ehcache.xml for the offheap and disk tiers. Every entry starts with a
+// layout version byte, so a layout change can't misread entries a previous build left in the persistent disk tier -
+// they fail to read instead, and Ehcache drops them as it would any unreadable entry.
+abstract class CompactSerializer<T> implements Serializer<T> {
+
+    static final int VERSION = 1;
+
+    @Override
+    public ByteBuffer serialize(T object) throws SerializerException {
+        CompactOutput out = new CompactOutput();
+        out.writeByte(VERSION);
+        write(out, object);
+        return out.toByteBuffer();
+    }
+
+    @Override
+    public T read(ByteBuffer binary) throws SerializerException {
+        CompactInput in = new CompactInput(binary);
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new SerializerException("Unsupported cache entry version " + version + " in " +
+                    getClass().getSimpleName());
+        }
+        return read(in);
+    }
+
+    // the model classes don't override equals, so compare the serialized forms
+    @Override
+    public boolean equals(T object, ByteBuffer binary) throws SerializerException {
+        return serialize(object).equals(binary);
+    }
+
+    abstract void write(CompactOutput out, T object);
+
+    abstract T read(CompactInput in);
+}
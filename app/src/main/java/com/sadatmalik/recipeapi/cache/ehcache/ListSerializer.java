@@ -0,0 +1,122 @@
+package com.sadatmalik.recipeapi.cache.ehcache;
+
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.model.RecipeSummary;
+import com.sadatmalik.recipeapi.model.Review;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
+import org.ehcache.spi.serialization.SerializerException;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// The list caches hold pages of recipes, recipe summaries or reviews. A tag byte after the version says which;
+// anything else falls back to Java serialization so an unexpected list still round trips. Hibernate proxies in a
+// page are written as the entities behind them.
+@SuppressWarnings("rawtypes")
+public class ListSerializer extends CompactSerializer<ArrayList> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ListSerializer.class);
+
+    private static final int EMPTY = 0;
+    private static final int RECIPES = 1;
+    private static final int SUMMARIES = 2;
+    private static final int REVIEWS = 3;
+    private static final int JAVA = 4;
+
+    // the fallback loses the compact format's size and speed, so the first list to take it is logged
+    private static final AtomicBoolean loggedFallback = new AtomicBoolean();
+
+    private final PlainJavaSerializer<ArrayList> fallback;
+
+    // Ehcache instantiates serializers reflectively through this constructor
+    public ListSerializer(ClassLoader classLoader) {
+        fallback = new PlainJavaSerializer<>(classLoader);
+    }
+
+    @Override
+    void write(CompactOutput out, ArrayList list) {
+        int tag = tagOf(list);
+        out.writeByte(tag);
+        if (tag == EMPTY) {
+            return;
+        }
+        if (tag == JAVA) {
+            if (loggedFallback.compareAndSet(false, true)) {
+                LOGGER.warn("Caching a list with Java serialization, as it doesn't only hold recipes, summaries " +
+                        "or reviews: " + list);
+            }
+            ByteBuffer serialized = fallback.serialize(list);
+            byte[] bytes = new byte[serialized.remaining()];
+            serialized.get(bytes);
+            out.writeBytes(bytes);
+            return;
+        }
+        out.writeVarInt(list.size());
+        for (Object element : list) {
+            element = Hibernate.unproxy(element);
+            if (tag == RECIPES) {
+                ModelCodec.writeRecipe(out, (Recipe) element);
+            } else if (tag == SUMMARIES) {
+                ModelCodec.writeSummary(out, (RecipeSummary) element);
+            } else {
+                ModelCodec.writeReview(out, (Review) element);
+            }
+        }
+    }
+
+    @Override
+    ArrayList read(CompactInput in) {
+        int tag = in.readByte();
+        if (tag == EMPTY) {
+            return new ArrayList<>();
+        }
+        if (tag == JAVA) {
+            try {
+                return fallback.read(ByteBuffer.wrap(in.readBytes()));
+            } catch (ClassNotFoundException e) {
+                throw new SerializerException("Cannot read cached list", e);
+            }
+        }
+        int size = in.readVarInt();
+        ArrayList<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (tag == RECIPES) {
+                list.add(ModelCodec.readRecipe(in));
+            } else if (tag == SUMMARIES) {
+                list.add(ModelCodec.readSummary(in));
+            } else {
+                list.add(ModelCodec.readReview(in));
+            }
+        }
+        return list;
+    }
+
+    private static int tagOf(ArrayList<?> list) {
+        if (list.isEmpty()) {
+            return EMPTY;
+        }
+        int tag = tagOfElement(list.get(0));
+        for (Object element : list) {
+            if (tagOfElement(element) != tag) {
+                return JAVA;
+            }
+        }
+        return tag;
+    }
+
+    private static int tagOfElement(Object element) {
+        Object entity = Hibernate.unproxy(element);
+        if (entity instanceof Recipe) {
+            return RECIPES;
+        } else if (entity instanceof RecipeSummary) {
+            return SUMMARIES;
+        } else if (entity instanceof Review) {
+            return REVIEWS;
+        }
+        return JAVA;
+    }
+}
@@ -0,0 +1,167 @@
+package com.sadatmalik.recipeapi.cache.ehcache;
+
+import com.sadatmalik.recipeapi.model.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+// Field by field layouts of the cached model classes. Only what the API returns is written: the author of a recipe
+// or review is kept as a username on an otherwise empty user, so no password hash, authorities or user meta ever
+// reach the offheap or disk tiers. Hibernate's collection wrappers come back as plain ArrayLists.
+//
+// Any change to a layout must come with a new CompactSerializer.VERSION.
+final class ModelCodec {
+
+    private ModelCodec() {
+    }
+
+    static void writeRecipe(CompactOutput out, Recipe recipe) {
+        out.writeNullableLong(recipe.getId());
+        out.writeString(recipe.getName());
+        out.writeString(username(recipe.getUser()));
+        out.writeNullableInt(recipe.getMinutesToMake());
+        out.writeNullableInt(recipe.getDifficultyRating());
+        out.writeVarInt(recipe.getReviewCount());
+        // not returned by the API, but keeps the aggregates consistent for ListCacheDependencies and the like
+        out.writeVarLong(recipe.getRatingSum());
+        out.writeDouble(recipe.getAverageRating());
+
+        Collection<Ingredient> ingredients = recipe.getIngredients();
+        out.writeCount(ingredients == null ? null : ingredients.size());
+        if (ingredients != null) {
+            for (Ingredient ingredient : ingredients) {
+                out.writeNullableLong(ingredient.getId());
+                out.writeString(ingredient.getName());
+                out.writeString(ingredient.getAmount());
+                out.writeString(ingredient.getState());
+            }
+        }
+
+        Collection<Step> steps = recipe.getSteps();
+        out.writeCount(steps == null ? null : steps.size());
+        if (steps != null) {
+            for (Step step : steps) {
+                out.writeVarLong(step.getId());
+                out.writeVarInt(step.getStepNumber());
+                out.writeString(step.getDescription());
+            }
+        }
+
+        Collection<Review> reviews = recipe.getReviews();
+        out.writeCount(reviews == null ? null : reviews.size());
+        if (reviews != null) {
+            for (Review review : reviews) {
+                writeReview(out, review);
+            }
+        }
+    }
+
+    static Recipe readRecipe(CompactInput in) {
+        Recipe recipe = new Recipe();
+        recipe.setId(in.readNullableLong());
+        recipe.setName(in.readString());
+        recipe.setUser(user(in.readString()));
+        recipe.setMinutesToMake(in.readNullableInt());
+        Integer difficultyRating = in.readNullableInt();
+        if (difficultyRating != null) {
+            recipe.setDifficultyRating(difficultyRating);
+        }
+        recipe.setReviewCount(in.readVarInt());
+        recipe.setRatingSum(in.readVarLong());
+        recipe.setAverageRating(in.readDouble());
+
+        int count = in.readCount();
+        if (count < 0) {
+            recipe.setIngredients(null);
+        } else {
+            ArrayList<Ingredient> ingredients = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ingredients.add(Ingredient.builder()
+                        .id(in.readNullableLong())
+                        .name(in.readString())
+                        .amount(in.readString())
+                        .state(in.readString())
+                        .build());
+            }
+            recipe.setIngredients(ingredients);
+        }
+
+        count = in.readCount();
+        if (count < 0) {
+            recipe.setSteps(null);
+        } else {
+            ArrayList<Step> steps = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                steps.add(Step.builder()
+                        .id(in.readVarLong())
+                        .stepNumber(in.readVarInt())
+                        .description(in.readString())
+                        .build());
+            }
+            recipe.setSteps(steps);
+        }
+
+        count = in.readCount();
+        if (count < 0) {
+            recipe.setReviews(null);
+        } else {
+            ArrayList<Review> reviews = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                reviews.add(readReview(in));
+            }
+            recipe.setReviews(reviews);
+        }
+        return recipe;
+    }
+
+    static void writeReview(CompactOutput out, Review review) {
+        out.writeNullableLong(review.getId());
+        out.writeString(username(review.getUser()));
+        out.writeVarInt(review.getRating());
+        out.writeString(review.getDescription());
+    }
+
+    static Review readReview(CompactInput in) {
+        return Review.builder()
+                .id(in.readNullableLong())
+                .user(user(in.readString()))
+                .rating(in.readVarInt())
+                .description(in.readString())
+                .build();
+    }
+
+    static void writeSummary(CompactOutput out, RecipeSummary summary) {
+        out.writeNullableLong(summary.getId());
+        out.writeString(summary.getName());
+        out.writeString(summary.getAuthor());
+        out.writeNullableInt(summary.getMinutesToMake());
+        out.writeNullableInt(summary.getDifficultyRating());
+        out.writeDouble(summary.getAverageRating());
+        out.writeVarInt(summary.getReviewCount());
+    }
+
+    static RecipeSummary readSummary(CompactInput in) {
+        return RecipeSummary.builder()
+                .id(in.readNullableLong())
+                .name(in.readString())
+                .author(in.readString())
+                .minutesToMake(in.readNullableInt())
+                .difficultyRating(in.readNullableInt())
+                .averageRating(in.readDouble())
+                .reviewCount(in.readVarInt())
+                .build();
+    }
+
+    private static String username(CustomUserDetails user) {
+        return user == null ? null : user.getUsername();
+    }
+
+    private static CustomUserDetails user(String username) {
+        if (username == null) {
+            return null;
+        }
+        CustomUserDetails user = new CustomUserDetails();
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,20 @@
+package com.sadatmalik.recipeapi.cache.ehcache;
+
+import com.sadatmalik.recipeapi.model.Recipe;
+
+public class RecipeSerializer extends CompactSerializer<Recipe> {
+
+    // Ehcache instantiates serializers reflectively through this constructor
+    public RecipeSerializer(ClassLoader classLoader) {
+    }
+
+    @Override
+    void write(CompactOutput out, Recipe recipe) {
+        ModelCodec.writeRecipe(out, recipe);
+    }
+
+    @Override
+    Recipe read(CompactInput in) {
+        return ModelCodec.readRecipe(in);
+    }
+}
@@ -0,0 +1,20 @@
+package com.sadatmalik.recipeapi.cache.ehcache;
+
+import com.sadatmalik.recipeapi.model.Review;
+
+public class ReviewSerializer extends CompactSerializer<Review> {
+
+    // Ehcache instantiates serializers reflectively through this constructor
+    public ReviewSerializer(ClassLoader classLoader) {
+    }
+
+    @Override
+    void write(CompactOutput out, Review review) {
+        ModelCodec.writeReview(out, review);
+    }
+
+    @Override
+    Review read(CompactInput in) {
+        return ModelCodec.readReview(in);
+    }
+}
@@ -0,0 +1,147 @@
+package com.sadatmalik.recipeapi.cache.invalidation;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Wraps each cache so that its evictions, clears and puts are broadcast on the InvalidationBus, and applies the
+// other nodes' invalidations to the local caches. A remote put only evicts here - values aren't shipped, the
+// next read loads the new state from the database.
+public class BroadcastingCacheManager implements CacheManager, InvalidationListener {
+
+    private final CacheManager delegate;
+
+    private final InvalidationBus bus;
+
+    private final Map<String, BroadcastingCache> caches = new ConcurrentHashMap<>();
+
+    public BroadcastingCacheManager(CacheManager delegate, InvalidationBus bus) {
+        this.delegate = delegate;
+        this.bus = bus;
+        bus.subscribe(this);
+    }
+
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        BroadcastingCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache local = delegate.getCache(name);
+        if (local == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new BroadcastingCache(local));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @Override
+    public void onRemoteInvalidation(String cacheName, Object key) {
+        Cache local = delegate.getCache(cacheName);
+        if (local == null) {
+            return;
+        }
+        if (key == null) {
+            local.clear();
+        } else {
+            local.evict(key);
+        }
+    }
+
+    @Override
+    public void onRemoteGap() {
+        for (String name : delegate.getCacheNames()) {
+            Cache local = delegate.getCache(name);
+            if (local != null) {
+                local.clear();
+            }
+        }
+    }
+
+    private class BroadcastingCache implements Cache {
+
+        private final Cache local;
+
+        BroadcastingCache(Cache local) {
+            this.local = local;
+        }
+
+        @Override
+        public String getName() {
+            return local.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return local.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return local.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return local.get(key, type);
+        }
+
+        // loads aren't broadcast - they don't change what the other nodes should hold
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return local.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            local.put(key, value);
+            bus.publishEvict(getName(), key);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            ValueWrapper existing = local.putIfAbsent(key, value);
+            bus.publishEvict(getName(), key);
+            return existing;
+        }
+
+        @Override
+        public void evict(Object key) {
+            local.evict(key);
+            bus.publishEvict(getName(), key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean present = local.evictIfPresent(key);
+            // another node may hold it even when this one doesn't
+            bus.publishEvict(getName(), key);
+            return present;
+        }
+
+        @Override
+        public void clear() {
+            local.clear();
+            bus.publishClear(getName());
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean present = local.invalidate();
+            bus.publishClear(getName());
+            return present;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.sadatmalik.recipeapi.cache.invalidation;
+
+import com.sadatmalik.recipeapi.support.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Broadcasts this node's cache invalidations to the other nodes, and hands theirs to the registered listeners.
+//
+// Every message carries the sender's sequence number, and each sender also sends a heartbeat with its latest
+// number, so a receiver notices lost messages within one heartbeat - it then treats all its cached state as
+// stale (InvalidationListener.onRemoteGap), which is always safe.
+//
+// Listeners may query the database, so with a listener queue they run on a thread of their own rather than the
+// transport's receiving thread, which would otherwise drop datagrams while they ran. Gaps coalesce - one still
+// queued covers any found before it runs - and a full queue is dropped in favour of a single gap.
+public class InvalidationBus implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final String origin = UUID.randomUUID().toString();
+
+    private final InvalidationTransport transport;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // the last sequence number seen from each other node
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService heartbeat;
+
+    // null delivers to the listeners on the receiving thread
+    private final ThreadPoolExecutor listenerExecutor;
+
+    private final AtomicBoolean gapPending = new AtomicBoolean();
+
+    // a null transport makes a bus that publishes nowhere, for single node deployments
+    public InvalidationBus(InvalidationTransport transport, Duration heartbeatInterval) {
+        this(transport, heartbeatInterval, 0);
+    }
+
+    // a listenerQueueCapacity of 0 delivers to the listeners on the receiving thread
+    public InvalidationBus(InvalidationTransport transport, Duration heartbeatInterval, int listenerQueueCapacity) {
+        this.transport = transport;
+        if (transport == null) {
+            this.heartbeat = null;
+            this.listenerExecutor = null;
+            return;
+        }
+        this.listenerExecutor = listenerQueueCapacity <= 0 ? null : new ThreadPoolExecutor(1, 1, 0,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(listenerQueueCapacity), r -> {
+            Thread thread = new Thread(r, "cache-invalidation-listeners");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transport.start(this::receive);
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cache-invalidation-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(() -> send(InvalidationMessage.Type.HEARTBEAT, null, null),
+                millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return transport != null;
+    }
+
+    public void subscribe(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    // Publishes once the surrounding transaction commits, so other nodes don't reload the old state from the
+    // database before this node's write is visible.
+    public void publishEvict(String cacheName, Object key) {
+        publish(InvalidationMessage.Type.EVICT, cacheName, key);
+    }
+
+    public void publishClear(String cacheName) {
+        publish(InvalidationMessage.Type.CLEAR, cacheName, null);
+    }
+
+    private void publish(InvalidationMessage.Type type, String cacheName, Object key) {
+        if (transport == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> send(type, cacheName, key));
+    }
+
+    // numbering and sending together, so a heartbeat never overtakes the message it counts
+    private synchronized void send(InvalidationMessage.Type type, String cacheName, Object key) {
+        long number = type == InvalidationMessage.Type.HEARTBEAT ? sequence.get() : sequence.incrementAndGet();
+        transport.send(new InvalidationMessage(origin, number, type, cacheName, key));
+    }
+
+    void receive(InvalidationMessage message) {
+        if (origin.equals(message.getOrigin())) {
+            return;
+        }
+        Long previous = lastSeen.get(message.getOrigin());
+        boolean heartbeat = message.getType() == InvalidationMessage.Type.HEARTBEAT;
+        if (previous != null && message.getSequence() > previous + (heartbeat ? 0 : 1)) {
+            LOGGER.warn("Missed cache invalidations from " + message.getOrigin() + " (had #" + previous + ", got #" +
+                    message.getSequence() + ") - clearing local caches");
+            gap();
+        }
+        lastSeen.merge(message.getOrigin(), message.getSequence(), Math::max);
+
+        if (!heartbeat) {
+            LOGGER.debug("Remote cache invalidation: " + message);
+            Object key = message.getType() == InvalidationMessage.Type.CLEAR ? null : message.getKey();
+            dispatch(() -> listeners.forEach(listener -> listener.onRemoteInvalidation(message.getCacheName(), key)));
+        }
+    }
+
+    private void gap() {
+        if (gapPending.compareAndSet(false, true)) {
+            dispatch(() -> {
+                gapPending.set(false);
+                listeners.forEach(InvalidationListener::onRemoteGap);
+            });
+        }
+    }
+
+    private void dispatch(Runnable delivery) {
+        if (listenerExecutor == null) {
+            delivery.run();
+            return;
+        }
+        if (listenerExecutor.isShutdown()) {
+            return;
+        }
+        try {
+            listenerExecutor.execute(() -> {
+                try {
+                    delivery.run();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Handling a cache invalidation failed: " + e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the listeners have fallen too far behind - one gap covers everything still queued
+            LOGGER.warn("Cache invalidation queue is full - clearing local caches");
+            listenerExecutor.getQueue().clear();
+            gapPending.set(false);
+            gap();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        if (listenerExecutor != null) {
+            listenerExecutor.shutdownNow();
+        }
+        if (transport != null) {
+            transport.close();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.sadatmalik.recipeapi.cache.invalidation;
+
+// Told about invalidations made on other nodes.
+public interface InvalidationListener {
+
+    // a null key means the whole cache was cleared
+    void onRemoteInvalidation(String cacheName, Object key);
+
+    // messages from another node were lost, so anything this node holds may be stale
+    void onRemoteGap();
+}
@@ -0,0 +1,62 @@
+package com.sadatmalik.recipeapi.cache.invalidation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+
+// One cache invalidation as sent between nodes. A null key clears the whole cache; a heartbeat carries no
+// invalidation, just the sender's latest sequence number so that receivers notice lost messages.
+@Getter
+@AllArgsConstructor
+public class InvalidationMessage {
+
+    public enum Type { EVICT, CLEAR, HEARTBEAT }
+
+    private static final String VERSION = "v1";
+
+    private static final String SEPARATOR = "|";
+
+    private final String origin;
+
+    private final long sequence;
+
+    private final Type type;
+
+    private final String cacheName;
+
+    private final Object key;
+
+    // v1|origin|sequence|type|cacheName|keyType|key - the key goes last, since string keys may contain '|'
+    public byte[] encode() {
+        String keyType = key == null ? "-" : key instanceof Long ? "L" : "S";
+        return String.join(SEPARATOR, VERSION, origin, String.valueOf(sequence), type.name(),
+                cacheName == null ? "" : cacheName, keyType, key == null ? "" : key.toString())
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static InvalidationMessage decode(byte[] bytes, int length) {
+        String[] parts = new String(bytes, 0, length, StandardCharsets.UTF_8).split("\\|", 7);
+        if (parts.length != 7 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Not an invalidation message");
+        }
+        Object key;
+        switch (parts[5]) {
+            case "L":
+                key = Long.valueOf(parts[6]);
+                break;
+            case "S":
+                key = parts[6];
+                break;
+            default:
+                key = null;
+        }
+        return new InvalidationMessage(parts[1], Long.parseLong(parts[2]), Type.valueOf(parts[3]),
+                parts[4].isEmpty() ? null : parts[4], key);
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + cacheName + " " + key + " from " + origin + "#" + sequence;
+    }
+}
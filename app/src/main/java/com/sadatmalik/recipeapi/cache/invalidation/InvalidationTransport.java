@@ -0,0 +1,16 @@
+package com.sadatmalik.recipeapi.cache.invalidation;
+
+import java.util.function.Consumer;
+
+// Carries invalidation messages to the other nodes. Delivery may be lossy - InvalidationBus numbers the messages
+// and treats a gap as "everything may be stale".
+public interface InvalidationTransport extends AutoCloseable {
+
+    // starts delivering messages from other nodes to the receiver
+    void start(Consumer<InvalidationMessage> receiver);
+
+    void send(InvalidationMessage message);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,34 @@
+package com.sadatmalik.recipeapi.cache.invalidation;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+// Delivers messages to every other started LoopbackTransport in the same JVM, synchronously - for tests that run
+// several buses (or application contexts) side by side.
+public class LoopbackTransport implements InvalidationTransport {
+
+    private static final Set<LoopbackTransport> STARTED = new CopyOnWriteArraySet<>();
+
+    private volatile Consumer<InvalidationMessage> receiver;
+
+    @Override
+    public void start(Consumer<InvalidationMessage> receiver) {
+        this.receiver = receiver;
+        STARTED.add(this);
+    }
+
+    @Override
+    public void send(InvalidationMessage message) {
+        for (LoopbackTransport transport : STARTED) {
+            if (transport != this) {
+                transport.receiver.accept(message);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        STARTED.remove(this);
+    }
+}
@@ -0,0 +1,124 @@
+package com.sadatmalik.recipeapi.cache.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Sends each message as one datagram to every configured peer, and listens for theirs on a local address and
+// port. Datagrams can be lost or reordered - InvalidationBus detects that from the sequence numbers. Each one is
+// signed with an HMAC of the secret all the nodes share, and a datagram without a valid signature is dropped.
+public class UdpTransport implements InvalidationTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UdpTransport.class);
+
+    private static final int MAX_DATAGRAM = 8192;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private static final int MAC_LENGTH = 32;
+
+    private final DatagramSocket socket;
+
+    private final List<InetSocketAddress> peers = new ArrayList<>();
+
+    private final SecretKeySpec key;
+
+    // peers are host:port pairs
+    public UdpTransport(String bindAddress, int port, List<String> peers, String secret) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalStateException("Cache invalidations over udp need a shared secret");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        try {
+            this.socket = new DatagramSocket(new InetSocketAddress(InetAddress.getByName(bindAddress), port));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not listen for cache invalidations on " + bindAddress + ":" +
+                    port, e);
+        }
+        for (String peer : peers) {
+            int colon = peer.lastIndexOf(':');
+            this.peers.add(new InetSocketAddress(peer.substring(0, colon).trim(),
+                    Integer.parseInt(peer.substring(colon + 1).trim())));
+        }
+    }
+
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public void start(Consumer<InvalidationMessage> receiver) {
+        Thread listener = new Thread(() -> {
+            byte[] buffer = new byte[MAX_DATAGRAM];
+            while (!socket.isClosed()) {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                try {
+                    socket.receive(packet);
+                    int length = packet.getLength() - MAC_LENGTH;
+                    if (length <= 0 || !MessageDigest.isEqual(sign(buffer, length),
+                            Arrays.copyOfRange(buffer, length, length + MAC_LENGTH))) {
+                        LOGGER.debug("Dropping an unsigned cache invalidation from " + packet.getSocketAddress());
+                        continue;
+                    }
+                    receiver.accept(InvalidationMessage.decode(buffer, length));
+                } catch (IOException e) {
+                    if (!socket.isClosed()) {
+                        LOGGER.warn("Receiving a cache invalidation failed: " + e);
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Ignoring a cache invalidation from " + packet.getSocketAddress() + ": " + e);
+                }
+            }
+        }, "cache-invalidation-udp");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void send(InvalidationMessage message) {
+        byte[] bytes = message.encode();
+        if (bytes.length + MAC_LENGTH > MAX_DATAGRAM) {
+            // only a pathological key gets here - clearing the cache is the safe substitute
+            bytes = new InvalidationMessage(message.getOrigin(), message.getSequence(), InvalidationMessage.Type.CLEAR,
+                    message.getCacheName(), null).encode();
+        }
+        byte[] signature = sign(bytes, bytes.length);
+        bytes = Arrays.copyOf(bytes, bytes.length + MAC_LENGTH);
+        System.arraycopy(signature, 0, bytes, bytes.length - MAC_LENGTH, MAC_LENGTH);
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(bytes, bytes.length, peer));
+            } catch (IOException e) {
+                // the peer will see the gap in sequence numbers and clear its caches
+                LOGGER.warn("Sending a cache invalidation to " + peer + " failed: " + e);
+            }
+        }
+    }
+
+    private byte[] sign(byte[] bytes, int length) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            mac.update(bytes, 0, length);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(MAC_ALGORITHM + " is unavailable", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+}
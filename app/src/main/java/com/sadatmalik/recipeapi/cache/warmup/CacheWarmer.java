@@ -0,0 +1,152 @@
+package com.sadatmalik.recipeapi.cache.warmup;
+
+import com.sadatmalik.recipeapi.exceptions.NoSuchRecipeException;
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.model.RecipeSummary;
+import com.sadatmalik.recipeapi.services.RecipeService;
+import com.sadatmalik.recipeapi.services.RecipeSummaryService;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Preloads the most read recipes and the first pages of GET /recipes through the cached service methods, so a
+// fresh node doesn't send its first minutes of traffic to the database.
+//
+// It runs as the last CommandLineRunner. Spring Boot only reports the application ready to accept traffic once
+// the runners return, so readiness (GET /status/readiness) waits for the warm-up, up to the deadline.
+@Component
+@Order(CacheWarmer.ORDER)
+public class CacheWarmer implements CommandLineRunner {
+
+    // runners that change data, like seeding or backfills, must be ordered before this
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheWarmer.class);
+
+    @Autowired
+    WarmUpProperties properties;
+
+    @Autowired
+    RecipeAccessLog recipeAccessLog;
+
+    @Autowired
+    RecipeService recipeService;
+
+    @Autowired
+    RecipeSummaryService recipeSummaryService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger recipesLoaded = new AtomicInteger();
+
+    private final AtomicInteger pagesLoaded = new AtomicInteger();
+
+    @Getter
+    private volatile String state = "PENDING";
+
+    private volatile long durationMillis;
+
+    @Override
+    public void run(String... args) throws InterruptedException {
+        if (!properties.isEnabled()) {
+            state = "DISABLED";
+            return;
+        }
+        state = "RUNNING";
+        long start = System.nanoTime();
+
+        // cached methods load lazy collections, which outside a web request needs a transaction
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<Callable<Void>> loads = new ArrayList<>();
+        loads.add(() -> readOnly.execute(status -> loadPages(false)));
+        loads.add(() -> readOnly.execute(status -> loadPages(true)));
+        for (Long id : recipeAccessLog.topRecipeIds(properties.getTopRecipes())) {
+            loads.add(() -> readOnly.execute(status -> loadRecipe(id)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism(), r -> {
+            Thread thread = new Thread(r, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // loads still queued or running at the deadline are cancelled
+            List<Future<Void>> results = executor.invokeAll(loads, properties.getDeadline().toMillis(),
+                    TimeUnit.MILLISECONDS);
+            state = results.stream().anyMatch(Future::isCancelled) ? "DEADLINE_PASSED" : "COMPLETE";
+        } finally {
+            executor.shutdownNow();
+            durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        LOGGER.info("Cache warm-up " + state + " in " + durationMillis + "ms: " + recipesLoaded.get() +
+                " recipes and " + pagesLoaded.get() + " list pages loaded");
+    }
+
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("state", state);
+        report.put("recipesLoaded", recipesLoaded.get());
+        report.put("pagesLoaded", pagesLoaded.get());
+        report.put("durationMs", durationMillis);
+        return report;
+    }
+
+    private Void loadRecipe(Long id) {
+        try {
+            recipeService.getRecipeById(id);
+            recipesLoaded.incrementAndGet();
+        } catch (NoSuchRecipeException e) {
+            // deleted since it was read
+            recipeAccessLog.forget(id);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Cache warm-up of recipe " + id + " failed: " + e);
+        }
+        return null;
+    }
+
+    // pages are keyset paged, so each one starts after the last id of the one before
+    private Void loadPages(boolean summaries) {
+        long after = 0;
+        try {
+            for (int page = 0; page < properties.getListPages() && !Thread.currentThread().isInterrupted(); page++) {
+                List<?> loaded;
+                if (summaries) {
+                    ArrayList<RecipeSummary> summaryPage = recipeSummaryService.getRecipeSummaries(after,
+                            RecipeService.DEFAULT_PAGE_SIZE);
+                    after = summaryPage.isEmpty() ? after : summaryPage.get(summaryPage.size() - 1).getId();
+                    loaded = summaryPage;
+                } else {
+                    ArrayList<Recipe> recipePage = recipeService.getAllRecipes(after, RecipeService.DEFAULT_PAGE_SIZE);
+                    after = recipePage.isEmpty() ? after : recipePage.get(recipePage.size() - 1).getId();
+                    loaded = recipePage;
+                }
+                pagesLoaded.incrementAndGet();
+                if (loaded.size() < RecipeService.DEFAULT_PAGE_SIZE) {
+                    break;
+                }
+            }
+        } catch (NoSuchRecipeException e) {
+            // no more pages
+        } catch (RuntimeException e) {
+            LOGGER.warn("Cache warm-up of the recipe list failed: " + e);
+        }
+        return null;
+    }
+}
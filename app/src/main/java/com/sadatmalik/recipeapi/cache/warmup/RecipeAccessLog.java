@@ -0,0 +1,119 @@
+package com.sadatmalik.recipeapi.cache.warmup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Counts reads of each recipe, so CacheWarmer knows which ones to preload. The counts are saved to a small text
+// file (one "id count" line per recipe, most read first) periodically and on shutdown, and read back on start-up
+// at half weight, so that recipes that have stopped being read fall out of the top over a few restarts.
+@Component
+public class RecipeAccessLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecipeAccessLog.class);
+
+    @Autowired
+    WarmUpProperties properties;
+
+    private final Map<Long, LongAdder> reads = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService saver;
+
+    @PostConstruct
+    void load() {
+        Path file = properties.getAccessLog();
+        if (Files.isReadable(file)) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    String[] fields = line.trim().split(" ");
+                    if (fields.length == 2) {
+                        reads.computeIfAbsent(Long.parseLong(fields[0]), id -> new LongAdder())
+                                .add(Long.parseLong(fields[1]) / 2);
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                LOGGER.warn("Ignoring unreadable recipe access log " + file + ": " + e);
+                reads.clear();
+            }
+        }
+
+        saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "recipe-access-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = properties.getAccessLogSaveInterval().toMillis();
+        saver.scheduleAtFixedRate(this::save, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordRead(Long id) {
+        reads.computeIfAbsent(id, key -> new LongAdder()).increment();
+    }
+
+    // the most read recipe ids, most read first
+    public List<Long> topRecipeIds(int limit) {
+        return reads.entrySet().stream()
+                .sorted(Map.Entry.<Long, LongAdder>comparingByValue(
+                        (a, b) -> Long.compare(b.sum(), a.sum())))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    public void forget(Long id) {
+        reads.remove(id);
+    }
+
+    // Writes the top recipes, twice as many as are preloaded, and drops the rest from memory so the log stays small.
+    synchronized void save() {
+        int keep = properties.getTopRecipes() * 2;
+        List<Long> top = topRecipeIds(keep);
+        Path file = properties.getAccessLog();
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Long id : top) {
+                    LongAdder count = reads.get(id);
+                    if (count != null) {
+                        writer.write(id + " " + count.sum());
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not save recipe access log " + file + ": " + e);
+        }
+        if (reads.size() > keep) {
+            reads.keySet().retainAll(new HashSet<>(top));
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        saver.shutdownNow();
+        save();
+    }
+}
@@ -0,0 +1,35 @@
+package com.sadatmalik.recipeapi.cache.warmup;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+// recipeapi.cache.warmup.* - what is preloaded into the caches on start-up, and how long readiness waits for it
+@Getter
+@Setter
+@ConfigurationProperties("recipeapi.cache.warmup")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+
+    // the most read recipes to preload, by the access log
+    private int topRecipes = 200;
+
+    // pages of GET /recipes (full and summary views) to preload
+    private int listPages = 3;
+
+    // loads run at once - keep this well under the connection pool size
+    private int parallelism = 4;
+
+    // readiness is reported once warm-up finishes or this passes, whichever is first
+    private Duration deadline = Duration.ofSeconds(30);
+
+    // where recipe read counts are kept between restarts
+    private Path accessLog = Paths.get("spring-boot-ehcache", "recipe-access.log");
+
+    private Duration accessLogSaveInterval = Duration.ofMinutes(5);
+}
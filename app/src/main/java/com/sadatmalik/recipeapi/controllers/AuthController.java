@@ -0,0 +1,39 @@
+package com.sadatmalik.recipeapi.controllers;
+
+import com.sadatmalik.recipeapi.model.CustomUserDetails;
+import com.sadatmalik.recipeapi.security.TokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+
+    @Autowired
+    TokenService tokenService;
+
+    // Exchanges HTTP Basic credentials for a bearer token - send it as "Authorization: Bearer <token>" until it
+    // expires, then ask for a new one.
+    @PostMapping("/token")
+    public ResponseEntity<?> createToken(Authentication authentication) {
+        //a token can't be used to get another one, or it would never need the password again
+        if (authentication instanceof PreAuthenticatedAuthenticationToken) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Tokens are only issued for username and password credentials.");
+        }
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("token", tokenService.issue((CustomUserDetails) authentication.getPrincipal()));
+        token.put("tokenType", "Bearer");
+        token.put("expiresIn", tokenService.getTtl().getSeconds());
+        return ResponseEntity.ok(token);
+    }
+}
@@ -0,0 +1,77 @@
+package com.sadatmalik.recipeapi.controllers;
+
+import com.sadatmalik.recipeapi.cache.CacheMetrics;
+import com.sadatmalik.recipeapi.metrics.EndpointMetrics;
+import com.sadatmalik.recipeapi.metrics.PrometheusText;
+import com.sadatmalik.recipeapi.metrics.QueryMetrics;
+import com.sadatmalik.recipeapi.metrics.ServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// Operational statistics, for admins only (see SecurityConfig)
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+
+    @Autowired
+    CacheMetrics cacheMetrics;
+
+    @Autowired
+    QueryMetrics queryMetrics;
+
+    @Autowired
+    EndpointMetrics endpointMetrics;
+
+    @Autowired
+    ServiceMetrics serviceMetrics;
+
+    @GetMapping("/cache")
+    public ResponseEntity<?> getCacheMetrics() {
+        return ResponseEntity.ok(cacheMetrics.snapshot());
+    }
+
+    @GetMapping("/cache/{name}")
+    public ResponseEntity<?> getCacheMetrics(@PathVariable("name") String name) {
+        Map<String, Object> statistics = cacheMetrics.statistics(name);
+        if (statistics == null) {
+            return ResponseEntity.status(404).body("No cache named " + name + " could be found.");
+        }
+        return ResponseEntity.ok(statistics);
+    }
+
+    // SQL statements, JDBC time and cache hits per request, by endpoint
+    @GetMapping("/queries")
+    public ResponseEntity<?> getQueryMetrics() {
+        return ResponseEntity.ok(queryMetrics.snapshot());
+    }
+
+    // request counts, error rates, throughput, latency percentiles and where the time went, by endpoint
+    @GetMapping("/endpoints")
+    public ResponseEntity<?> getEndpointMetrics() {
+        return ResponseEntity.ok(endpointMetrics.snapshot());
+    }
+
+    // calls, errors and latency percentiles of the RecipeService and ReviewService methods
+    @GetMapping("/services")
+    public ResponseEntity<?> getServiceMetrics() {
+        return ResponseEntity.ok(serviceMetrics.snapshot());
+    }
+
+    // the endpoint and service metrics for a Prometheus scrape, which has to authenticate as an admin
+    @GetMapping("/prometheus")
+    public ResponseEntity<String> getPrometheusMetrics() {
+        PrometheusText text = new PrometheusText();
+        endpointMetrics.writePrometheus(text);
+        serviceMetrics.writePrometheus(text);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PrometheusText.CONTENT_TYPE))
+                .body(text.toString());
+    }
+}
@@ -0,0 +1,214 @@
+package com.sadatmalik.recipeapi.controllers;
+
+import com.sadatmalik.recipeapi.cache.warmup.RecipeAccessLog;
+import com.sadatmalik.recipeapi.exceptions.NoSuchRecipeException;
+import com.sadatmalik.recipeapi.model.BulkImportResult;
+import com.sadatmalik.recipeapi.model.CustomUserDetails;
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.services.CustomUserDetailsService;
+import com.sadatmalik.recipeapi.services.RecipeImportService;
+import com.sadatmalik.recipeapi.services.RecipeService;
+import com.sadatmalik.recipeapi.services.RecipeStreamingService;
+import com.sadatmalik.recipeapi.services.RecipeSummaryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.Principal;
+import java.util.ArrayList;
+
+@RestController
+@RequestMapping("/recipes")
+public class RecipeController {
+
+    // list endpoints are keyset paged: pass the id of the last recipe received as 'after' to get the next page
+    private static final String PAGE_SIZE = "" + RecipeService.DEFAULT_PAGE_SIZE;
+
+    // list endpoints return full recipes by default, or just the list fields with view=summary
+    private static final String FULL_VIEW = "full";
+
+    @Autowired
+    RecipeService recipeService;
+
+    @Autowired
+    RecipeSummaryService recipeSummaryService;
+
+    @Autowired
+    RecipeStreamingService recipeStreamingService;
+
+    @Autowired
+    RecipeImportService recipeImportService;
+
+    @Autowired
+    CustomUserDetailsService customUserDetailsService;
+
+    // read counts, for warming the cache on start-up
+    @Autowired
+    RecipeAccessLog recipeAccessLog;
+
+    @PostMapping
+    public ResponseEntity<?> createNewRecipe(@RequestBody Recipe recipe, Principal principal) {
+        try {
+            recipe.setUser(customUserDetailsService.getUser(principal.getName()));
+            Recipe insertedRecipe = recipeService.createNewRecipe(recipe);
+            return ResponseEntity.created(insertedRecipe.getLocationURI()).body(insertedRecipe);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // many recipes at once, as a JSON array or one per line (application/x-ndjson), all authored by the caller
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, RecipeImportService.NDJSON})
+    public ResponseEntity<?> importRecipes(InputStream body, Principal principal) {
+        try {
+            BulkImportResult result = recipeImportService.importRecipes(body,
+                    customUserDetailsService.getUser(principal.getName()));
+            return result.getError() == null ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getRecipeById(@PathVariable("id") Long id) {
+        try {
+            Recipe recipe = recipeService.getRecipeById(id);
+            recipeAccessLog.recordRead(id);
+            return ResponseEntity.ok(recipe);
+        } catch (NoSuchRecipeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getAllRecipes(@RequestParam(value = "after", defaultValue = "0") long after,
+                                           @RequestParam(value = "limit", defaultValue = PAGE_SIZE) int limit,
+                                           @RequestParam(value = "view", defaultValue = FULL_VIEW) String view) {
+        try {
+            if (isSummaryView(view)) {
+                return ResponseEntity.ok(recipeSummaryService.getRecipeSummaries(after, limit));
+            }
+            return ResponseEntity.ok(recipeService.getAllRecipes(after, limit));
+        } catch (NoSuchRecipeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/stream")
+    // streams the whole catalog as newline-delimited JSON, or as one JSON array with format=array
+    public ResponseEntity<StreamingResponseBody> streamAllRecipes(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        boolean asArray = format.equalsIgnoreCase("array");
+        if (!asArray && !format.equalsIgnoreCase("ndjson")) {
+            // the body can only be a stream here, so the message goes in the status
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown format " + format +
+                    " - use ndjson or array.");
+        }
+        StreamingResponseBody body = outputStream -> recipeStreamingService.writeAllRecipes(outputStream, asArray);
+
+        return ResponseEntity.ok()
+                .contentType(asArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/search/{name}")
+    public ResponseEntity<?> getRecipesByName(@PathVariable("name") String name,
+                                              @RequestParam(value = "after", defaultValue = "0") long after,
+                                              @RequestParam(value = "limit", defaultValue = PAGE_SIZE) int limit,
+                                              @RequestParam(value = "view", defaultValue = FULL_VIEW) String view) {
+        try {
+            if (isSummaryView(view)) {
+                return ResponseEntity.ok(recipeSummaryService.getRecipeSummariesByName(name, after, limit));
+            }
+            ArrayList<Recipe> matchingRecipes = recipeService.getRecipesByName(name, after, limit);
+            return ResponseEntity.ok(matchingRecipes);
+        } catch (NoSuchRecipeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/search/rating/{min}")
+    // sort=id (the default) pages with 'after'; sort=rating returns the highest rated first and pages with
+    // 'afterRating' plus 'after', taken from the last recipe of the previous page
+    public ResponseEntity<?> getRecipesByMinRating(@PathVariable("min") Double min,
+                                                   @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                   @RequestParam(value = "after", required = false) Long after,
+                                                   @RequestParam(value = "afterRating", required = false) Double afterRating,
+                                                   @RequestParam(value = "limit", defaultValue = PAGE_SIZE) int limit,
+                                                   @RequestParam(value = "view", defaultValue = FULL_VIEW) String view) {
+        try {
+            if (isSummaryView(view)) {
+                return ResponseEntity.ok(sort.equalsIgnoreCase("rating")
+                        ? recipeSummaryService.getRecipeSummariesByMinRatingSortedByRating(min, afterRating, after, limit)
+                        : recipeSummaryService.getRecipeSummariesByMinRating(min, after == null ? 0 : after, limit));
+            }
+            ArrayList<Recipe> matchingRecipes;
+            if (sort.equalsIgnoreCase("rating")) {
+                matchingRecipes = recipeService.getRecipesByMinRatingSortedByRating(min, afterRating, after, limit);
+            } else {
+                matchingRecipes = recipeService.getRecipesByMinRating(min, after == null ? 0 : after, limit);
+            }
+            return ResponseEntity.ok(matchingRecipes);
+        } catch (NoSuchRecipeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/search/user/{username}")
+    public ResponseEntity<?> getRecipesByUser(@PathVariable("username") String username,
+                                              @RequestParam(value = "after", defaultValue = "0") long after,
+                                              @RequestParam(value = "limit", defaultValue = PAGE_SIZE) int limit,
+                                              @RequestParam(value = "view", defaultValue = FULL_VIEW) String view) {
+        try {
+            if (isSummaryView(view)) {
+                return ResponseEntity.ok(recipeSummaryService.getRecipeSummariesByUser(username, after, limit));
+            }
+            ArrayList<Recipe> matchingRecipes = recipeService.getRecipesByUser(username, after, limit);
+            return ResponseEntity.ok(matchingRecipes);
+        } catch (NoSuchRecipeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    //make sure that a user is either an admin or the owner of the recipe before they are allowed to delete
+    @PreAuthorize("hasPermission(#id, 'Recipe', 'delete')")
+    public ResponseEntity<?> deleteRecipeById(@PathVariable("id") Long id) {
+        try {
+            Recipe deletedRecipe = recipeService.deleteRecipeById(id);
+            return ResponseEntity.ok("The recipe with ID " + deletedRecipe.getId() +
+                    " and name " + deletedRecipe.getName() + " was deleted.");
+        } catch (NoSuchRecipeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PatchMapping
+    //make sure that a user is either an admin or the owner of the recipe before they are allowed to update
+    @PreAuthorize("hasPermission(#updatedRecipe.id, 'Recipe', 'edit')")
+    public ResponseEntity<?> updateRecipe(Authentication authentication,
+                                          @RequestBody Recipe updatedRecipe) {
+
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        updatedRecipe.setUser(userDetails);
+
+        try {
+            Recipe returnedUpdatedRecipe = recipeService.updateRecipe(updatedRecipe, true);
+            return ResponseEntity.ok(returnedUpdatedRecipe);
+        } catch (NoSuchRecipeException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private static boolean isSummaryView(String view) {
+        return view.equalsIgnoreCase("summary");
+    }
+}
@@ -7,13 +7,16 @@ import com.sadatmalik.recipeapi.model.CustomUserDetails;
 import com.sadatmalik.recipeapi.model.Recipe;
 import com.sadatmalik.recipeapi.model.Review;
 import com.sadatmalik.recipeapi.services.CustomUserDetailsService;
+import com.sadatmalik.recipeapi.services.RecipeService;
 import com.sadatmalik.recipeapi.services.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
 import java.util.ArrayList;
 
 @RestController
@@ -23,6 +26,9 @@ public class ReviewController {
     @Autowired
     ReviewService reviewService;
 
+    @Autowired
+    RecipeService recipeService;
+
     @Autowired
     CustomUserDetailsService customUserDetailsService;
 
@@ -63,8 +69,13 @@ public class ReviewController {
             review.validate();
             review.setUser((CustomUserDetails) authentication.getPrincipal());
 
-            Recipe insertedRecipe = reviewService.postNewReview(review, recipeId);
-            return ResponseEntity.created(insertedRecipe.getLocationURI()).body(insertedRecipe);
+            reviewService.postNewReview(review, recipeId);
+            // read once the review has committed - the recipe with its reviews, as the next reader will cache it.
+            // Cached recipes are shared, so the location is built here rather than set on it.
+            Recipe reviewedRecipe = recipeService.getRecipeById(recipeId);
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/recipes/{id}").buildAndExpand(recipeId).toUri();
+            return ResponseEntity.created(location).body(reviewedRecipe);
         } catch (NoSuchRecipeException | UserException | IllegalStateException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -0,0 +1,38 @@
+package com.sadatmalik.recipeapi.controllers;
+
+import com.sadatmalik.recipeapi.cache.warmup.CacheWarmer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Probes for load balancers and orchestrators, open to everyone (see SecurityConfig)
+@RestController
+@RequestMapping("/status")
+public class StatusController {
+
+    @Autowired
+    ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    CacheWarmer cacheWarmer;
+
+    // 200 once start-up, including the cache warm-up, is done - 503 before that
+    @GetMapping("/readiness")
+    public ResponseEntity<?> getReadiness() {
+        ReadinessState readiness = applicationAvailability.getReadinessState();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("readiness", readiness);
+        body.put("cacheWarmUp", cacheWarmer.report());
+        HttpStatus status = readiness == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(body);
+    }
+}
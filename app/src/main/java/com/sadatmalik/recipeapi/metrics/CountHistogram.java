@@ -0,0 +1,69 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// A lock-free histogram of small counts, such as the SQL statements of a request. Every count up to MAX_EXACT has
+// a bucket of its own, so its percentiles are exact - unlike LatencyHistogram's, which may be 25% out and would
+// misreport a count against an exact budget. A percentile that falls among the larger counts is reported as the
+// largest count recorded.
+public class CountHistogram {
+
+    static final int MAX_EXACT = 255;
+
+    // one per count from 0 to MAX_EXACT, then one for everything larger
+    private final AtomicLongArray buckets = new AtomicLongArray(MAX_EXACT + 2);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder total = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet((int) Math.min(value, MAX_EXACT + 1));
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    // to two decimal places
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : Math.round(total.sum() * 100.0 / n) / 100.0;
+    }
+
+    // e.g. percentile(0.99) - 0 when nothing has been recorded
+    public long percentile(double percentile) {
+        long[] counts = new long[buckets.length()];
+        long recorded = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            recorded += counts[i];
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max((long) Math.ceil(percentile * recorded), 1);
+        long seen = 0;
+        for (int i = 0; i <= MAX_EXACT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i;
+            }
+        }
+        return getMax();
+    }
+}
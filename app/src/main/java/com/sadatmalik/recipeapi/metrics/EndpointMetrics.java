@@ -0,0 +1,164 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+// Per endpoint request counts, error rates, throughput and latency percentiles, with each request's time split
+// into the phases RequestStats measures: cache reads, JDBC, JSON (de)serialization, permission evaluation and the
+// rest. Phases can overlap - a permission check or a cache load that queries the database counts under db as well.
+// A 5xx response, or an exception escaping the request, is an error; a 4xx is counted as a client error apart.
+// Served at GET /metrics/endpoints and /metrics/prometheus, and over JMX.
+@Component
+@ManagedResource(objectName = "com.sadatmalik.recipeapi:type=EndpointMetrics",
+        description = "Request latency, throughput and errors by endpoint")
+public class EndpointMetrics {
+
+    static final List<String> PHASES = List.of("cache", "db", "serialization", "permission", "other");
+
+    private final Map<String, EndpointTimer> endpoints = new ConcurrentHashMap<>();
+
+    void record(String method, String pattern, int status, long nanos, RequestStats stats) {
+        EndpointTimer endpoint = endpoints.computeIfAbsent(method + " " + pattern,
+                e -> new EndpointTimer(method, pattern));
+        endpoint.timer.record(nanos, status >= 500);
+        if (status >= 400 && status < 500) {
+            endpoint.clientErrors.increment();
+        }
+
+        long cache = stats.getCacheNanos();
+        long db = stats.getDbNanos();
+        long serialization = stats.getSerializationNanos();
+        long permission = stats.getPermissionNanos();
+        endpoint.phases[0].record(cache);
+        endpoint.phases[1].record(db);
+        endpoint.phases[2].record(serialization);
+        endpoint.phases[3].record(permission);
+        endpoint.phases[4].record(Math.max(0, nanos - cache - db - serialization - permission));
+    }
+
+    // statistics of every endpoint that has had a request, by endpoint
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new TreeMap<>();
+        endpoints.forEach((endpoint, timer) -> snapshot.put(endpoint, timer.toMap()));
+        return snapshot;
+    }
+
+    @ManagedOperation(description = "Statistics of one endpoint, e.g. GET /recipes/{id}")
+    public Map<String, Object> statistics(String endpoint) {
+        EndpointTimer timer = endpoints.get(endpoint);
+        return timer == null ? null : timer.toMap();
+    }
+
+    @ManagedAttribute(description = "Requests handled by each endpoint")
+    public Map<String, Long> getRequestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        endpoints.forEach((endpoint, timer) -> counts.put(endpoint, timer.timer.getCount()));
+        return counts;
+    }
+
+    @ManagedAttribute(description = "Fraction of each endpoint's requests that failed with a 5xx")
+    public Map<String, Double> getErrorRates() {
+        return byEndpoint(timer -> timer.getErrorRate());
+    }
+
+    @ManagedAttribute(description = "Requests per second to each endpoint over the last minute")
+    public Map<String, Double> getRatesPerSecond() {
+        return byEndpoint(timer -> timer.getRatePerSecond());
+    }
+
+    @ManagedAttribute(description = "p95 latency of each endpoint in milliseconds")
+    public Map<String, Double> getP95Millis() {
+        return byEndpoint(timer -> LatencyHistogram.millis(timer.getLatencies().percentileNanos(0.95)));
+    }
+
+    @ManagedAttribute(description = "p99 latency of each endpoint in milliseconds")
+    public Map<String, Double> getP99Millis() {
+        return byEndpoint(timer -> LatencyHistogram.millis(timer.getLatencies().percentileNanos(0.99)));
+    }
+
+    public void writePrometheus(PrometheusText out) {
+        Map<String, EndpointTimer> sorted = new TreeMap<>(endpoints);
+
+        out.family("recipeapi_http_requests_total", "counter", "Requests handled, by endpoint.");
+        sorted.values().forEach(e -> out.sample("recipeapi_http_requests_total", e.labels(), e.timer.getCount()));
+
+        out.family("recipeapi_http_request_errors_total", "counter",
+                "Requests that failed with a 5xx status or an exception, by endpoint.");
+        sorted.values().forEach(e ->
+                out.sample("recipeapi_http_request_errors_total", e.labels(), e.timer.getErrors()));
+
+        out.family("recipeapi_http_request_client_errors_total", "counter",
+                "Requests answered with a 4xx status, by endpoint.");
+        sorted.values().forEach(e ->
+                out.sample("recipeapi_http_request_client_errors_total", e.labels(), e.clientErrors.sum()));
+
+        out.family("recipeapi_http_request_duration_seconds", "summary", "Request latency, by endpoint.");
+        sorted.values().forEach(e ->
+                out.summary("recipeapi_http_request_duration_seconds", e.labels(), e.timer.getLatencies()));
+
+        out.family("recipeapi_http_request_phase_seconds", "summary",
+                "Time requests spent in cache reads, JDBC, serialization, permission evaluation and the rest.");
+        sorted.values().forEach(e -> {
+            for (int i = 0; i < PHASES.size(); i++) {
+                out.summary("recipeapi_http_request_phase_seconds",
+                        PrometheusText.labels("method", e.method, "uri", e.pattern, "phase", PHASES.get(i)),
+                        e.phases[i]);
+            }
+        });
+    }
+
+    private Map<String, Double> byEndpoint(ToDoubleFunction<Timer> value) {
+        Map<String, Double> values = new TreeMap<>();
+        endpoints.forEach((endpoint, timer) -> values.put(endpoint, value.applyAsDouble(timer.timer)));
+        return values;
+    }
+
+    private static class EndpointTimer {
+
+        final String method;
+
+        final String pattern;
+
+        final Timer timer = new Timer();
+
+        final LongAdder clientErrors = new LongAdder();
+
+        // in the order of PHASES
+        final LatencyHistogram[] phases = new LatencyHistogram[PHASES.size()];
+
+        EndpointTimer(String method, String pattern) {
+            this.method = method;
+            this.pattern = pattern;
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new LatencyHistogram();
+            }
+        }
+
+        String labels() {
+            return PrometheusText.labels("method", method, "uri", pattern);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = timer.toMap();
+            map.put("clientErrors", clientErrors.sum());
+            Map<String, Object> phaseTimes = new LinkedHashMap<>();
+            for (int i = 0; i < phases.length; i++) {
+                Map<String, Object> phase = phases[i].toMap();
+                phase.remove("count");
+                phaseTimes.put(PHASES.get(i), phase);
+            }
+            map.put("phases", phaseTimes);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+// Adds the time each Hibernate session spends executing statements and batches to the current request (see
+// RequestStats). Hibernate creates one per session from hibernate.session.events.auto, set by QueryMetricsConfig.
+public class JdbcTimingListener extends BaseSessionEventListener {
+
+    private long executeStart;
+
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestStats.jdbcTime(System.nanoTime() - executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestStats.jdbcTime(System.nanoTime() - batchStart);
+    }
+}
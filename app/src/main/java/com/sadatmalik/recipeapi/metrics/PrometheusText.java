@@ -0,0 +1,68 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+// Writes metrics in Prometheus' text exposition format, version 0.0.4. Each metric family is started once with
+// family() and all its samples must follow before the next family starts. Latency histograms are written as
+// summaries in seconds, with the p50, p95 and p99 quantiles since startup.
+public class PrometheusText {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private final StringBuilder out = new StringBuilder();
+
+    public PrometheusText family(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public PrometheusText sample(String name, String labels, double value) {
+        out.append(name).append(labels).append(' ').append(format(value)).append('\n');
+        return this;
+    }
+
+    public PrometheusText summary(String name, String labels, LatencyHistogram histogram) {
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        for (double quantile : QUANTILES) {
+            sample(name, prefix + "quantile=\"" + quantile + "\"}", seconds(histogram.percentileNanos(quantile)));
+        }
+        sample(name + "_sum", labels, seconds(histogram.getTotalNanos()));
+        sample(name + "_count", labels, histogram.getCount());
+        return this;
+    }
+
+    // e.g. labels("method", "GET", "uri", "/recipes/{id}"), escaping the values
+    public static String labels(String... namesAndValues) {
+        StringBuilder labels = new StringBuilder("{");
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(namesAndValues[i]).append("=\"").append(escape(namesAndValues[i + 1])).append('"');
+        }
+        return labels.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,133 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per endpoint distributions of how many SQL statements a request prepares and how long JDBC spends running them,
+// with the requests' cache hits and misses. A request over its endpoint's statement budget, or one that prepares
+// the same statement again and again (an N+1 select), is logged - and with enforce set, as in the tests, kept for
+// the tests to fail on, since the response has gone by the time it's counted. Served at GET /metrics/queries.
+@Component
+public class QueryMetrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryMetrics.class);
+
+    @Autowired
+    QueryMetricsProperties properties;
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    private final Queue<String> violations = new ConcurrentLinkedQueue<>();
+
+    void record(String endpoint, RequestStats stats) {
+        EndpointStats endpointStats = endpoints.computeIfAbsent(endpoint, e -> new EndpointStats());
+        endpointStats.requests.increment();
+        endpointStats.statements.record(stats.getStatements());
+        endpointStats.dbTimes.record(stats.getDbNanos());
+        endpointStats.cacheHits.add(stats.getCacheHits());
+        endpointStats.cacheMisses.add(stats.getCacheMisses());
+
+        int budget = properties.budgetOf(endpoint);
+        if (budget < 0) {
+            return;
+        }
+        String violation = null;
+        Map.Entry<String, Integer> repeated = stats.getMostRepeatedStatement();
+        if (repeated != null && repeated.getValue() >= properties.getRepeatedStatementThreshold()) {
+            endpointStats.repeatedStatements.increment();
+            endpointStats.lastRepeatedStatement = repeated.getKey();
+            violation = endpoint + " prepared the same statement " + repeated.getValue() + " times, " +
+                    "likely an N+1 select: " + repeated.getKey();
+        } else if (stats.getStatements() > budget) {
+            violation = endpoint + " prepared " + stats.getStatements() + " SQL statements, over its budget of " +
+                    budget;
+        }
+        if (violation != null) {
+            endpointStats.overBudget.increment();
+            LOGGER.warn(violation);
+            if (properties.isEnforce()) {
+                violations.add(violation);
+            }
+        }
+    }
+
+    boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // the violations kept since the last call, with enforce set - for a test to assert there were none
+    public List<String> drainViolations() {
+        List<String> drained = new ArrayList<>();
+        for (String violation = violations.poll(); violation != null; violation = violations.poll()) {
+            drained.add(violation);
+        }
+        return drained;
+    }
+
+    // statistics of every endpoint that has had a request, by endpoint
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> snapshot.put(endpoint, stats.toMap(properties.budgetOf(endpoint))));
+        return snapshot;
+    }
+
+    private static class EndpointStats {
+
+        final LongAdder requests = new LongAdder();
+
+        final CountHistogram statements = new CountHistogram();
+
+        final LatencyHistogram dbTimes = new LatencyHistogram();
+
+        final LongAdder cacheHits = new LongAdder();
+
+        final LongAdder cacheMisses = new LongAdder();
+
+        final LongAdder overBudget = new LongAdder();
+
+        final LongAdder repeatedStatements = new LongAdder();
+
+        volatile String lastRepeatedStatement;
+
+        Map<String, Object> toMap(int budget) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", requests.sum());
+
+            Map<String, Object> statementCounts = new LinkedHashMap<>();
+            statementCounts.put("budget", budget);
+            statementCounts.put("mean", statements.getMean());
+            statementCounts.put("p50", statements.percentile(0.5));
+            statementCounts.put("p99", statements.percentile(0.99));
+            statementCounts.put("max", statements.getMax());
+            statementCounts.put("overBudget", overBudget.sum());
+            statementCounts.put("likelyNPlusOne", repeatedStatements.sum());
+            if (lastRepeatedStatement != null) {
+                statementCounts.put("lastRepeatedStatement", lastRepeatedStatement);
+            }
+            map.put("statements", statementCounts);
+
+            map.put("dbTime", dbTimes.toMap());
+
+            long hits = cacheHits.sum();
+            long misses = cacheMisses.sum();
+            Map<String, Object> cache = new LinkedHashMap<>();
+            cache.put("hits", hits);
+            cache.put("misses", misses);
+            cache.put("hitRatio", hits + misses == 0 ? 0.0 : Math.round(hits * 10000.0 / (hits + misses)) / 10000.0);
+            map.put("cache", cache);
+            return map;
+        }
+    }
+}
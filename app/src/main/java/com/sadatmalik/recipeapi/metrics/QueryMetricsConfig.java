@@ -0,0 +1,25 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(QueryMetricsProperties.class)
+public class QueryMetricsConfig {
+
+    // Hibernate reports each statement it prepares to StatementCounter, and each session's JDBC time to a
+    // JdbcTimingListener of its own
+    @Bean
+    public HibernatePropertiesCustomizer queryMetricsHibernateProperties(QueryMetricsProperties properties) {
+        return hibernateProperties -> {
+            if (properties.isEnabled()) {
+                hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+                hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                        JdbcTimingListener.class.getName());
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// recipeapi.metrics.queries.* - per endpoint SQL statement counts and their budgets (see QueryMetrics)
+@Getter
+@Setter
+@ConfigurationProperties("recipeapi.metrics.queries")
+public class QueryMetricsProperties {
+
+    private boolean enabled = true;
+
+    // statements per request, unless overridden by endpoint (e.g. "GET /recipes/{id}") in budget. -1 turns off
+    // the checks for an endpoint.
+    private int defaultBudget = 20;
+
+    private Map<String, Integer> budget = new HashMap<>();
+
+    // the same statement prepared this many times in one request is reported as a likely N+1 select
+    private int repeatedStatementThreshold = 5;
+
+    // keep the requests that break their budgets for the tests to fail on (QueryMetrics.drainViolations)
+    private boolean enforce = false;
+
+    public int budgetOf(String endpoint) {
+        return budget.getOrDefault(endpoint, defaultBudget);
+    }
+}
@@ -0,0 +1,74 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Times each request and collects its RequestStats, then hands them to EndpointMetrics and QueryMetrics under the
+// request's endpoint: its method and mapping pattern, e.g. "GET /recipes/{id}". Runs ahead of Spring Security, so
+// authentication's time and the statements it prepares count too. Requests to recipeapi.metrics.excluded-paths,
+// the probes and metrics scrapes by default, aren't measured.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    EndpointMetrics endpointMetrics;
+
+    @Autowired
+    QueryMetrics queryMetrics;
+
+    @Value("${recipeapi.metrics.excluded-paths:/status/**,/metrics/**}")
+    String[] excludedPaths = {};
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String excludedPath : excludedPaths) {
+            if (pathMatcher.match(excludedPath, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestStats stats = RequestStats.start();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            RequestStats.finish();
+            String pattern = patternOf(request);
+            // an exception escaping the chain becomes a 500 once it reaches the container
+            endpointMetrics.record(request.getMethod(), pattern, failed ? 500 : response.getStatus(), nanos, stats);
+            if (queryMetrics.isEnabled()) {
+                queryMetrics.record(request.getMethod() + " " + pattern, stats);
+            }
+        }
+    }
+
+    // requests turned away before reaching a controller (e.g. by Spring Security) have no pattern
+    private static String patternOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "(unmapped)" : pattern.toString();
+    }
+}
@@ -0,0 +1,142 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// What the current request has done so far: the SQL statements Hibernate prepared for it, the time JDBC spent
+// running them, how its cache reads went and the time spent reading the caches, (de)serializing JSON bodies and
+// evaluating permissions. Filled in on the request's own thread by StatementCounter, JdbcTimingListener,
+// TieredCache, TimedJacksonConverter and CustomPermissionEvaluator, between RequestMetricsFilter's start and
+// finish - work on other threads (background refreshes, streamed exports) belongs to no request and isn't counted.
+public class RequestStats {
+
+    private static final ThreadLocal<RequestStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+
+    private long dbNanos;
+
+    private int cacheHits;
+
+    private int cacheMisses;
+
+    private long cacheNanos;
+
+    // loaders run by cache reads, which are the database's time rather than the cache's
+    private long cacheLoadNanos;
+
+    private long serializationNanos;
+
+    private long permissionNanos;
+
+    // how often each distinct statement was prepared, to spot the same select repeated row by row (N+1)
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+
+    static RequestStats start() {
+        RequestStats stats = new RequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void finish() {
+        CURRENT.remove();
+    }
+
+    static void statementPrepared(String sql) {
+        RequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.statementCounts.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    static void jdbcTime(long nanos) {
+        RequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.dbNanos += nanos;
+        }
+    }
+
+    public static void cacheHit() {
+        RequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.cacheHits++;
+        }
+    }
+
+    public static void cacheMiss() {
+        RequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.cacheMisses++;
+        }
+    }
+
+    // a whole cache read, including any loader it ran
+    public static void cacheTime(long nanos) {
+        RequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.cacheNanos += nanos;
+        }
+    }
+
+    public static void cacheLoadTime(long nanos) {
+        RequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.cacheLoadNanos += nanos;
+        }
+    }
+
+    public static void serializationTime(long nanos) {
+        RequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.serializationNanos += nanos;
+        }
+    }
+
+    public static void permissionTime(long nanos) {
+        RequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.permissionNanos += nanos;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getDbNanos() {
+        return dbNanos;
+    }
+
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    public int getCacheMisses() {
+        return cacheMisses;
+    }
+
+    // time in cache reads, less the loaders they ran
+    public long getCacheNanos() {
+        return Math.max(0, cacheNanos - cacheLoadNanos);
+    }
+
+    public long getSerializationNanos() {
+        return serializationNanos;
+    }
+
+    public long getPermissionNanos() {
+        return permissionNanos;
+    }
+
+    // the statement prepared most often, or null if there were none
+    public Map.Entry<String, Integer> getMostRepeatedStatement() {
+        Map.Entry<String, Integer> most = null;
+        for (Map.Entry<String, Integer> entry : statementCounts.entrySet()) {
+            if (most == null || entry.getValue() > most.getValue()) {
+                most = entry;
+            }
+        }
+        return most;
+    }
+}
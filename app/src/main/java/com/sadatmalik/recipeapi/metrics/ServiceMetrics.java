@@ -0,0 +1,124 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+// A Timer for each public RecipeService and ReviewService method, e.g. "RecipeService.getRecipeById". The aspect
+// is the outermost advice on the services, so a call is timed as its caller sees it - a cached call included. Any
+// exception thrown, a NoSuchRecipeException too, counts as an error.
+// Served at GET /metrics/services and /metrics/prometheus, and over JMX.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ManagedResource(objectName = "com.sadatmalik.recipeapi:type=ServiceMetrics",
+        description = "Latency and errors of the service methods")
+public class ServiceMetrics {
+
+    private final Map<Method, ServiceTimer> methods = new ConcurrentHashMap<>();
+
+    @Around("execution(public * *(..)) && (within(com.sadatmalik.recipeapi.services.RecipeService) || " +
+            "within(com.sadatmalik.recipeapi.services.ReviewService))")
+    public Object time(ProceedingJoinPoint call) throws Throwable {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = call.proceed();
+            failed = false;
+            return result;
+        } finally {
+            Method method = ((MethodSignature) call.getSignature()).getMethod();
+            methods.computeIfAbsent(method, ServiceTimer::new).timer.record(System.nanoTime() - start, failed);
+        }
+    }
+
+    // statistics of every method that has been called, by name
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new TreeMap<>();
+        methods.values().forEach(method -> snapshot.put(method.name, method.timer.toMap()));
+        return snapshot;
+    }
+
+    @ManagedOperation(description = "Statistics of one service method, e.g. RecipeService.getRecipeById")
+    public Map<String, Object> statistics(String name) {
+        for (ServiceTimer method : methods.values()) {
+            if (method.name.equals(name)) {
+                return method.timer.toMap();
+            }
+        }
+        return null;
+    }
+
+    @ManagedAttribute(description = "Calls to each service method")
+    public Map<String, Long> getCallCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        methods.values().forEach(method -> counts.put(method.name, method.timer.getCount()));
+        return counts;
+    }
+
+    @ManagedAttribute(description = "Fraction of each service method's calls that threw")
+    public Map<String, Double> getErrorRates() {
+        return byName(timer -> timer.getErrorRate());
+    }
+
+    @ManagedAttribute(description = "p99 latency of each service method in milliseconds")
+    public Map<String, Double> getP99Millis() {
+        return byName(timer -> LatencyHistogram.millis(timer.getLatencies().percentileNanos(0.99)));
+    }
+
+    public void writePrometheus(PrometheusText out) {
+        Map<String, ServiceTimer> sorted = new TreeMap<>();
+        methods.values().forEach(method -> sorted.put(method.name, method));
+
+        out.family("recipeapi_service_calls_total", "counter", "Service method calls, by method.");
+        sorted.values().forEach(m -> out.sample("recipeapi_service_calls_total", m.labels(), m.timer.getCount()));
+
+        out.family("recipeapi_service_call_errors_total", "counter", "Service method calls that threw, by method.");
+        sorted.values().forEach(m ->
+                out.sample("recipeapi_service_call_errors_total", m.labels(), m.timer.getErrors()));
+
+        out.family("recipeapi_service_call_duration_seconds", "summary", "Service method latency, by method.");
+        sorted.values().forEach(m ->
+                out.summary("recipeapi_service_call_duration_seconds", m.labels(), m.timer.getLatencies()));
+    }
+
+    private Map<String, Double> byName(ToDoubleFunction<Timer> value) {
+        Map<String, Double> values = new TreeMap<>();
+        methods.values().forEach(method -> values.put(method.name, value.applyAsDouble(method.timer)));
+        return values;
+    }
+
+    private static class ServiceTimer {
+
+        final String service;
+
+        final String method;
+
+        final String name;
+
+        final Timer timer = new Timer();
+
+        ServiceTimer(Method method) {
+            this.service = method.getDeclaringClass().getSimpleName();
+            this.method = method.getName();
+            this.name = service + "." + this.method;
+        }
+
+        String labels() {
+            return PrometheusText.labels("service", service, "method", method);
+        }
+    }
+}
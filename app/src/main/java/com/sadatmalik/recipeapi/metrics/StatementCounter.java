@@ -0,0 +1,14 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Sees every SQL statement Hibernate prepares, and counts it against the current request (see RequestStats).
+// Registered by QueryMetricsConfig. The SQL goes on unchanged.
+public class StatementCounter implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestStats.statementPrepared(sql);
+        return sql;
+    }
+}
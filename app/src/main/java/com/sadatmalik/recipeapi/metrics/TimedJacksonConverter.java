@@ -0,0 +1,56 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// Spring MVC's JSON converter, timing each request and response body it reads or writes as the request's
+// serialization time. Being a MappingJackson2HttpMessageConverter bean, it takes the place of the one Spring Boot
+// would otherwise configure, with the same ObjectMapper.
+@Component
+public class TimedJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJacksonConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        long start = System.nanoTime();
+        try {
+            return super.read(type, contextClass, inputMessage);
+        } finally {
+            RequestStats.serializationTime(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        long start = System.nanoTime();
+        try {
+            return super.readInternal(clazz, inputMessage);
+        } finally {
+            RequestStats.serializationTime(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            RequestStats.serializationTime(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Calls to one endpoint or service method: a LatencyHistogram of their durations, how many failed, and how many
+// completed in each of the last minute's seconds for the current throughput. Lock-free like the histogram - a
+// call that races the reset of a stale second may go uncounted in the rate, which is close enough for a rate.
+public class Timer {
+
+    static final int RATE_WINDOW_SECONDS = 60;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final long startNanos = System.nanoTime();
+
+    // a ring of per second counts, indexed by the second since startNanos - 1 and up, so 0 marks an unused slot
+    private final AtomicLongArray seconds = new AtomicLongArray(RATE_WINDOW_SECONDS);
+
+    private final AtomicLongArray secondCounts = new AtomicLongArray(RATE_WINDOW_SECONDS);
+
+    public void record(long nanos, boolean failed) {
+        latencies.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+        long second = currentSecond();
+        int slot = (int) (second % RATE_WINDOW_SECONDS);
+        long slotSecond = seconds.get(slot);
+        if (slotSecond != second && seconds.compareAndSet(slot, slotSecond, second)) {
+            secondCounts.set(slot, 0);
+        }
+        secondCounts.incrementAndGet(slot);
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    public long getCount() {
+        return latencies.getCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public double getErrorRate() {
+        long count = getCount();
+        return count == 0 ? 0.0 : Math.round(getErrors() * 10000.0 / count) / 10000.0;
+    }
+
+    // calls per second over the last full minute - or the full seconds so far, in the first one
+    public double getRatePerSecond() {
+        long second = currentSecond();
+        long window = Math.min(RATE_WINDOW_SECONDS, second - 1);
+        if (window <= 0) {
+            return 0.0;
+        }
+        long calls = 0;
+        for (int slot = 0; slot < RATE_WINDOW_SECONDS; slot++) {
+            long slotSecond = seconds.get(slot);
+            if (slotSecond < second && slotSecond >= second - window) {
+                calls += secondCounts.get(slot);
+            }
+        }
+        return Math.round(calls * 1000.0 / window) / 1000.0;
+    }
+
+    // count, errors, error rate, current rate and the latency percentiles in milliseconds
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", getCount());
+        map.put("errors", getErrors());
+        map.put("errorRate", getErrorRate());
+        map.put("ratePerSecond", getRatePerSecond());
+        Map<String, Object> latency = latencies.toMap();
+        latency.remove("count");
+        map.put("latency", latency);
+        return map;
+    }
+
+    private long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos) + 1;
+    }
+}
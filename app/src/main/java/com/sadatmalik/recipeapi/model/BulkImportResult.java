@@ -0,0 +1,29 @@
+package com.sadatmalik.recipeapi.model;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// What POST /recipes/bulk did: how many recipes it stored, which it turned away and why, and - if the body
+// couldn't be read to the end - what stopped it. Recipes are numbered from 0 in the order they were sent.
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkImportResult {
+
+    private int imported;
+
+    private List<Rejection> rejected = new ArrayList<>();
+
+    private String error;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Rejection {
+
+        private int index;
+
+        private String message;
+    }
+}
@@ -1,6 +1,7 @@
 package com.sadatmalik.recipeapi.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sadatmalik.recipeapi.security.UserChangeListener;
 import lombok.*;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -15,6 +16,7 @@ import java.util.Collection;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@EntityListeners(UserChangeListener.class)
 public class CustomUserDetails implements UserDetails, Serializable {
 
     private static final long serialVersionUID = -3125336642174472101L;
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.*;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.persistence.*;
@@ -20,12 +21,17 @@ import java.util.Collection;
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties("author") //this will ignore 'author' when converting json bytes to object for testing
+// supports the minimum rating search as a range scan, in either id or rating order
+@Table(indexes = @Index(name = "idx_recipe_average_rating", columnList = "averageRating, id"))
 public class Recipe implements Serializable {
 
     private static final long serialVersionUID = -7949601140835616356L;
 
+    // Ids come from a pooled sequence (a recipe_seq table on MySQL), not IDENTITY, so that inserts can be batched -
+    // Hibernate must know an id before the insert to queue it. See IdSequenceMigration.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_seq")
+    @SequenceGenerator(name = "recipe_seq", sequenceName = "recipe_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -50,16 +56,26 @@ public class Recipe implements Serializable {
     @JoinColumn(name = "recipeId", nullable = false, foreignKey = @ForeignKey)
     private Collection<Step> steps = new ArrayList<>();
 
-    @OneToMany(cascade = CascadeType.ALL)
-    @JoinColumn(name = "recipeId", nullable = false, foreignKey = @ForeignKey)
+    @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL)
     private Collection<Review> reviews;
 
     @Transient
     @JsonIgnore
     private URI locationURI;
 
-    @Transient
-    private Double averageRating;
+    // rating aggregates are maintained by RecipeRepo.adjustRatingAggregates as reviews change, never by merges
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private int reviewCount;
+
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long ratingSum;
+
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private double averageRating;
 
     public void setDifficultyRating(int difficultyRating) {
         if (difficultyRating < 0 || difficultyRating > 10) {
@@ -103,14 +119,45 @@ public class Recipe implements Serializable {
     }
 
     public void calculateAverageRating() {
-        averageRating = 0.0;
+        averageRating = reviewCount == 0 ? 0.0 : (double) ratingSum / reviewCount;
+    }
+
+    // keeps an in-memory copy in step with a RecipeRepo.adjustRatingAggregates call
+    public void applyRatingChange(int countDelta, long ratingDelta) {
+        reviewCount += countDelta;
+        ratingSum += ratingDelta;
+        calculateAverageRating();
+    }
+
+    public void copyRatingAggregates(Recipe other) {
+        reviewCount = other.getReviewCount();
+        ratingSum = other.getRatingSum();
+        averageRating = other.getAverageRating();
+    }
+
+    // Each review's recipe is what's saved as its recipeId, so reviews attached to a recipe must point back at it
+    // before the recipe is saved.
+    public void linkReviews() {
+        if (reviews != null) {
+            for (Review review : reviews) {
+                review.setRecipe(this);
+            }
+        }
+    }
 
-        if (reviews != null && !reviews.isEmpty()) {
+    // a new recipe may arrive with reviews attached, so link them and seed the aggregates from them once on insert
+    @PrePersist
+    void initializeRatingAggregates() {
+        linkReviews();
+        reviewCount = 0;
+        ratingSum = 0;
+        if (reviews != null) {
             for (Review review : reviews) {
-                averageRating += review.getRating();
+                reviewCount++;
+                ratingSum += review.getRating();
             }
-            averageRating /= reviews.size();
         }
+        calculateAverageRating();
     }
 
     public String getAuthor() {
@@ -121,5 +168,6 @@ public class Recipe implements Serializable {
     public void initialize() {
         Hibernate.initialize(this.ingredients);
         Hibernate.initialize(this.steps);
+        Hibernate.initialize(this.reviews);
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.sadatmalik.recipeapi.model;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+// The fields list and search views need, read straight from the recipe and user tables - no ingredients,
+// steps or reviews.
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeSummary implements Serializable {
+
+    private static final long serialVersionUID = 4417985128290764913L;
+
+    private Long id;
+
+    private String name;
+
+    private String author;
+
+    private Integer minutesToMake;
+
+    private Integer difficultyRating;
+
+    private double averageRating;
+
+    private int reviewCount;
+}
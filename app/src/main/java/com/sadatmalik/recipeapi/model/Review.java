@@ -28,6 +28,12 @@ public class Review implements Serializable {
     @JsonIgnore
     private CustomUserDetails user;
 
+    // owns the recipeId column, so a review is written as its own row rather than through its recipe
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "recipeId", nullable = false, foreignKey = @ForeignKey)
+    @JsonIgnore
+    private Recipe recipe;
+
     @NotNull
     private int rating;
 
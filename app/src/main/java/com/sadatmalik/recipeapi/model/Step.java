@@ -2,9 +2,7 @@ package com.sadatmalik.recipeapi.model;
 
 import lombok.*;
 
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.Id;
+import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
 
@@ -18,8 +16,10 @@ public class Step implements Serializable {
 
     private static final long serialVersionUID = 3607129629714131660L;
 
+    // pooled like Recipe's, so a recipe's ingredients and steps are batched with it
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "step_seq")
+    @SequenceGenerator(name = "step_seq", sequenceName = "step_seq", allocationSize = 50)
     private long id;
 
     @NotNull
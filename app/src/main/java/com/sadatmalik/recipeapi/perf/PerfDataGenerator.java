@@ -0,0 +1,265 @@
+package com.sadatmalik.recipeapi.perf;
+
+import com.sadatmalik.recipeapi.cache.warmup.CacheWarmer;
+import com.sadatmalik.recipeapi.model.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Fills an empty perf profile database with a synthetic dataset of production-like size: users, recipes with
+// a spread of ingredient and step counts, and reviews that pile up on a few popular recipes (Zipf distributed).
+// Rows go in through JDBC batches with their ids assigned here; the id sequences are moved past them at the end.
+// Every random choice comes from the configured seed, so two runs with the same properties load the same rows.
+//
+// Every user's password is "password". There is also an ADMIN user (password "admin") who may edit any recipe.
+@Component
+@Profile("perf")
+@EnableConfigurationProperties(PerfDataProperties.class)
+@Order(CacheWarmer.ORDER - 1) // load before the caches are warmed
+public class PerfDataGenerator implements CommandLineRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PerfDataGenerator.class);
+
+    private static final String[] DISH_ADJECTIVES = {"rustic", "spicy", "creamy", "smoky", "crispy", "zesty",
+            "slow cooked", "roasted", "grilled", "quick", "classic", "herby", "sticky", "golden", "lemony"};
+    private static final String[] DISHES = {"chicken curry", "tomato soup", "banana bread", "beef stew",
+            "vegetable lasagne", "pancakes", "fried rice", "apple pie", "mushroom risotto", "fish tacos",
+            "lentil dahl", "carrot cake", "pad thai", "shepherd's pie", "falafel wraps", "caramel in a pan"};
+    private static final String[] INGREDIENTS = {"flour", "sugar", "butter", "egg", "milk", "salt", "pepper",
+            "olive oil", "garlic", "onion", "tomato", "rice", "chicken", "beef", "lentils", "carrot", "lemon",
+            "cumin", "paprika", "basil", "cheese", "yeast", "honey", "soy sauce", "ginger", "coconut milk"};
+    private static final String[] AMOUNTS = {"1 tsp", "2 tbsp", "1 cup", "2 cups", "100g", "250g", "500g",
+            "1 pinch", "3", "1 handful"};
+    private static final String[] STATES = {"dry", "chopped", "melted", "diced", "whole", "ground", "fresh", null};
+    private static final String[] STEP_VERBS = {"mix", "chop", "stir in", "whisk", "fold in", "simmer",
+            "bake", "fry", "season", "rest"};
+    private static final String[] REVIEW_TEXT = {"tasted pretty bad", "not bad at all", "would make again",
+            "the family loved it", "too salty for me", "perfect weeknight dinner", "much better the second time",
+            "this stuff is so good"};
+
+    @Autowired
+    PerfDataProperties properties;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Long existingRecipes = jdbcTemplate.queryForObject("select count(*) from recipe", Long.class);
+        if (existingRecipes != null && existingRecipes > 0) {
+            LOGGER.info("Perf database already holds " + existingRecipes + " recipes - not generating data");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int users = properties.getUsers();
+        int recipes = properties.getRecipes();
+        int[] authors = insertUsers(users);
+        long[][] aggregates = reviewAggregates(recipes, users, authors);
+        long[] childIds = insertRecipes(recipes, authors, aggregates);
+        long reviews = insertReviews(recipes, users, authors);
+        moveIdsPast(users + 1, recipes, childIds[0], childIds[1], reviews);
+
+        LOGGER.info("Generated " + users + " users, " + recipes + " recipes, " + childIds[0] + " ingredients, " +
+                childIds[1] + " steps and " + reviews + " reviews in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    // Users 1..n plus the admin as n + 1, each with a role and user meta of the same id. Returns the author of
+    // each recipe, indexed by recipe id.
+    private int[] insertUsers(int users) {
+        // hashing once - BCrypt is deliberately slow, far too slow for a hundred thousand passwords
+        String password = new BCryptPasswordEncoder().encode("password");
+        String adminPassword = new BCryptPasswordEncoder().encode("admin");
+
+        Batch meta = new Batch("insert into user_meta (id, email, name) values (?, ?, ?)", null);
+        Batch user = new Batch("insert into custom_user_details (id, username, password, is_account_non_expired, " +
+                "is_account_non_locked, is_credentials_non_expired, is_enabled, user_meta_id) " +
+                "values (?, ?, ?, true, true, true, true, ?)", meta);
+        Batch role = new Batch("insert into role (id, role, user_id) values (?, ?, ?)", user);
+        for (long id = 1; id <= users + 1; id++) {
+            boolean admin = id == users + 1;
+            String username = admin ? "ADMIN" : "user" + id;
+            meta.add(id, username.toLowerCase() + "@perf.test", admin ? "Administrator" : "Perf User " + id);
+            user.add(id, username, admin ? adminPassword : password, id);
+            role.add(id, (admin ? Role.Roles.ROLE_ADMIN : Role.Roles.ROLE_USER).name(), id);
+        }
+        role.flush();
+
+        Random random = new Random(properties.getSeed());
+        ZipfDistribution prolific = new ZipfDistribution(users, properties.getAuthorSkew());
+        int[] authors = new int[properties.getRecipes() + 1];
+        for (int recipe = 1; recipe < authors.length; recipe++) {
+            authors[recipe] = prolific.sampleId(random);
+        }
+        return authors;
+    }
+
+    // The review count and rating sum of every recipe, from a first pass over the same review stream that
+    // insertReviews replays, so recipes are inserted with their aggregates already right.
+    private long[][] reviewAggregates(int recipes, int users, int[] authors) {
+        long[] counts = new long[recipes + 1];
+        long[] sums = new long[recipes + 1];
+        ReviewStream reviews = new ReviewStream(recipes, users, authors);
+        for (int i = 0; i < properties.getReviews(); i++) {
+            reviews.next();
+            counts[reviews.recipe]++;
+            sums[reviews.recipe] += reviews.rating;
+        }
+        return new long[][]{counts, sums};
+    }
+
+    // returns the number of ingredients and of steps inserted
+    private long[] insertRecipes(int recipes, int[] authors, long[][] aggregates) {
+        Random random = new Random(properties.getSeed() + 1);
+        Batch recipe = new Batch("insert into recipe (id, name, user_id, minutes_to_make, difficulty_rating, " +
+                "review_count, rating_sum, average_rating) values (?, ?, ?, ?, ?, ?, ?, ?)", null);
+        Batch ingredient = new Batch("insert into ingredient (id, name, amount, state, recipe_id) " +
+                "values (?, ?, ?, ?, ?)", recipe);
+        Batch step = new Batch("insert into step (id, step_number, description, recipe_id) values (?, ?, ?, ?)",
+                recipe);
+        long ingredientId = 0;
+        long stepId = 0;
+
+        for (long id = 1; id <= recipes; id++) {
+            long count = aggregates[0][(int) id];
+            long sum = aggregates[1][(int) id];
+            recipe.add(id, pick(random, DISH_ADJECTIVES) + " " + pick(random, DISHES), authors[(int) id],
+                    5 + random.nextInt(180), 1 + random.nextInt(10), count, sum,
+                    count == 0 ? 0.0 : (double) sum / count);
+
+            int ingredients = between(random, properties.getMinIngredients(), properties.getMaxIngredients());
+            for (int i = 0; i < ingredients; i++) {
+                ingredient.add(++ingredientId, pick(random, INGREDIENTS), pick(random, AMOUNTS),
+                        pick(random, STATES), id);
+            }
+            int steps = between(random, properties.getMinSteps(), properties.getMaxSteps());
+            for (int number = 1; number <= steps; number++) {
+                step.add(++stepId, number, pick(random, STEP_VERBS) + " the " + pick(random, INGREDIENTS), id);
+            }
+
+            if (id % 100_000 == 0) {
+                LOGGER.info("Generated " + id + " of " + recipes + " recipes");
+            }
+        }
+        ingredient.flush();
+        step.flush();
+        return new long[]{ingredientId, stepId};
+    }
+
+    private long insertReviews(int recipes, int users, int[] authors) {
+        Random text = new Random(properties.getSeed() + 3);
+        Batch review = new Batch("insert into review (id, user_id, rating, description, recipe_id) " +
+                "values (?, ?, ?, ?, ?)", null);
+        ReviewStream reviews = new ReviewStream(recipes, users, authors);
+        long id = 0;
+        for (int i = 0; i < properties.getReviews(); i++) {
+            reviews.next();
+            review.add(++id, reviews.reviewer, reviews.rating, pick(text, REVIEW_TEXT), reviews.recipe);
+        }
+        review.flush();
+        return id;
+    }
+
+    // The schema's generators must carry on after the generated ids. This is the perf profile's H2 syntax.
+    private void moveIdsPast(long users, long recipes, long ingredients, long steps, long reviews) {
+        for (String table : List.of("user_meta", "custom_user_details", "role")) {
+            jdbcTemplate.execute("alter table " + table + " alter column id restart with " + (users + 1));
+        }
+        jdbcTemplate.execute("alter sequence recipe_seq restart with " + (recipes + 1));
+        jdbcTemplate.execute("alter sequence ingredient_seq restart with " + (ingredients + 1));
+        jdbcTemplate.execute("alter sequence step_seq restart with " + (steps + 1));
+        jdbcTemplate.execute("alter sequence hibernate_sequence restart with " + (reviews + 1));
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static int between(Random random, int min, int max) {
+        return min + random.nextInt(max - min + 1);
+    }
+
+    // The reviews, in order: a recipe drawn from the Zipf distribution, a reviewer other than its author and a
+    // rating around the recipe's own quality. Recreated from the seed for each pass.
+    private class ReviewStream {
+
+        final Random random = new Random(properties.getSeed() + 2);
+
+        final ZipfDistribution popular;
+
+        final int users;
+
+        final int[] authors;
+
+        int recipe;
+
+        int reviewer;
+
+        int rating;
+
+        ReviewStream(int recipes, int users, int[] authors) {
+            this.popular = new ZipfDistribution(recipes, properties.getReviewSkew());
+            this.users = users;
+            this.authors = authors;
+        }
+
+        void next() {
+            recipe = popular.sampleId(random);
+            reviewer = 1 + random.nextInt(users);
+            if (reviewer == authors[recipe]) {
+                // nobody reviews their own recipe
+                reviewer = reviewer % users + 1;
+            }
+            // a fixed quality per recipe from its id, with some disagreement between reviewers
+            double quality = 3 + (recipe * 2654435761L % 1000) / 1000.0 * 6;
+            rating = (int) Math.max(1, Math.min(10, Math.round(quality + random.nextGaussian() * 1.5)));
+        }
+    }
+
+    // Rows for one insert statement, sent a batch at a time. A batch whose rows reference another's flushes that
+    // one first, so a foreign key never points at a row that's still queued.
+    private class Batch {
+
+        final String sql;
+
+        final Batch referenced;
+
+        final List<Object[]> rows = new ArrayList<>();
+
+        Batch(String sql, Batch referenced) {
+            this.sql = sql;
+            this.referenced = referenced;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= properties.getBatchSize()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (referenced != null) {
+                referenced.flush();
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.sadatmalik.recipeapi.perf;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// recipeapi.perf.data.* - the size and shape of the synthetic dataset the perf profile loads
+@Getter
+@Setter
+@ConfigurationProperties("recipeapi.perf.data")
+public class PerfDataProperties {
+
+    // generate only into an empty database - a file database keeps its data between runs
+    private boolean enabled = true;
+
+    // the same seed and volumes always produce the same rows
+    private long seed = 42;
+
+    private int users = 100_000;
+
+    private int recipes = 1_000_000;
+
+    private int reviews = 2_000_000;
+
+    private int minIngredients = 3;
+
+    private int maxIngredients = 12;
+
+    private int minSteps = 2;
+
+    private int maxSteps = 10;
+
+    // how unevenly reviews spread over recipes, and recipes over authors - 0 is uniform, 1 and above is a
+    // steep head of popular recipes and prolific authors with a long tail
+    private double reviewSkew = 1.1;
+
+    private double authorSkew = 0.8;
+
+    // rows per JDBC batch
+    private int batchSize = 1000;
+}
@@ -0,0 +1,48 @@
+package com.sadatmalik.recipeapi.perf;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Ranks 1..n drawn with probability proportional to 1 / rank^exponent, by binary search over the cumulative
+// weights - one double per rank, so a million ranks take 8MB. Also drives the loadtest module's request mix.
+public class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    // ranks are scattered over ids by multiplying with a stride coprime to n, a bijection modulo n
+    private final long stride;
+
+    public ZipfDistribution(int n, double exponent) {
+        cumulative = new double[n];
+        double total = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            total += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = total;
+        }
+
+        long candidate = (long) (n * 0.618) | 1;
+        while (gcd(candidate, n) != 1) {
+            candidate += 2;
+        }
+        stride = candidate;
+    }
+
+    public int sampleRank(Random random) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, target);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1) + 1;
+    }
+
+    // an id in 1..n, so that the most popular rows aren't simply the lowest ids
+    public int sampleId(Random random) {
+        return idOf(sampleRank(random));
+    }
+
+    public int idOf(int rank) {
+        return (int) ((rank - 1) * stride % cumulative.length) + 1;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
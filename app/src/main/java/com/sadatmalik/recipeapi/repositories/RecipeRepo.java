@@ -0,0 +1,140 @@
+package com.sadatmalik.recipeapi.repositories;
+
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.model.RecipeSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface RecipeRepo extends JpaRepository<Recipe, Long> {
+
+    ArrayList<Recipe> findByNameContaining(String name);
+
+    ArrayList<Recipe> findByUser_Username(String name);
+
+    // List finders join the author in; the recipes' collections (and the authors' roles) are then loaded a
+    // whole page at a time through hibernate.default_batch_fetch_size, rather than one select per recipe.
+
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Recipe> findAllById(Iterable<Long> ids);
+
+    // keyset paging - the Pageable only carries the page size, 'after' is the last id of the previous page
+    @EntityGraph(attributePaths = "user")
+    ArrayList<Recipe> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    ArrayList<Recipe> findByNameContainingAndIdGreaterThanOrderByIdAsc(String name, Long after, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    ArrayList<Recipe> findByUser_UsernameAndIdGreaterThanOrderByIdAsc(String username, Long after, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    ArrayList<Recipe> findByAverageRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc(double min, Long after,
+                                                                                     Pageable pageable);
+
+    // keyset paging in descending (averageRating, id) order - the cursor is the rating and id of the last recipe seen
+    @EntityGraph(attributePaths = "user")
+    @Query("select r from Recipe r where r.averageRating >= :min and " +
+            "(r.averageRating < :afterRating or (r.averageRating = :afterRating and r.id < :afterId)) " +
+            "order by r.averageRating desc, r.id desc")
+    ArrayList<Recipe> findByMinRatingOrderByRatingDesc(@Param("min") double min,
+                                                       @Param("afterRating") double afterRating,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+
+    // RecipeSummary projections of the list finders above, for the summary view
+
+    String SUMMARY = "select new com.sadatmalik.recipeapi.model.RecipeSummary(" +
+            "r.id, r.name, u.username, r.minutesToMake, r.difficultyRating, r.averageRating, r.reviewCount) " +
+            "from Recipe r join r.user u ";
+
+    @Query(SUMMARY + "where r.id in :ids order by r.id")
+    ArrayList<RecipeSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SUMMARY + "where r.id > :after order by r.id")
+    ArrayList<RecipeSummary> findSummaries(@Param("after") Long after, Pageable pageable);
+
+    @Query(SUMMARY + "where r.name like concat('%', :name, '%') and r.id > :after order by r.id")
+    ArrayList<RecipeSummary> findSummariesByName(@Param("name") String name, @Param("after") Long after,
+                                                 Pageable pageable);
+
+    @Query(SUMMARY + "where u.username = :username and r.id > :after order by r.id")
+    ArrayList<RecipeSummary> findSummariesByUsername(@Param("username") String username, @Param("after") Long after,
+                                                     Pageable pageable);
+
+    @Query(SUMMARY + "where r.averageRating >= :min and r.id > :after order by r.id")
+    ArrayList<RecipeSummary> findSummariesByMinRating(@Param("min") double min, @Param("after") Long after,
+                                                      Pageable pageable);
+
+    @Query(SUMMARY + "where r.averageRating >= :min and " +
+            "(r.averageRating < :afterRating or (r.averageRating = :afterRating and r.id < :afterId)) " +
+            "order by r.averageRating desc, r.id desc")
+    ArrayList<RecipeSummary> findSummariesByMinRatingOrderByRatingDesc(@Param("min") double min,
+                                                                       @Param("afterRating") double afterRating,
+                                                                       @Param("afterId") Long afterId,
+                                                                       Pageable pageable);
+
+    // forward-only cursor over the whole catalog, for streaming exports - must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select r from Recipe r join fetch r.user u left join fetch u.userMeta order by r.id")
+    Stream<Recipe> streamAllOrderedById();
+
+    // Adjusts the stored review count, rating sum and average in one statement. The average is assigned first so
+    // that it is computed from the pre-update count and sum on MySQL (which applies assignments left to right) as
+    // well as on databases with standard SQL semantics. 1e0 is a DOUBLE literal, so MySQL divides in floating point
+    // as Recipe.calculateAverageRating does - with 1.0 it would divide in DECIMAL and round the average differently.
+    @Modifying
+    @Query(value = "update recipe set " +
+            "average_rating = case when review_count + :countDelta > 0 " +
+            "then (rating_sum + :ratingDelta) * 1e0 / (review_count + :countDelta) else 0 end, " +
+            "rating_sum = rating_sum + :ratingDelta, " +
+            "review_count = review_count + :countDelta " +
+            "where id = :id", nativeQuery = true)
+    int adjustRatingAggregates(@Param("id") Long id, @Param("countDelta") int countDelta,
+                               @Param("ratingDelta") long ratingDelta);
+
+    // recomputes every recipe's rating aggregates from the review table - a one-off for pre-existing databases
+    @Modifying
+    @Query(value = "update recipe r set " +
+            "review_count = (select count(*) from review v where v.recipe_id = r.id), " +
+            "rating_sum = (select coalesce(sum(v.rating), 0) from review v where v.recipe_id = r.id), " +
+            "average_rating = (select coalesce(avg(v.rating * 1e0), 0) from review v where v.recipe_id = r.id)",
+            nativeQuery = true)
+    int backfillRatingAggregates();
+
+    @Query("select r.name from Recipe r where r.id = :id")
+    String findNameById(@Param("id") Long id);
+
+    // the owner's id straight from the foreign key column, for permission checks
+    @Query("select r.user.id from Recipe r where r.id = :id")
+    Long findOwnerIdById(@Param("id") Long id);
+
+    @Query("select r.averageRating from Recipe r where r.id = :id")
+    Double findAverageRatingById(@Param("id") Long id);
+
+    // id and name only, used to build the in-memory name index
+    @Query("select r.id as id, r.name as name from Recipe r")
+    List<IdAndName> findAllIdsAndNames();
+
+    interface IdAndName {
+        Long getId();
+
+        String getName();
+    }
+}
@@ -0,0 +1,25 @@
+package com.sadatmalik.recipeapi.repositories;
+
+import com.sadatmalik.recipeapi.model.Review;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+
+@Repository
+public interface ReviewRepo extends JpaRepository<Review, Long> {
+
+    @EntityGraph(attributePaths = "user")
+    ArrayList<Review> findByUser_Username(String username);
+
+    // the owner's id straight from the foreign key column, for permission checks
+    @Query("select r.user.id from Review r where r.id = :id")
+    Long findOwnerIdById(@Param("id") Long id);
+
+    // read from the recipeId column, without loading the recipe
+    @Query("select r.recipe.id from Review r where r.id = :id")
+    Long findRecipeIdByReviewId(@Param("id") Long id);
+}
\ No newline at end of file
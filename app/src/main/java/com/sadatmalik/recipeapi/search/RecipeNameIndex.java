@@ -0,0 +1,193 @@
+package com.sadatmalik.recipeapi.search;
+
+import com.sadatmalik.recipeapi.cache.invalidation.InvalidationBus;
+import com.sadatmalik.recipeapi.cache.invalidation.InvalidationListener;
+import com.sadatmalik.recipeapi.repositories.RecipeRepo;
+import com.sadatmalik.recipeapi.support.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory trigram index over Recipe.name, so name searches don't need a LIKE '%name%' table scan.
+// Matching is case-insensitive, in line with the default MySQL collation used by findByNameContaining.
+@Component
+public class RecipeNameIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecipeNameIndex.class);
+
+    static final int GRAM_SIZE = 3;
+
+    @Autowired
+    RecipeRepo recipeRepo;
+
+    @Autowired
+    InvalidationBus invalidationBus;
+
+    // recipe id -> lower-cased name, used to verify trigram candidates and to answer short queries
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+    // trigram -> ids of recipes whose name contains it
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    // built once the application (and any test data runner) has started
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        for (RecipeRepo.IdAndName recipe : recipeRepo.findAllIdsAndNames()) {
+            add(recipe.getId(), recipe.getName());
+        }
+        ready = true;
+        LOGGER.info("Built recipe name index with " + names.size() + " recipes in " +
+                (System.currentTimeMillis() - start) + "ms");
+    }
+
+    // Recipes written on other nodes show up as recipeCache evictions - re-read those names from the database.
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(new InvalidationListener() {
+            @Override
+            public void onRemoteInvalidation(String cacheName, Object key) {
+                if ("recipeCache".equals(cacheName) && key instanceof Long) {
+                    String name = recipeRepo.findNameById((Long) key);
+                    if (name == null) {
+                        remove((Long) key);
+                    } else {
+                        add((Long) key, name);
+                    }
+                }
+            }
+
+            @Override
+            public void onRemoteGap() {
+                rebuild();
+            }
+        });
+    }
+
+    // reloads every name, dropping recipes that no longer exist
+    public void rebuild() {
+        Set<Long> stale = new HashSet<>(names.keySet());
+        for (RecipeRepo.IdAndName recipe : recipeRepo.findAllIdsAndNames()) {
+            add(recipe.getId(), recipe.getName());
+            stale.remove(recipe.getId());
+        }
+        stale.forEach(this::remove);
+        LOGGER.info("Rebuilt recipe name index with " + names.size() + " recipes");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Returns the ids of all recipes whose name contains the given text, in ascending id order.
+    public List<Long> search(String text) {
+        String query = normalize(text);
+        List<Long> matches = new ArrayList<>();
+
+        if (query.length() < GRAM_SIZE) {
+            // too short to use the postings - check every name, which is still cheaper than a table scan
+            names.forEach((id, name) -> {
+                if (name.contains(query)) {
+                    matches.add(id);
+                }
+            });
+        } else {
+            List<Set<Long>> candidateSets = new ArrayList<>();
+            for (String gram : grams(query)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return matches;
+                }
+                candidateSets.add(ids);
+            }
+
+            // walk the smallest posting set, then verify, since sharing trigrams doesn't imply a substring match
+            candidateSets.sort(Comparator.comparingInt(Set::size));
+            for (Long id : candidateSets.get(0)) {
+                String name = names.get(id);
+                if (name != null && name.contains(query) && inAll(id, candidateSets)) {
+                    matches.add(id);
+                }
+            }
+        }
+
+        Collections.sort(matches);
+        return matches;
+    }
+
+    // Adds or re-indexes a recipe once the surrounding transaction (if any) has committed.
+    public void indexAfterCommit(Long id, String name) {
+        TransactionHooks.afterCommit(() -> add(id, name));
+    }
+
+    // Removes a recipe once the surrounding transaction (if any) has committed.
+    public void removeAfterCommit(Long id) {
+        TransactionHooks.afterCommit(() -> remove(id));
+    }
+
+    public synchronized void add(Long id, String name) {
+        if (id == null || name == null) {
+            return;
+        }
+        String normalized = normalize(name);
+        String previous = names.put(id, normalized);
+        if (previous != null) {
+            if (previous.equals(normalized)) {
+                return;
+            }
+            removePostings(id, previous);
+        }
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        String previous = names.remove(id);
+        if (previous != null) {
+            removePostings(id, previous);
+        }
+    }
+
+    private void removePostings(Long id, String name) {
+        for (String gram : grams(name)) {
+            postings.computeIfPresent(gram, (g, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static boolean inAll(Long id, List<Set<Long>> sets) {
+        for (int i = 1; i < sets.size(); i++) {
+            if (!sets.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static Set<String> grams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
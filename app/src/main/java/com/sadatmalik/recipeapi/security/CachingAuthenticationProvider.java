@@ -0,0 +1,33 @@
+package com.sadatmalik.recipeapi.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+// A DaoAuthenticationProvider that finds users in the CredentialCache before the database, and only runs the
+// (deliberately slow) BCrypt check for credentials it hasn't verified within the cache's ttl. When a cached user
+// fails the check, the provider reloads them from the database and tries once more, so a changed password
+// takes effect straight away.
+public class CachingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final CredentialCache credentialCache;
+
+    public CachingAuthenticationProvider(CredentialCache credentialCache) {
+        this.credentialCache = credentialCache;
+        setUserCache(credentialCache);
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        Object credentials = authentication.getCredentials();
+        if (credentials != null && credentialCache.isVerified(userDetails.getUsername(), credentials.toString(),
+                userDetails.getPassword())) {
+            return;
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        credentialCache.markVerified(userDetails.getUsername(), credentials.toString(), userDetails.getPassword());
+    }
+}
@@ -0,0 +1,111 @@
+package com.sadatmalik.recipeapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+// Lets CachingAuthenticationProvider skip the database and BCrypt for credentials it has recently verified.
+//
+// Users are cached by username in "userCache" (heap only in ehcache.xml, so password hashes never reach the
+// offheap or disk tiers). Verified credentials are kept here as an HMAC-SHA256 of username and password under a
+// key that is generated at start-up and never leaves the process, together with the password hash they were
+// verified against - so an entry is only honoured while the user still has that hash. Failed attempts are never
+// cached.
+@Component
+public class CredentialCache implements UserCache {
+
+    private static final String HMAC = "HmacSHA256";
+
+    @Autowired
+    CacheManager cacheManager;
+
+    private final Cache<String, VerifiedCredential> verified;
+
+    private final SecretKeySpec key;
+
+    private UserCache users;
+
+    public CredentialCache(@Value("${recipeapi.security.credential-cache.ttl:PT1M}") Duration ttl,
+                           @Value("${recipeapi.security.credential-cache.maximum-size:10000}") long maximumSize) {
+        this.verified = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC);
+    }
+
+    @PostConstruct
+    void init() {
+        users = new SpringCacheBasedUserCache(cacheManager.getCache("userCache"));
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return users.getUserFromCache(username);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.putUserInCache(user);
+    }
+
+    // drops the user and their verified credentials - for password, role or account changes
+    @Override
+    public void removeUserFromCache(String username) {
+        verified.invalidate(username);
+        users.removeUserFromCache(username);
+    }
+
+    public boolean isVerified(String username, String presentedPassword, String passwordHash) {
+        VerifiedCredential credential = verified.getIfPresent(username);
+        return credential != null
+                && MessageDigest.isEqual(credential.digest, digest(username, presentedPassword))
+                && credential.passwordHash.equals(passwordHash);
+    }
+
+    public void markVerified(String username, String presentedPassword, String passwordHash) {
+        verified.put(username, new VerifiedCredential(digest(username, presentedPassword), passwordHash));
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            // every JRE provides HmacSHA256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class VerifiedCredential {
+
+        final byte[] digest;
+
+        final String passwordHash;
+
+        VerifiedCredential(byte[] digest, String passwordHash) {
+            this.digest = digest;
+            this.passwordHash = passwordHash;
+        }
+    }
+}
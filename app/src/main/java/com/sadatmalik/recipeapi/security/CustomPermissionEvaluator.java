@@ -1,11 +1,8 @@
 package com.sadatmalik.recipeapi.security;
 
+import com.sadatmalik.recipeapi.metrics.RequestStats;
 import com.sadatmalik.recipeapi.model.CustomUserDetails;
-import com.sadatmalik.recipeapi.model.Recipe;
-import com.sadatmalik.recipeapi.model.Review;
 import com.sadatmalik.recipeapi.model.Role;
-import com.sadatmalik.recipeapi.repositories.RecipeRepo;
-import com.sadatmalik.recipeapi.repositories.ReviewRepo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.core.Authentication;
@@ -14,16 +11,13 @@ import org.springframework.stereotype.Component;
 import javax.persistence.EntityNotFoundException;
 import java.io.Serializable;
 import java.util.Collection;
-import java.util.Optional;
 
 @Component
 public class CustomPermissionEvaluator implements PermissionEvaluator {
 
+    // owner ids by recipe and review id, so a check doesn't load the entity and its author
     @Autowired
-    RecipeRepo recipeRepo;
-
-    @Autowired
-    ReviewRepo reviewRepo;
+    OwnershipIndex ownershipIndex;
 
     @Override
     public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
@@ -31,8 +25,19 @@ public class CustomPermissionEvaluator implements PermissionEvaluator {
         return false;
     }
 
+    // timed as the request's permission evaluation - an ownership lookup that misses its cache reads the database,
+    // so that time shows up under both
     @Override
     public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType, Object permission) {
+        long start = System.nanoTime();
+        try {
+            return evaluate(authentication, targetId, targetType, permission);
+        } finally {
+            RequestStats.permissionTime(System.nanoTime() - start);
+        }
+    }
+
+    private boolean evaluate(Authentication authentication, Serializable targetId, String targetType, Object permission) {
         if (!permission.getClass().equals("".getClass())) {
             throw new SecurityException("Cannot execute hasPermission() calls where permission is not in String form");
         }
@@ -45,23 +50,23 @@ public class CustomPermissionEvaluator implements PermissionEvaluator {
             CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
 
             if (targetType.equalsIgnoreCase("recipe")) {
-                Optional<Recipe> recipe = recipeRepo.findById(Long.parseLong(targetId.toString()));
-                if (recipe.isEmpty()) {
+                Long ownerId = ownershipIndex.recipeOwner(Long.parseLong(targetId.toString()));
+                if (ownerId == null) {
                     // no recipe with id exists, return true so the method can continue ultimately throwing an exception
                     return true;
                 }
 
                 //if the author of the entity matches the current user they are the owner of the recipe and should be allowed access
-                return recipe.get().getAuthor().equals(userDetails.getUsername());
+                return ownerId.equals(userDetails.getId());
 
             } else if (targetType.equalsIgnoreCase("review")) {
-                Optional<Review> review = reviewRepo.findById(Long.parseLong(targetId.toString()));
-                if (review.isEmpty()) {
+                Long ownerId = ownershipIndex.reviewOwner(Long.parseLong(targetId.toString()));
+                if (ownerId == null) {
                     throw new EntityNotFoundException("The review you are trying to access does not exist");
                 }
 
                 //if the author of the entity matches the current user they are the owner of the review and should be allowed access
-                return review.get().getAuthor().equals(userDetails.getUsername());
+                return ownerId.equals(userDetails.getId());
             }
         }
         return true;
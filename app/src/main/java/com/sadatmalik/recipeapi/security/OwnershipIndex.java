@@ -0,0 +1,98 @@
+package com.sadatmalik.recipeapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sadatmalik.recipeapi.cache.invalidation.InvalidationBus;
+import com.sadatmalik.recipeapi.cache.invalidation.InvalidationListener;
+import com.sadatmalik.recipeapi.repositories.RecipeRepo;
+import com.sadatmalik.recipeapi.repositories.ReviewRepo;
+import com.sadatmalik.recipeapi.support.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collection;
+
+// Recipe and review id to the id of the user who owns it, for CustomPermissionEvaluator. Misses are read with a
+// single-column query instead of loading the entity and its author. The services keep it in step with their writes
+// after they commit, and other nodes' writes arrive through the invalidation bus as evictions of recipeCache and
+// reviewCache keys; the ttl only bounds how long an entry can outlive a change made behind the services' back.
+@Component
+public class OwnershipIndex implements InvalidationListener {
+
+    @Autowired
+    RecipeRepo recipeRepo;
+
+    @Autowired
+    ReviewRepo reviewRepo;
+
+    @Autowired
+    InvalidationBus invalidationBus;
+
+    private final Cache<Long, Long> recipeOwners;
+
+    private final Cache<Long, Long> reviewOwners;
+
+    public OwnershipIndex(@Value("${recipeapi.security.ownership.ttl:PT10M}") Duration ttl,
+                          @Value("${recipeapi.security.ownership.maximum-size:10000}") long maximumSize) {
+        this.recipeOwners = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).build();
+        this.reviewOwners = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).build();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(this);
+    }
+
+    // null when there's no such recipe - which isn't remembered, so a recipe created later is found
+    public Long recipeOwner(Long recipeId) {
+        return recipeOwners.get(recipeId, recipeRepo::findOwnerIdById);
+    }
+
+    public Long reviewOwner(Long reviewId) {
+        return reviewOwners.get(reviewId, reviewRepo::findOwnerIdById);
+    }
+
+    // a recipe was created or updated - an update may have given it a new owner
+    public void recipeWritten(Long recipeId, Long ownerId) {
+        TransactionHooks.afterCommit(() -> {
+            if (ownerId == null) {
+                recipeOwners.invalidate(recipeId);
+            } else {
+                recipeOwners.put(recipeId, ownerId);
+            }
+        });
+    }
+
+    // a deleted recipe takes its reviews with it
+    public void recipeDeleted(Long recipeId, Collection<Long> reviewIds) {
+        TransactionHooks.afterCommit(() -> {
+            recipeOwners.invalidate(recipeId);
+            reviewOwners.invalidateAll(reviewIds);
+        });
+    }
+
+    public void reviewChanged(Long reviewId) {
+        TransactionHooks.afterCommit(() -> reviewOwners.invalidate(reviewId));
+    }
+
+    @Override
+    public void onRemoteInvalidation(String cacheName, Object key) {
+        if (!(key instanceof Long)) {
+            return;
+        }
+        if ("recipeCache".equals(cacheName)) {
+            recipeOwners.invalidate(key);
+        } else if ("reviewCache".equals(cacheName)) {
+            reviewOwners.invalidate(key);
+        }
+    }
+
+    @Override
+    public void onRemoteGap() {
+        recipeOwners.invalidateAll();
+        reviewOwners.invalidateAll();
+    }
+}
@@ -11,9 +11,10 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
-@EnableWebSecurity(debug = true)
+@EnableWebSecurity
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     @Override
@@ -31,19 +32,33 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                     //allow all requests to create a user account or post review
                     .antMatchers(HttpMethod.POST, "/user", "/review/**").permitAll()
                     //allow creation of new recipes only by authenticated users
-                    .antMatchers(HttpMethod.POST, "/recipes", "/review/**").authenticated()
+                    .antMatchers(HttpMethod.POST, "/recipes", "/recipes/bulk", "/review/**").authenticated()
+                    //load balancers and orchestrators poll readiness without credentials
+                    .antMatchers(HttpMethod.GET, "/status/**").permitAll()
+                    //operational metrics are for admins only
+                    .antMatchers("/metrics/**").hasRole("ADMIN")
                     //all other requests should be authenticated
                     .anyRequest().authenticated()
 
                 .and()
 
-                //users should log in using HTTP Basic authentication
-                .httpBasic();
+                //users should log in using HTTP Basic authentication, or a bearer token from POST /auth/token
+                .httpBasic()
+
+                .and()
+
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class);
     }
 
     @Autowired
     CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    CredentialCache credentialCache;
+
+    @Autowired
+    TokenService tokenService;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -52,8 +67,10 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Override
     // Registers a CustomUserDetailsService and BCryptPasswordEncoder with the AuthenticationManager
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        //use a customUserDetailService and a BCryptPasswordEncoder to set up an AuthenticationManager
-        auth.userDetailsService(customUserDetailsService)
-                .passwordEncoder(passwordEncoder());
+        //use a customUserDetailService and a BCryptPasswordEncoder, behind a cache of recently verified credentials
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(credentialCache);
+        provider.setUserDetailsService(customUserDetailsService);
+        provider.setPasswordEncoder(passwordEncoder());
+        auth.authenticationProvider(provider);
     }
 }
@@ -0,0 +1,52 @@
+package com.sadatmalik.recipeapi.security;
+
+import com.sadatmalik.recipeapi.model.CustomUserDetails;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Authenticates requests carrying "Authorization: Bearer <token>" from the token alone - no user lookup, no
+// BCrypt. The principal is the CustomUserDetails rebuilt from the token, with its roles as the authorities, so
+// CustomPermissionEvaluator and the controllers see the same types as with HTTP Basic. Sits before the basic
+// authentication filter in SecurityConfig; requests without a bearer token pass straight through to it.
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CustomUserDetails user;
+        try {
+            user = tokenService.verify(header.substring(BEARER.length()).trim());
+        } catch (AuthenticationException e) {
+            SecurityContextHolder.clearContext();
+            response.setHeader("WWW-Authenticate", "Bearer error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, e.getMessage());
+            return;
+        }
+        PreAuthenticatedAuthenticationToken authentication =
+                new PreAuthenticatedAuthenticationToken(user, null, user.getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,133 @@
+package com.sadatmalik.recipeapi.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sadatmalik.recipeapi.model.CustomUserDetails;
+import com.sadatmalik.recipeapi.model.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Issues and verifies the short-lived bearer tokens handed out by POST /auth/token. A token is a JWT signed with
+// HMAC-SHA256 (header.payload.signature, base64url) carrying the user's id, username, roles and expiry, so it can
+// be verified without the database or BCrypt. Tokens can't be revoked: a role change or deleted account takes
+// effect when the token expires.
+//
+// Every instance must share recipeapi.security.token.secret. Without one, a random secret is generated and tokens
+// only work on the instance that issued them.
+@Component
+public class TokenService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenService.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String HMAC = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // the only header this service issues or accepts
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final SecretKeySpec key;
+
+    private final Duration ttl;
+
+    Clock clock = Clock.systemUTC();
+
+    public TokenService(@Value("${recipeapi.security.token.secret:}") String secret,
+                        @Value("${recipeapi.security.token.ttl:PT15M}") Duration ttl) {
+        byte[] keyBytes;
+        if (secret.isEmpty()) {
+            LOGGER.warn("No recipeapi.security.token.secret set - tokens will only be accepted by this instance");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+            if (keyBytes.length < 32) {
+                throw new IllegalStateException("recipeapi.security.token.secret must be at least 32 bytes, base64");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, HMAC);
+        this.ttl = ttl;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public String issue(CustomUserDetails user) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", user.getUsername());
+        claims.put("uid", user.getId());
+        claims.put("roles", user.getAuthorities().stream()
+                .map(authority -> authority.getAuthority())
+                .collect(Collectors.toList()));
+        claims.put("exp", clock.instant().plus(ttl).getEpochSecond());
+        try {
+            String payload = ENCODER.encodeToString(MAPPER.writeValueAsBytes(claims));
+            String signed = HEADER + "." + payload;
+            return signed + "." + ENCODER.encodeToString(sign(signed));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The user the token was issued to, rebuilt from its claims - with no password, user meta or database state.
+    public CustomUserDetails verify(String token) throws BadCredentialsException {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3 || !HEADER.equals(parts[0])) {
+            throw new BadCredentialsException("Malformed token");
+        }
+        try {
+            byte[] expected = sign(parts[0] + "." + parts[1]);
+            if (!MessageDigest.isEqual(expected, DECODER.decode(parts[2]))) {
+                throw new BadCredentialsException("Invalid token signature");
+            }
+            Map<?, ?> claims = MAPPER.readValue(DECODER.decode(parts[1]), Map.class);
+            if (((Number) claims.get("exp")).longValue() <= clock.instant().getEpochSecond()) {
+                throw new BadCredentialsException("Token has expired");
+            }
+
+            CustomUserDetails user = new CustomUserDetails();
+            user.setId(((Number) claims.get("uid")).longValue());
+            user.setUsername((String) claims.get("sub"));
+            List<Role> roles = new ArrayList<>();
+            for (Object role : (List<?>) claims.get("roles")) {
+                roles.add(new Role(Role.Roles.valueOf((String) role)));
+            }
+            user.setAuthorities(roles);
+            return user;
+        } catch (IOException | IllegalArgumentException | ClassCastException | NullPointerException e) {
+            throw new BadCredentialsException("Malformed token", e);
+        }
+    }
+
+    private byte[] sign(String content) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            // every JRE provides HmacSHA256
+            throw new IllegalStateException(e);
+        }
+    }
+}
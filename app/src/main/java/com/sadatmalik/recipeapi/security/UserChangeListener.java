@@ -0,0 +1,22 @@
+package com.sadatmalik.recipeapi.security;
+
+import com.sadatmalik.recipeapi.model.CustomUserDetails;
+import com.sadatmalik.recipeapi.services.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+// JPA listener on CustomUserDetails - any update (password, account flags) or removal of a user drops them from
+// the authentication caches. Hibernate gets the Spring bean, so it can be autowired.
+public class UserChangeListener {
+
+    @Autowired
+    CustomUserDetailsService customUserDetailsService;
+
+    @PostUpdate
+    @PostRemove
+    void userChanged(CustomUserDetails user) {
+        customUserDetailsService.userChanged(user.getUsername());
+    }
+}
@@ -1,8 +1,11 @@
 package com.sadatmalik.recipeapi.services;
 
+import com.sadatmalik.recipeapi.cache.NegativeCache;
 import com.sadatmalik.recipeapi.model.CustomUserDetails;
 import com.sadatmalik.recipeapi.model.Role;
 import com.sadatmalik.recipeapi.repositories.UserRepo;
+import com.sadatmalik.recipeapi.security.CredentialCache;
+import com.sadatmalik.recipeapi.support.TransactionHooks;
 import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,12 +27,23 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     PasswordEncoder encoder;
 
+    @Autowired
+    NegativeCache negativeCache;
+
+    @Autowired
+    CredentialCache credentialCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // every request with basic auth credentials for an unknown user would otherwise hit the database
+        String absentKey = NegativeCache.user(username);
+        String notFound = username + " is not a valid username! Check for typos and try again.";
+        negativeCache.throwIfAbsent(absentKey, () -> new UsernameNotFoundException(notFound));
+
         CustomUserDetails optionalUser = userRepo.findByUsername(username);
 
         if (optionalUser == null) {
-            throw new UsernameNotFoundException(username + " is not a valid username! Check for typos and try again.");
+            throw negativeCache.absent(absentKey, new UsernameNotFoundException(notFound));
         }
 
         return optionalUser;
@@ -62,12 +76,21 @@ public class CustomUserDetailsService implements UserDetailsService {
         checkPassword(userDetails.getPassword());
         userDetails.setPassword(encoder.encode(userDetails.getPassword()));
         try {
-            return userRepo.save(userDetails);
+            CustomUserDetails savedUser = userRepo.save(userDetails);
+            negativeCache.userCreated(savedUser.getUsername());
+            return savedUser;
         } catch (Exception e) {
             throw new IllegalStateException(e.getMessage(), e.getCause());
         }
     }
 
+    // Call after changing a user's password, roles or account flags, so the change applies to their next request
+    // rather than when their cached credentials expire. Updates to the user row do this through UserChangeListener,
+    // but changes to the roles alone don't update that row.
+    public void userChanged(String username) {
+        TransactionHooks.afterCommit(() -> credentialCache.removeUserFromCache(username));
+    }
+
     private void checkPassword(String password) {
         if (password == null) {
             throw new IllegalStateException("You must set a password");
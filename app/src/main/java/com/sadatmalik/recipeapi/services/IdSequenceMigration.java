@@ -0,0 +1,65 @@
+package com.sadatmalik.recipeapi.services;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+// Recipes used IDENTITY ids, and ingredients and steps the shared hibernate_sequence, before they moved to their
+// own pooled sequences. On MySQL those are one-row tables that schema update creates at 1, below the ids already
+// in use. This moves each one past its table's highest id - a no-op once done, or on an empty database - before
+// the web server starts taking requests. A database with native sequences (H2, for one) never had the tables,
+// so there's nothing to move.
+@Component
+@DependsOn("entityManagerFactory") // schema update has created the sequence tables
+public class IdSequenceMigration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdSequenceMigration.class);
+
+    // entity table -> its id sequence
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "recipe", "recipe_seq",
+            "ingredient", "ingredient_seq",
+            "step", "step_seq");
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void migrate() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        if (dialect.supportsSequences()) {
+            return;
+        }
+        SEQUENCES.forEach(this::moveSequencePastExistingIds);
+    }
+
+    private void moveSequencePastExistingIds(String table, String sequence) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        try {
+            // the next_val column holds the start of the next pool of ids (pooled-lo)
+            int updated = jdbcTemplate.update("update " + sequence + " set next_val = ? where next_val <= ?",
+                    maxId + 1, maxId);
+            if (updated > 0) {
+                LOGGER.info("Moved " + sequence + " on to " + (maxId + 1) + ", past the existing " + table + " ids");
+            }
+        } catch (DataAccessException e) {
+            LOGGER.warn("Could not check " + sequence + " against the " + table + " ids: " + e.getMessage());
+        }
+    }
+}
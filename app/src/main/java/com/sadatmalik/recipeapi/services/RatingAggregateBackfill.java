@@ -0,0 +1,32 @@
+package com.sadatmalik.recipeapi.services;
+
+import com.sadatmalik.recipeapi.cache.warmup.CacheWarmer;
+import com.sadatmalik.recipeapi.repositories.RecipeRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.transaction.Transactional;
+
+// One-off recomputation of the stored rating aggregates, for databases that held reviews before the
+// aggregates were persisted. Enable with recipeapi.ratings.backfill=true for a single start-up.
+@Component
+@ConditionalOnProperty(name = "recipeapi.ratings.backfill", havingValue = "true")
+@Order(CacheWarmer.ORDER - 1) // before the caches are warmed with the old aggregates
+public class RatingAggregateBackfill implements CommandLineRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RatingAggregateBackfill.class);
+
+    @Autowired
+    RecipeRepo recipeRepo;
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        LOGGER.info("Backfilled rating aggregates for " + recipeRepo.backfillRatingAggregates() + " recipes");
+    }
+}
@@ -0,0 +1,212 @@
+package com.sadatmalik.recipeapi.services;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sadatmalik.recipeapi.cache.ListCacheDependencies;
+import com.sadatmalik.recipeapi.cache.NegativeCache;
+import com.sadatmalik.recipeapi.model.BulkImportResult;
+import com.sadatmalik.recipeapi.model.CustomUserDetails;
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.repositories.RecipeRepo;
+import com.sadatmalik.recipeapi.search.RecipeNameIndex;
+import com.sadatmalik.recipeapi.security.OwnershipIndex;
+import com.sadatmalik.recipeapi.support.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Stores recipes sent in bulk - a JSON array or newline delimited JSON, read as a stream so the body is never
+// held whole. Recipes are validated in parallel and inserted a chunk per transaction, with JDBC batching (see
+// the pooled ids on Recipe, Ingredient and Step). The caches and indexes are brought up to date once per chunk
+// instead of once per recipe. A recipe that fails validation is reported and skipped; one that can't be read
+// at all ends the import, leaving the chunks before it committed. A chunk the database won't store is rolled
+// back and each of its recipes reported, and the import goes on with the next.
+@Service
+public class RecipeImportService {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecipeImportService.class);
+
+    @Autowired
+    RecipeRepo recipeRepo;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    RecipeNameIndex recipeNameIndex;
+
+    @Autowired
+    ListCacheDependencies listCacheDependencies;
+
+    @Autowired
+    NegativeCache negativeCache;
+
+    @Autowired
+    OwnershipIndex ownershipIndex;
+
+    @Value("${recipeapi.import.chunk-size:500}")
+    int chunkSize = 500;
+
+    private final ForkJoinPool validationPool;
+
+    public RecipeImportService(@Value("${recipeapi.import.validation-parallelism:4}") int validationParallelism) {
+        this.validationPool = new ForkJoinPool(validationParallelism);
+    }
+
+    @PreDestroy
+    void close() {
+        validationPool.shutdownNow();
+    }
+
+    public BulkImportResult importRecipes(InputStream body, CustomUserDetails author) throws IOException {
+        BulkImportResult result = new BulkImportResult();
+        List<Recipe> chunk = new ArrayList<>(chunkSize);
+        List<Integer> indexes = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        // reads either a top level array or a sequence of values, so JSON and NDJSON take the same path
+        try (MappingIterator<Recipe> recipes = objectMapper.readerFor(Recipe.class).readValues(body)) {
+            while (true) {
+                try {
+                    if (!recipes.hasNextValue()) {
+                        break;
+                    }
+                    Recipe recipe = recipes.nextValue();
+                    recipe.setUser(author);
+                    chunk.add(recipe);
+                    indexes.add(index);
+                } catch (JsonParseException e) {
+                    // malformed JSON - there's no telling where the next recipe starts
+                    result.setError("Recipe " + index + " could not be read: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    // well formed but not a recipe, e.g. a difficulty rating out of range - the iterator skips it
+                    result.getRejected().add(new BulkImportResult.Rejection(index, rejectionMessage(e)));
+                }
+                index++;
+
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, indexes, result);
+                    chunk.clear();
+                    indexes.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, indexes, result);
+        }
+        // unreadable recipes are rejected as they're read, invalid ones a chunk later
+        result.getRejected().sort(Comparator.comparingInt(BulkImportResult.Rejection::getIndex));
+
+        LOGGER.info("Imported " + result.getImported() + " recipes for " + author.getUsername() + ", rejected " +
+                result.getRejected().size() + (result.getError() == null ? "" : ", stopped early"));
+        return result;
+    }
+
+    private void importChunk(List<Recipe> chunk, List<Integer> indexes, BulkImportResult result) {
+        String[] problems = validate(chunk);
+        List<Recipe> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (problems[i] == null) {
+                valid.add(chunk.get(i));
+            } else {
+                result.getRejected().add(new BulkImportResult.Rejection(indexes.get(i), problems[i]));
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                recipeRepo.saveAll(valid);
+                recipesWritten(valid);
+            });
+        } catch (DataAccessException | TransactionException e) {
+            String message = "Could not be stored: " + e.getMostSpecificCause().getMessage();
+            LOGGER.warn("Importing a chunk of " + valid.size() + " recipes failed: " + e.getMostSpecificCause());
+            for (int i = 0; i < chunk.size(); i++) {
+                if (problems[i] == null) {
+                    result.getRejected().add(new BulkImportResult.Rejection(indexes.get(i), message));
+                }
+            }
+            return;
+        }
+        result.setImported(result.getImported() + valid.size());
+    }
+
+    // validate() only looks at the recipe itself, so the chunk is checked on the validation pool's threads
+    private String[] validate(List<Recipe> chunk) {
+        String[] problems = new String[chunk.size()];
+        try {
+            validationPool.submit(() -> IntStream.range(0, chunk.size()).parallel().forEach(i -> {
+                try {
+                    chunk.get(i).validate();
+                } catch (IllegalStateException e) {
+                    problems[i] = e.getMessage();
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating recipes", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not validate recipes", e.getCause());
+        }
+        return problems;
+    }
+
+    // What RecipeService.createNewRecipe does for each recipe, once for the chunk: every recorded list page and
+    // negative cache marker is checked against the lot in one pass after commit. The recipeCache evictions carry
+    // the new ids to other nodes, the way a single create's do.
+    private void recipesWritten(List<Recipe> recipes) {
+        for (Recipe recipe : recipes) {
+            recipeNameIndex.indexAfterCommit(recipe.getId(), recipe.getName());
+            ownershipIndex.recipeWritten(recipe.getId(), recipe.getUser().getId());
+        }
+        listCacheDependencies.recipesChanged(recipes);
+        negativeCache.recipesWritten(recipes);
+
+        List<Long> ids = new ArrayList<>(recipes.size());
+        recipes.forEach(recipe -> ids.add(recipe.getId()));
+        TransactionHooks.afterCommit(() -> {
+            Cache recipeCache = cacheManager.getCache("recipeCache");
+            if (recipeCache != null) {
+                ids.forEach(recipeCache::evict);
+            }
+        });
+    }
+
+    private static String rejectionMessage(JsonMappingException e) {
+        // a setter's own exception, e.g. Recipe.setDifficultyRating, says more than Jackson's wrapper
+        Throwable cause = e.getCause();
+        return cause instanceof IllegalStateException ? cause.getMessage() : e.getOriginalMessage();
+    }
+}
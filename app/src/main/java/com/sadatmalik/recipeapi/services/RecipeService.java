@@ -0,0 +1,371 @@
+package com.sadatmalik.recipeapi.services;
+
+import com.sadatmalik.recipeapi.cache.ListCacheDependencies;
+import com.sadatmalik.recipeapi.cache.ListCacheKeys;
+import com.sadatmalik.recipeapi.cache.NegativeCache;
+import com.sadatmalik.recipeapi.exceptions.NoSuchRecipeException;
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.model.Review;
+import com.sadatmalik.recipeapi.repositories.RecipeRepo;
+import com.sadatmalik.recipeapi.search.RecipeNameIndex;
+import com.sadatmalik.recipeapi.security.OwnershipIndex;
+import com.sadatmalik.recipeapi.support.TransactionHooks;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.sadatmalik.recipeapi.cache.ListCacheDependencies.*;
+
+@Service
+public class RecipeService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecipeService.class);
+
+    // keyset paging: list endpoints return at most 'limit' recipes with an id greater than 'after'
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // list cache keys are built by ListCacheKeys, so ListCacheDependencies can record and evict the same keys
+    static final String KEYS = "T(com.sadatmalik.recipeapi.cache.ListCacheKeys).";
+
+    static final String NO_RECIPES = "There are no recipes yet :( feel free to add one though";
+    static final String NO_RECIPES_FOR_NAME = "No recipes could be found with that name.";
+    static final String NO_RECIPES_FOR_USERNAME = "No recipes could be found with that username.";
+
+    @Autowired
+    RecipeRepo recipeRepo;
+
+    @Autowired
+    RecipeNameIndex recipeNameIndex;
+
+    @Autowired
+    ListCacheDependencies listCacheDependencies;
+
+    @Autowired
+    NegativeCache negativeCache;
+
+    @Autowired
+    OwnershipIndex ownershipIndex;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    // nothing is cached under a new id, but the eviction tells other nodes about the recipe
+    @Transactional
+    @CacheEvict(value = "recipeCache", key = "#result.id")
+    public Recipe createNewRecipe(Recipe recipe) throws IllegalStateException {
+        recipe.validate();
+        recipe = recipeRepo.save(recipe);
+        recipeNameIndex.indexAfterCommit(recipe.getId(), recipe.getName());
+        listCacheDependencies.recipeChanged(recipe.getId(), recipe);
+        negativeCache.recipeWritten(recipe);
+        ownershipIndex.recipeWritten(recipe.getId(), ownerId(recipe));
+        recipe.generateLocationURI();
+        return recipe;
+    }
+
+    // Cached loads can run on a background refresh thread, so they mustn't depend on the current request - the
+    // location URI is only generated on the write paths that return it.
+    @Cacheable(value = "recipeCache", key = "#id", sync = true)
+    public Recipe getRecipeById(Long id) throws NoSuchRecipeException {
+        String absentKey = NegativeCache.recipe(id);
+        String notFound = "No recipe with ID " + id + " could be found.";
+        negativeCache.throwIfAbsent(absentKey, () -> new NoSuchRecipeException(notFound));
+
+        Optional<Recipe> recipeOptional = recipeRepo.findById(id);
+
+        if (recipeOptional.isEmpty()) {
+            throw negativeCache.absent(absentKey, new NoSuchRecipeException(notFound));
+        }
+
+        // the request's persistence context may already hold a reference from getRecipeReference, which findById
+        // then returns - the cache needs the recipe itself
+        Recipe recipe = (Recipe) Hibernate.unproxy(recipeOptional.get());
+
+        // initialize collections for cache
+        recipe.initialize();
+
+        LOGGER.info("Returning recipe from DB: " + recipe);
+
+        return recipe;
+    }
+
+    // An uncached copy of the recipe, for callers that modify it - cached recipes are shared with every reader.
+    public Recipe getRecipeForUpdate(Long id) throws NoSuchRecipeException {
+        Recipe recipe = recipeRepo.findById(id)
+                .orElseThrow(() -> new NoSuchRecipeException("No recipe with ID " + id + " could be found."));
+        recipe.initialize();
+        recipe.generateLocationURI();
+        return recipe;
+    }
+
+    // An uninitialized reference to a recipe, for writing a row that points at it without loading it. Fails on
+    // flush or first use if there's no such recipe.
+    public Recipe getRecipeReference(Long id) {
+        return recipeRepo.getById(id);
+    }
+
+    @Cacheable(value = "recipeListCache", key = KEYS + "recipesByUser(#username, #after, #limit)", sync = true)
+    public ArrayList<Recipe> getRecipesByUser(String username, long after, int limit) throws NoSuchRecipeException {
+        String absentKey = NegativeCache.recipesByUser(username);
+        if (after == 0) {
+            negativeCache.throwIfAbsent(absentKey, () -> new NoSuchRecipeException(NO_RECIPES_FOR_USERNAME));
+        }
+
+        ArrayList<Recipe> matchingRecipes =
+                recipeRepo.findByUser_UsernameAndIdGreaterThanOrderByIdAsc(username, after, firstPage(limit));
+
+        if (matchingRecipes.isEmpty() && after == 0) {
+            throw negativeCache.absent(absentKey, new NoSuchRecipeException(NO_RECIPES_FOR_USERNAME));
+        }
+
+        for (Recipe r : matchingRecipes) {
+            r.initialize();
+        }
+
+        listCacheDependencies.recordPage(RECIPE_LIST_CACHE, ListCacheKeys.recipesByUser(username, after, limit),
+                ids(matchingRecipes), pageSize(limit), after, authoredBy(username));
+
+        LOGGER.info("Returning recipes for username '" + username + "' after " + after + " from DB: " + matchingRecipes);
+
+        return matchingRecipes;
+    }
+
+    @Cacheable(value = "recipeListCache", key = KEYS + "recipesByName(#name, #after, #limit)", sync = true)
+    public ArrayList<Recipe> getRecipesByName(String name, long after, int limit) throws NoSuchRecipeException {
+        String absentKey = NegativeCache.recipesByName(name);
+        if (after == 0) {
+            negativeCache.throwIfAbsent(absentKey, () -> new NoSuchRecipeException(NO_RECIPES_FOR_NAME));
+        }
+
+        ArrayList<Recipe> matchingRecipes;
+        if (recipeNameIndex.isReady()) {
+            // answer from the name index, then load just the matching page of rows by primary key
+            List<Long> ids = recipeNameIndex.search(name).stream()
+                    .filter(id -> id > after)
+                    .limit(pageSize(limit))
+                    .collect(Collectors.toList());
+            matchingRecipes = new ArrayList<>(recipeRepo.findAllById(ids));
+            matchingRecipes.sort(Comparator.comparing(Recipe::getId));
+        } else {
+            matchingRecipes = recipeRepo.findByNameContainingAndIdGreaterThanOrderByIdAsc(name, after, firstPage(limit));
+        }
+
+        if (matchingRecipes.isEmpty() && after == 0) {
+            throw negativeCache.absent(absentKey, new NoSuchRecipeException(NO_RECIPES_FOR_NAME));
+        }
+
+        for (Recipe r : matchingRecipes) {
+            r.initialize();
+        }
+
+        listCacheDependencies.recordPage(RECIPE_LIST_CACHE, ListCacheKeys.recipesByName(name, after, limit),
+                ids(matchingRecipes), pageSize(limit), after, nameContains(name));
+
+        LOGGER.info("Returning recipes for name '" + name + "' after " + after + " from DB: " + matchingRecipes);
+
+        return matchingRecipes;
+    }
+
+    @Cacheable(value = "recipeListCache", key = KEYS + "recipesByMinRating(#min, #after, #limit)", sync = true)
+    public ArrayList<Recipe> getRecipesByMinRating(double min, long after, int limit) throws NoSuchRecipeException {
+        if (after == 0) {
+            negativeCache.throwIfAbsent(NegativeCache.recipesByMinRating(min),
+                    () -> new NoSuchRecipeException(noRecipesRatedAtLeast(min)));
+        }
+
+        ArrayList<Recipe> matchingRecipes =
+                recipeRepo.findByAverageRatingGreaterThanEqualAndIdGreaterThanOrderByIdAsc(min, after, firstPage(limit));
+
+        ratedRecipes(matchingRecipes, min, after == 0);
+
+        listCacheDependencies.recordPage(RECIPE_LIST_CACHE, ListCacheKeys.recipesByMinRating(min, after, limit),
+                ids(matchingRecipes), pageSize(limit), after, ratedAtLeast(min));
+
+        return matchingRecipes;
+    }
+
+    // Highest rated first. The first page has no cursor; later pages pass the rating and id of the last recipe seen.
+    @Cacheable(value = "recipeListCache",
+            key = KEYS + "recipesByMinRatingSortedByRating(#min, #afterRating, #afterId, #limit)",
+            sync = true)
+    public ArrayList<Recipe> getRecipesByMinRatingSortedByRating(double min, Double afterRating, Long afterId, int limit)
+            throws NoSuchRecipeException {
+        boolean firstPage = afterRating == null || afterId == null;
+        if (firstPage) {
+            negativeCache.throwIfAbsent(NegativeCache.recipesByMinRating(min),
+                    () -> new NoSuchRecipeException(noRecipesRatedAtLeast(min)));
+        }
+
+        ArrayList<Recipe> matchingRecipes = recipeRepo.findByMinRatingOrderByRatingDesc(min,
+                firstPage ? Double.MAX_VALUE : afterRating,
+                firstPage ? Long.MAX_VALUE : afterId,
+                firstPage(limit));
+
+        ratedRecipes(matchingRecipes, min, firstPage);
+
+        listCacheDependencies.recordUnorderedPage(RECIPE_LIST_CACHE,
+                ListCacheKeys.recipesByMinRatingSortedByRating(min, afterRating, afterId, limit),
+                ids(matchingRecipes), ratedAtLeast(min));
+
+        return matchingRecipes;
+    }
+
+    private ArrayList<Recipe> ratedRecipes(ArrayList<Recipe> matchingRecipes, double min, boolean firstPage)
+            throws NoSuchRecipeException {
+        if (matchingRecipes.isEmpty() && firstPage) {
+            throw negativeCache.absent(NegativeCache.recipesByMinRating(min),
+                    new NoSuchRecipeException(noRecipesRatedAtLeast(min)));
+        }
+
+        for (Recipe r : matchingRecipes) {
+            r.initialize();
+        }
+
+        LOGGER.info("Returning recipes rated at least " + min + " from DB: " + matchingRecipes);
+
+        return matchingRecipes;
+    }
+
+    @Cacheable(value = "recipeListCache", key = KEYS + "recipes(#after, #limit)", sync = true)
+    public ArrayList<Recipe> getAllRecipes(long after, int limit) throws NoSuchRecipeException {
+        if (after == 0) {
+            negativeCache.throwIfAbsent(NegativeCache.ALL_RECIPES, () -> new NoSuchRecipeException(NO_RECIPES));
+        }
+
+        ArrayList<Recipe> recipes = recipeRepo.findByIdGreaterThanOrderByIdAsc(after, firstPage(limit));
+
+        if (recipes.isEmpty() && after == 0) {
+            throw negativeCache.absent(NegativeCache.ALL_RECIPES, new NoSuchRecipeException(NO_RECIPES));
+        }
+        for (Recipe r : recipes) {
+            r.initialize();
+        }
+
+        listCacheDependencies.recordPage(RECIPE_LIST_CACHE, ListCacheKeys.recipes(after, limit), ids(recipes),
+                pageSize(limit), after, anyRecipe());
+
+        LOGGER.info("Returning recipes after " + after + " from DB: " + recipes);
+
+        return recipes;
+    }
+
+    @Transactional
+    @CacheEvict(value = "recipeCache", key = "#id")
+    public Recipe deleteRecipeById(Long id) throws NoSuchRecipeException {
+        try {
+            Recipe recipe = getRecipeById(id);
+            recipeRepo.deleteById(id);
+            recipeNameIndex.removeAfterCommit(id);
+            listCacheDependencies.recipeChanged(id, null);
+            listCacheDependencies.reviewsChanged(id, reviewers(recipe));
+            ownershipIndex.recipeDeleted(id, reviewIds(recipe));
+            return recipe;
+        } catch (NoSuchRecipeException e) {
+            throw new NoSuchRecipeException(e.getMessage() + " Could not delete.");
+        }
+    }
+
+    @Transactional
+    @CacheEvict(value = "recipeCache", key = "#recipe.id")
+    public Recipe updateRecipe(Recipe recipe, boolean forceIdCheck) throws NoSuchRecipeException {
+        try {
+            if (forceIdCheck) {
+                getRecipeById(recipe.getId());
+            }
+            recipe.validate();
+            Recipe stored = recipe.getId() == null ? null : recipeRepo.findById(recipe.getId())
+                    .map(found -> (Recipe) Hibernate.unproxy(found))
+                    .orElse(null);
+            if (stored != null) {
+                // Reviews only change through ReviewService, which checks who may write them and applies their
+                // rating deltas - any in the body are ignored, and the merge keeps the stored ones. The aggregates
+                // aren't written by the merge either, so report the stored ones.
+                stored.initialize();
+                recipe.setReviews(stored.getReviews());
+                recipe.copyRatingAggregates(stored);
+            } else {
+                recipe.linkReviews();
+            }
+            Recipe savedRecipe = recipeRepo.save(recipe);
+            recipeNameIndex.indexAfterCommit(savedRecipe.getId(), savedRecipe.getName());
+            listCacheDependencies.recipeChanged(savedRecipe.getId(), savedRecipe);
+            negativeCache.recipeWritten(savedRecipe);
+            ownershipIndex.recipeWritten(savedRecipe.getId(), ownerId(savedRecipe));
+            if (stored == null) {
+                // inserted with its reviews, whose lists are cached separately
+                listCacheDependencies.reviewsChanged(savedRecipe.getId(), reviewers(savedRecipe));
+            }
+            savedRecipe.generateLocationURI();
+            return savedRecipe;
+        } catch (NoSuchRecipeException e) {
+            throw new NoSuchRecipeException("The recipe you passed in did not have an ID found in the database." +
+                    " Double check that it is correct. Or maybe you meant to POST a recipe not PATCH one.");
+        }
+    }
+
+    // Atomically applies a review change to the stored rating aggregates of a recipe. The cached recipe is evicted
+    // once the change commits - evicted any earlier, a concurrent reader could cache the old row again.
+    @Transactional
+    public void adjustRatingAggregates(Long recipeId, int countDelta, long ratingDelta) {
+        recipeRepo.adjustRatingAggregates(recipeId, countDelta, ratingDelta);
+        TransactionHooks.afterCommit(() -> cacheManager.getCache("recipeCache").evict(recipeId));
+
+        // only the rating changed, so the new average is all the dependency check needs
+        Double averageRating = recipeRepo.findAverageRatingById(recipeId);
+        listCacheDependencies.recipeChanged(recipeId, averageRating == null ? null :
+                Recipe.builder().id(recipeId).averageRating(averageRating).build());
+        if (averageRating != null) {
+            negativeCache.ratingChanged(averageRating);
+        }
+    }
+
+    static String noRecipesRatedAtLeast(double min) {
+        return "No recipes could be found with an average rating of at least " + min + ".";
+    }
+
+    private static List<Long> ids(List<Recipe> recipes) {
+        return recipes.stream().map(Recipe::getId).collect(Collectors.toList());
+    }
+
+    private static Long ownerId(Recipe recipe) {
+        return recipe.getUser() == null ? null : recipe.getUser().getId();
+    }
+
+    private static List<Long> reviewIds(Recipe recipe) {
+        return recipe.getReviews() == null ? List.of() :
+                recipe.getReviews().stream().map(Review::getId).collect(Collectors.toList());
+    }
+
+    private static Set<String> reviewers(Recipe recipe) {
+        Set<String> usernames = new HashSet<>();
+        if (recipe.getReviews() != null) {
+            for (Review review : recipe.getReviews()) {
+                if (review.getUser() != null) {
+                    usernames.add(review.getUser().getUsername());
+                }
+            }
+        }
+        return usernames;
+    }
+
+    static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // the 'after' cursor does the offsetting, so the SQL only ever needs the first page of the given size
+    static Pageable firstPage(int limit) {
+        return PageRequest.of(0, pageSize(limit));
+    }
+}
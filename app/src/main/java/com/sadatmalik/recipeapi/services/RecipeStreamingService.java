@@ -0,0 +1,83 @@
+package com.sadatmalik.recipeapi.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.repositories.RecipeRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Writes the whole recipe catalog straight to an output stream, one recipe at a time, so memory use stays flat
+// however many recipes there are.
+@Service
+public class RecipeStreamingService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecipeStreamingService.class);
+
+    // recipes loaded and written together between persistence context clears and output flushes - no more than
+    // hibernate.default_batch_fetch_size, so one batch covers a chunk
+    static final int CHUNK_SIZE = 100;
+
+    @Autowired
+    RecipeRepo recipeRepo;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    // Writes newline-delimited JSON, or a single JSON array when asArray is set.
+    @Transactional(readOnly = true)
+    public long writeAllRecipes(OutputStream out, boolean asArray) throws IOException {
+        // the response stream belongs to the container, so don't let Jackson close it
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long count = 0;
+
+        try (Stream<Recipe> recipes = recipeRepo.streamAllOrderedById();
+             SequenceWriter sequence = asArray
+                     ? writer.writeValuesAsArray(out)
+                     : writer.withRootValueSeparator("\n").writeValues(out)) {
+
+            // a chunk of recipes is read from the cursor and its collections initialized before any is written, so
+            // hibernate.default_batch_fetch_size loads each collection for the whole chunk in one select rather than
+            // one select per recipe
+            List<Recipe> chunk = new ArrayList<>(CHUNK_SIZE);
+            Iterator<Recipe> iterator = recipes.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    for (Recipe recipe : chunk) {
+                        recipe.initialize();
+                    }
+                    for (Recipe recipe : chunk) {
+                        sequence.write(recipe);
+                    }
+                    count += chunk.size();
+                    chunk.clear();
+
+                    // drop the recipes already written (and their collections) from the persistence context
+                    entityManager.clear();
+                    sequence.flush();
+                }
+            }
+        }
+
+        LOGGER.info("Streamed " + count + " recipes");
+
+        return count;
+    }
+}
@@ -0,0 +1,178 @@
+package com.sadatmalik.recipeapi.services;
+
+import com.sadatmalik.recipeapi.cache.ListCacheDependencies;
+import com.sadatmalik.recipeapi.cache.ListCacheKeys;
+import com.sadatmalik.recipeapi.cache.NegativeCache;
+import com.sadatmalik.recipeapi.exceptions.NoSuchRecipeException;
+import com.sadatmalik.recipeapi.model.RecipeSummary;
+import com.sadatmalik.recipeapi.repositories.RecipeRepo;
+import com.sadatmalik.recipeapi.search.RecipeNameIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.sadatmalik.recipeapi.cache.ListCacheDependencies.*;
+import static com.sadatmalik.recipeapi.services.RecipeService.*;
+
+// Summary view of the RecipeService list methods - same paging and cache keys, in a separate cache whose pages
+// are tracked by ListCacheDependencies alongside recipeListCache.
+@Service
+public class RecipeSummaryService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecipeSummaryService.class);
+
+    private static final String KEYS = RecipeService.KEYS;
+
+    @Autowired
+    RecipeRepo recipeRepo;
+
+    @Autowired
+    RecipeNameIndex recipeNameIndex;
+
+    // shares RecipeService's markers, which answer the same lookups
+    @Autowired
+    NegativeCache negativeCache;
+
+    @Autowired
+    ListCacheDependencies listCacheDependencies;
+
+    @Cacheable(value = "recipeSummaryCache", key = KEYS + "recipes(#after, #limit)", sync = true)
+    public ArrayList<RecipeSummary> getRecipeSummaries(long after, int limit) throws NoSuchRecipeException {
+        if (after == 0) {
+            negativeCache.throwIfAbsent(NegativeCache.ALL_RECIPES, () -> new NoSuchRecipeException(NO_RECIPES));
+        }
+
+        ArrayList<RecipeSummary> summaries = recipeRepo.findSummaries(after, firstPage(limit));
+
+        if (summaries.isEmpty() && after == 0) {
+            throw negativeCache.absent(NegativeCache.ALL_RECIPES, new NoSuchRecipeException(NO_RECIPES));
+        }
+
+        listCacheDependencies.recordPage(RECIPE_SUMMARY_CACHE, ListCacheKeys.recipes(after, limit), ids(summaries),
+                pageSize(limit), after, anyRecipe());
+
+        LOGGER.info("Returning recipe summaries after " + after + " from DB: " + summaries.size());
+
+        return summaries;
+    }
+
+    @Cacheable(value = "recipeSummaryCache", key = KEYS + "recipesByName(#name, #after, #limit)", sync = true)
+    public ArrayList<RecipeSummary> getRecipeSummariesByName(String name, long after, int limit)
+            throws NoSuchRecipeException {
+        String absentKey = NegativeCache.recipesByName(name);
+        if (after == 0) {
+            negativeCache.throwIfAbsent(absentKey, () -> new NoSuchRecipeException(NO_RECIPES_FOR_NAME));
+        }
+
+        ArrayList<RecipeSummary> summaries;
+        if (recipeNameIndex.isReady()) {
+            List<Long> ids = recipeNameIndex.search(name).stream()
+                    .filter(id -> id > after)
+                    .limit(pageSize(limit))
+                    .collect(Collectors.toList());
+            summaries = ids.isEmpty() ? new ArrayList<>() : recipeRepo.findSummariesByIdIn(ids);
+        } else {
+            summaries = recipeRepo.findSummariesByName(name, after, firstPage(limit));
+        }
+
+        if (summaries.isEmpty() && after == 0) {
+            throw negativeCache.absent(absentKey, new NoSuchRecipeException(NO_RECIPES_FOR_NAME));
+        }
+
+        listCacheDependencies.recordPage(RECIPE_SUMMARY_CACHE, ListCacheKeys.recipesByName(name, after, limit),
+                ids(summaries), pageSize(limit), after, nameContains(name));
+
+        LOGGER.info("Returning recipe summaries for name '" + name + "' after " + after + " from DB: " +
+                summaries.size());
+
+        return summaries;
+    }
+
+    @Cacheable(value = "recipeSummaryCache", key = KEYS + "recipesByUser(#username, #after, #limit)", sync = true)
+    public ArrayList<RecipeSummary> getRecipeSummariesByUser(String username, long after, int limit)
+            throws NoSuchRecipeException {
+        String absentKey = NegativeCache.recipesByUser(username);
+        if (after == 0) {
+            negativeCache.throwIfAbsent(absentKey, () -> new NoSuchRecipeException(NO_RECIPES_FOR_USERNAME));
+        }
+
+        ArrayList<RecipeSummary> summaries = recipeRepo.findSummariesByUsername(username, after, firstPage(limit));
+
+        if (summaries.isEmpty() && after == 0) {
+            throw negativeCache.absent(absentKey, new NoSuchRecipeException(NO_RECIPES_FOR_USERNAME));
+        }
+
+        listCacheDependencies.recordPage(RECIPE_SUMMARY_CACHE, ListCacheKeys.recipesByUser(username, after, limit),
+                ids(summaries), pageSize(limit), after, authoredBy(username));
+
+        LOGGER.info("Returning recipe summaries for username '" + username + "' after " + after + " from DB: " +
+                summaries.size());
+
+        return summaries;
+    }
+
+    @Cacheable(value = "recipeSummaryCache", key = KEYS + "recipesByMinRating(#min, #after, #limit)", sync = true)
+    public ArrayList<RecipeSummary> getRecipeSummariesByMinRating(double min, long after, int limit)
+            throws NoSuchRecipeException {
+        if (after == 0) {
+            negativeCache.throwIfAbsent(NegativeCache.recipesByMinRating(min),
+                    () -> new NoSuchRecipeException(noRecipesRatedAtLeast(min)));
+        }
+
+        ArrayList<RecipeSummary> summaries =
+                ratedSummaries(recipeRepo.findSummariesByMinRating(min, after, firstPage(limit)), min, after == 0);
+
+        listCacheDependencies.recordPage(RECIPE_SUMMARY_CACHE, ListCacheKeys.recipesByMinRating(min, after, limit),
+                ids(summaries), pageSize(limit), after, ratedAtLeast(min));
+
+        return summaries;
+    }
+
+    @Cacheable(value = "recipeSummaryCache",
+            key = KEYS + "recipesByMinRatingSortedByRating(#min, #afterRating, #afterId, #limit)",
+            sync = true)
+    public ArrayList<RecipeSummary> getRecipeSummariesByMinRatingSortedByRating(double min, Double afterRating,
+                                                                                Long afterId, int limit)
+            throws NoSuchRecipeException {
+        boolean firstPage = afterRating == null || afterId == null;
+        if (firstPage) {
+            negativeCache.throwIfAbsent(NegativeCache.recipesByMinRating(min),
+                    () -> new NoSuchRecipeException(noRecipesRatedAtLeast(min)));
+        }
+
+        ArrayList<RecipeSummary> summaries = recipeRepo.findSummariesByMinRatingOrderByRatingDesc(min,
+                firstPage ? Double.MAX_VALUE : afterRating,
+                firstPage ? Long.MAX_VALUE : afterId,
+                firstPage(limit));
+
+        ratedSummaries(summaries, min, firstPage);
+
+        listCacheDependencies.recordUnorderedPage(RECIPE_SUMMARY_CACHE,
+                ListCacheKeys.recipesByMinRatingSortedByRating(min, afterRating, afterId, limit),
+                ids(summaries), ratedAtLeast(min));
+
+        return summaries;
+    }
+
+    private ArrayList<RecipeSummary> ratedSummaries(ArrayList<RecipeSummary> summaries, double min, boolean firstPage)
+            throws NoSuchRecipeException {
+        if (summaries.isEmpty() && firstPage) {
+            throw negativeCache.absent(NegativeCache.recipesByMinRating(min),
+                    new NoSuchRecipeException(noRecipesRatedAtLeast(min)));
+        }
+
+        LOGGER.info("Returning recipe summaries rated at least " + min + " from DB: " + summaries.size());
+
+        return summaries;
+    }
+
+    private static List<Long> ids(List<RecipeSummary> summaries) {
+        return summaries.stream().map(RecipeSummary::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,176 @@
+package com.sadatmalik.recipeapi.services;
+
+import com.sadatmalik.recipeapi.cache.ListCacheDependencies;
+import com.sadatmalik.recipeapi.cache.NegativeCache;
+import com.sadatmalik.recipeapi.exceptions.NoSuchRecipeException;
+import com.sadatmalik.recipeapi.exceptions.NoSuchReviewException;
+import com.sadatmalik.recipeapi.exceptions.UserException;
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.model.Review;
+import com.sadatmalik.recipeapi.repositories.ReviewRepo;
+import com.sadatmalik.recipeapi.security.OwnershipIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+public class ReviewService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewService.class);
+
+    private static final String KEYS = RecipeService.KEYS;
+
+    private static final String NO_REVIEWS_FOR_RECIPE = "There are no reviews for this recipe.";
+
+    @Autowired
+    ReviewRepo reviewRepo;
+
+    @Autowired
+    RecipeService recipeService;
+
+    @Autowired
+    ListCacheDependencies listCacheDependencies;
+
+    @Autowired
+    NegativeCache negativeCache;
+
+    @Autowired
+    OwnershipIndex ownershipIndex;
+
+    @Cacheable(value = "reviewCache", key = "#id", sync = true)
+    public Review getReviewById(Long id) throws NoSuchReviewException {
+        String absentKey = NegativeCache.review(id);
+        String notFound = "The review with ID " + id + " could not be found.";
+        negativeCache.throwIfAbsent(absentKey, () -> new NoSuchReviewException(notFound));
+
+        Optional<Review> review = reviewRepo.findById(id);
+
+        if (review.isEmpty()) {
+            throw negativeCache.absent(absentKey, new NoSuchReviewException(notFound));
+        }
+
+        LOGGER.info("Returning review from DB: " + review.get());
+
+        return review.get();
+    }
+
+    @Cacheable(value = "reviewListCache", key = KEYS + "reviewsByRecipe(#recipeId)", sync = true)
+    public ArrayList<Review> getReviewByRecipeId(Long recipeId) throws NoSuchRecipeException, NoSuchReviewException {
+        String absentKey = NegativeCache.reviewsByRecipe(recipeId);
+        negativeCache.throwIfAbsent(absentKey, () -> new NoSuchReviewException(NO_REVIEWS_FOR_RECIPE));
+
+        Recipe recipe = recipeService.getRecipeById(recipeId);
+
+        ArrayList<Review> reviews = new ArrayList<>(recipe.getReviews());
+
+        if (reviews.isEmpty()) {
+            throw negativeCache.absent(absentKey, new NoSuchReviewException(NO_REVIEWS_FOR_RECIPE));
+        }
+
+        LOGGER.info("Looked up reviews for recipeId '" + recipeId + "': " + reviews);
+
+        return reviews;
+    }
+
+    @Cacheable(value = "reviewListCache", key = KEYS + "reviewsByUser(#username)", sync = true)
+    public ArrayList<Review> getReviewByUsername(String username) throws NoSuchReviewException {
+        String absentKey = NegativeCache.reviewsByUser(username);
+        String notFound = "No reviews could be found for username " + username;
+        negativeCache.throwIfAbsent(absentKey, () -> new NoSuchReviewException(notFound));
+
+        ArrayList<Review> reviews = reviewRepo.findByUser_Username(username);
+
+        if (reviews.isEmpty()) {
+            throw negativeCache.absent(absentKey, new NoSuchReviewException(notFound));
+        }
+
+        LOGGER.info("Returning reviews for username '" + username + "' from DB: " + reviews);
+
+        return reviews;
+    }
+
+    // Inserts the review as a single row and adjusts its recipe's stored aggregates with one update - the recipe
+    // itself, its other reviews and its collections are never loaded or written.
+    @Transactional
+    public Review postNewReview(Review review, Long recipeId) throws NoSuchRecipeException, UserException {
+        Long ownerId = ownershipIndex.recipeOwner(recipeId);
+        if (ownerId == null) {
+            throw new NoSuchRecipeException("No recipe with ID " + recipeId + " could be found.");
+        }
+        if (ownerId.equals(review.getUser().getId())) {
+            throw new UserException("Nice try - reviewing your own handy work, eh? Sorry, that's not allowed :-)");
+        }
+        review.setId(null);
+        review.setRecipe(recipeService.getRecipeReference(recipeId));
+        Review savedReview = reviewRepo.save(review);
+
+        // also evicts the cached recipe, which embeds its reviews
+        recipeService.adjustRatingAggregates(recipeId, 1, review.getRating());
+        listCacheDependencies.reviewsChanged(recipeId, authors(review));
+        negativeCache.reviewWritten(recipeId, review.getUser().getUsername(), List.of(savedReview.getId()));
+        return savedReview;
+    }
+
+    @CacheEvict(value = "reviewCache", key = "#result.id")
+    @Transactional
+    public Review deleteReviewById(Long id) throws NoSuchReviewException {
+        Review review = getReviewById(id);
+
+        if (null == review) {
+            throw new NoSuchReviewException("The review you are trying to delete does not exist.");
+        }
+        Long recipeId = reviewRepo.findRecipeIdByReviewId(id);
+        reviewRepo.deleteById(id);
+        recipeService.adjustRatingAggregates(recipeId, -1, -review.getRating());
+        listCacheDependencies.reviewsChanged(recipeId, authors(review));
+        ownershipIndex.reviewChanged(id);
+
+        return review;
+    }
+
+    @CachePut(value = "reviewCache", key = "#result.id")
+    @Transactional
+    public Review updateReviewById(Review reviewToUpdate) throws NoSuchReviewException {
+        Review review;
+        try {
+            review = getReviewById(reviewToUpdate.getId());
+        } catch (NoSuchReviewException e) {
+            throw new NoSuchReviewException("The review you are trying to update. Maybe you meant to create one? If not," +
+                    "please double check the ID you passed in.");
+        }
+
+        Long recipeId = reviewRepo.findRecipeIdByReviewId(review.getId());
+        // the recipe isn't part of the request body, and a review stays with its recipe
+        reviewToUpdate.setRecipe(recipeService.getRecipeReference(recipeId));
+        Review updatedReview = reviewRepo.save(reviewToUpdate);
+        // also refreshes the cached recipe, which embeds its reviews
+        recipeService.adjustRatingAggregates(recipeId, 0, updatedReview.getRating() - review.getRating());
+        listCacheDependencies.reviewsChanged(recipeId, authors(review, updatedReview));
+        // the update is saved with the current user as its author
+        ownershipIndex.reviewChanged(updatedReview.getId());
+
+        return updatedReview;
+    }
+
+    private static Set<String> authors(Review... reviews) {
+        Set<String> usernames = new HashSet<>();
+        for (Review review : reviews) {
+            if (review.getUser() != null) {
+                usernames.add(review.getUser().getUsername());
+            }
+        }
+        return usernames;
+    }
+}
\ No newline at end of file
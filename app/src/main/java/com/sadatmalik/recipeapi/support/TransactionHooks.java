@@ -0,0 +1,35 @@
+package com.sadatmalik.recipeapi.support;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransactionHooks {
+
+    // set while this thread runs after-commit actions
+    private static final ThreadLocal<Boolean> COMMITTED = new ThreadLocal<>();
+
+    private TransactionHooks() {
+    }
+
+    // Runs the action once the surrounding transaction commits, or straight away when there isn't one.
+    // Used to keep in-memory structures from seeing writes that are later rolled back.
+    public static void afterCommit(Runnable action) {
+        // an action registered by another after-commit action runs now - Spring has already taken its list of
+        // synchronizations to call, and would drop a new one
+        if (TransactionSynchronizationManager.isSynchronizationActive() && COMMITTED.get() == null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    COMMITTED.set(Boolean.TRUE);
+                    try {
+                        action.run();
+                    } finally {
+                        COMMITTED.remove();
+                    }
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.sadatmalik.recipeapi;
+
+import com.sadatmalik.recipeapi.metrics.QueryMetrics;
+import com.sadatmalik.recipeapi.metrics.QueryMetricsProperties;
+import com.sadatmalik.recipeapi.model.Review;
+import com.sadatmalik.recipeapi.repositories.UserRepo;
+import com.sadatmalik.recipeapi.services.RecipeStreamingService;
+import com.sadatmalik.recipeapi.services.ReviewService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Guards against N+1 selects: a page of recipes (or reviews) must load in a fixed number of statements,
+// however many rows the page holds. Writes are held to the rows they change.
+@SpringBootTest
+@AutoConfigureMockMvc
+class RecipeQueryCountTests {
+
+	//recipes with their authors, then one batch each for ingredients, steps, reviews and the reviewers - plus slack
+	static final long MAX_STATEMENTS_PER_PAGE = 6;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	@Autowired
+	ReviewService reviewService;
+
+	@Autowired
+	UserRepo userRepo;
+
+	@Autowired
+	RecipeStreamingService recipeStreamingService;
+
+	@Autowired
+	QueryMetrics queryMetrics;
+
+	@Autowired
+	QueryMetricsProperties queryMetricsProperties;
+
+	Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+	}
+
+	@AfterEach
+	void noRequestBrokeItsQueryBudget() {
+		assertThat(queryMetrics.drainViolations(), empty());
+	}
+
+	@Test
+	void testGetAllRecipesUsesConstantQueries() throws Exception {
+		long singleRecipe = countStatements(get("/recipes").param("limit", "1"));
+		long fullPage = countStatements(get("/recipes").param("limit", "20"));
+
+		assertThat(fullPage, lessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE));
+		assertThat(fullPage, lessThanOrEqualTo(singleRecipe));
+	}
+
+	@Test
+	void testSearchRecipesUsesConstantQueries() throws Exception {
+		assertThat(countStatements(get("/recipes/search/recipe")), lessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE));
+		assertThat(countStatements(get("/recipes/search/user/maliksa")), lessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE));
+		assertThat(countStatements(get("/recipes/search/rating/0")), lessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE));
+	}
+
+	@Test
+	void testStreamingAllRecipesUsesConstantQueries() throws Exception {
+		statistics.clear();
+		long streamed = recipeStreamingService.writeAllRecipes(new ByteArrayOutputStream(), false);
+
+		assertThat(streamed, greaterThan(1L));
+		assertThat(statistics.getPrepareStatementCount(), lessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE));
+	}
+
+	@Test
+	void testGetReviewsByUsernameUsesConstantQueries() throws Exception {
+		assertThat(countStatements(get("/review/user/ben")), lessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE));
+	}
+
+	@Test
+	void testPostingReviewWritesOnlyTheReview() throws Exception {
+		Review review = Review.builder().rating(7).description("counted").user(userRepo.findByUsername("ben")).build();
+		statistics.clear();
+
+		Review posted = reviewService.postNewReview(review, 2L);
+
+		//one row inserted and the aggregates adjusted in place - the recipe, its collections and its other
+		//reviews are never loaded or merged
+		assertThat(statistics.getEntityInsertCount(), is(1L));
+		assertThat(statistics.getEntityLoadCount(), is(0L));
+		assertThat(statistics.getEntityUpdateCount(), is(0L));
+		assertThat(statistics.getCollectionUpdateCount(), is(0L));
+
+		//leave recipe 2 unreviewed for the other tests
+		reviewService.deleteReviewById(posted.getId());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testQueryMetricsRecordStatementsAndCacheReadsPerEndpoint() throws Exception {
+		countStatements(get("/recipes/1"));
+		mockMvc.perform(get("/recipes/1")).andExpect(status().isOk());
+
+		Map<String, Object> recipeById = queryMetrics.snapshot().get("GET /recipes/{id}");
+		Map<String, Object> statements = (Map<String, Object>) recipeById.get("statements");
+		Map<String, Object> cache = (Map<String, Object>) recipeById.get("cache");
+		assertThat((Long) statements.get("max"), greaterThan(0L));
+		assertThat((Long) cache.get("misses"), greaterThan(0L));
+		assertThat((Long) cache.get("hits"), greaterThan(0L));
+	}
+
+	@Test
+	void testRequestOverItsQueryBudgetIsRecorded() throws Exception {
+		queryMetricsProperties.getBudget().put("GET /review/user/{username}", 0);
+		try {
+			//the response has been sent by the time the statements are counted, so it goes through
+			countStatements(get("/review/user/ben"));
+
+			assertThat(queryMetrics.drainViolations(), contains(containsString("over its budget of 0")));
+		} finally {
+			queryMetricsProperties.getBudget().remove("GET /review/user/{username}");
+		}
+	}
+
+	@Test
+	@WithUserDetails("ADMIN")
+	void testMetricsRequestsAreNotMeasured() throws Exception {
+		mockMvc.perform(get("/metrics/queries")).andExpect(status().isOk());
+
+		assertThat(queryMetrics.snapshot(), not(hasKey("GET /metrics/queries")));
+	}
+
+	//runs the request against cold caches and returns the number of JDBC statements it prepared
+	private long countStatements(RequestBuilder request) throws Exception {
+		cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+		statistics.clear();
+
+		mockMvc.perform(request).andExpect(status().isOk());
+
+		return statistics.getPrepareStatementCount();
+	}
+}
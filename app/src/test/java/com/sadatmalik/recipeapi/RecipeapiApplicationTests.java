@@ -0,0 +1,727 @@
+package com.sadatmalik.recipeapi;
+
+import com.jayway.jsonpath.JsonPath;
+import com.sadatmalik.recipeapi.metrics.QueryMetrics;
+import com.sadatmalik.recipeapi.model.CustomUserDetails;
+import com.sadatmalik.recipeapi.model.Ingredient;
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.model.Review;
+import com.sadatmalik.recipeapi.model.Step;
+import com.sadatmalik.recipeapi.repositories.RecipeRepo;
+import com.sadatmalik.recipeapi.repositories.UserRepo;
+import com.sadatmalik.recipeapi.security.OwnershipIndex;
+import com.sadatmalik.recipeapi.services.RecipeImportService;
+import com.sadatmalik.recipeapi.services.RecipeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RecipeapiApplicationTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	RecipeRepo recipeRepo;
+
+	@Autowired
+	UserRepo userRepo;
+
+	@Autowired
+	OwnershipIndex ownershipIndex;
+
+	@Autowired
+	RecipeService recipeService;
+
+	@Autowired
+	RecipeImportService recipeImportService;
+
+	@Autowired
+	QueryMetrics queryMetrics;
+
+	@AfterEach
+	void noRequestBrokeItsQueryBudget() {
+		assertThat(queryMetrics.drainViolations(), empty());
+	}
+
+	@Test
+	@Order(1)
+	void contextLoads() {
+	}
+
+	@Test
+	@Order(2)
+	public void testGetRecipeByIdSuccessBehavior() throws Exception {
+		final long recipeId = 1;
+
+		//set up GET request
+		mockMvc.perform(get("/recipes/" + recipeId))
+
+				//print response
+				.andDo(print())
+				//expect status 200 OK
+				.andExpect(status().isOk())
+				//expect return Content-Type header as application/json
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+
+				//confirm returned JSON values
+				.andExpect(jsonPath("id").value(recipeId))
+				.andExpect(jsonPath("minutesToMake").value(2))
+				.andExpect(jsonPath("reviews", hasSize(1)))
+				.andExpect(jsonPath("ingredients", hasSize(1)))
+				.andExpect(jsonPath("steps", hasSize(2)));
+	}
+
+	@Test
+	@Order(3)
+	public void testGetRecipeByIdFailureBehavior() throws Exception {
+		final long recipeId = 5000;
+
+		//set up guaranteed to fail in testing environment request
+		mockMvc.perform(get("/recipes/" + recipeId))
+
+				//print response
+				.andDo(print())
+				//expect status 404 NOT FOUND
+				.andExpect(status().isNotFound())
+				//confirm that HTTP body contains correct error message
+				.andExpect(content().string(containsString("No recipe with ID " + recipeId + " could be found.")));
+	}
+
+	@Test
+	@Order(4)
+	public void testGetAllRecipesSuccessBehavior() throws Exception {
+		//set up get request for all recipe endpoint
+		this.mockMvc.perform(get("/recipes"))
+
+				//expect status is 200 OK
+				.andExpect(status().isOk())
+
+				//expect it will be returned as JSON
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+
+				//expect there are 4 entries
+				.andExpect(jsonPath("$", hasSize(4)))
+
+				//expect the first entry to have ID 1
+				.andExpect(jsonPath("$[0].id").value(1))
+
+				//expect the first entry to have name test recipe
+				.andExpect(jsonPath("$[0].name").value("test recipe"))
+
+				//expect the second entry to have id 2
+				.andExpect(jsonPath("$[1].id").value(2))
+
+				//expect the second entry to have a minutesToMake value of 2
+				.andExpect(jsonPath("$[1].minutesToMake").value(2))
+
+				//expect the third entry to have id 3
+				.andExpect(jsonPath("$[2].id").value(3))
+
+				//expect the third entry to have difficulty rating 5
+				.andExpect(jsonPath("$[2].difficultyRating").value(5));
+	}
+
+	@Test
+	@Order(4)
+	@WithUserDetails("maliksa")
+	public void testCreateNewRecipeSuccessBehavior() throws Exception {
+		Ingredient ingredient = Ingredient.builder().name("brown sugar").state("dry").amount("1 cup").build();
+		Step step1 = Step.builder().description("heat pan").stepNumber(1).build();
+		Step step2 = Step.builder().description("add sugar").stepNumber(2).build();
+
+		// Don't think this works due to review needing authentication for user ben ?
+//		CustomUserDetails ben = userRepo.findByUsername("ben");
+//		Review review = Review.builder().description("was just caramel").rating(3).user(ben).build();
+
+		CustomUserDetails maliksa = userRepo.findByUsername("maliksa");
+		Recipe recipe = Recipe.builder()
+				.name("caramel in a pan")
+				.difficultyRating(3)
+				.minutesToMake(2)
+				.ingredients(Set.of(ingredient))
+				.steps(Set.of(step1, step2))
+				//.reviews(Set.of(review))
+				.user(maliksa)
+				.build();
+
+		MockHttpServletResponse response =
+				this.mockMvc.perform(post("/recipes")
+								//set request Content-Type header
+								.contentType("application/json")
+								//set HTTP body equal to JSON based on recipe object
+								.content(TestUtil.convertObjectToJsonBytes(recipe))
+						)
+
+						//confirm HTTP response meta
+						.andExpect(status().isCreated())
+						.andExpect(content().contentType("application/json"))
+						//confirm Location header with new location of object matches the correct URL structure
+						.andExpect(header().string("Location", containsString("http://localhost/recipes/")))
+
+						//confirm some recipe data
+						.andExpect(jsonPath("id").isNotEmpty())
+						.andExpect(jsonPath("name").value("caramel in a pan"))
+
+						//confirm ingredient data
+						.andExpect(jsonPath("ingredients", hasSize(1)))
+						.andExpect(jsonPath("ingredients[0].name").value("brown sugar"))
+						.andExpect(jsonPath("ingredients[0].amount").value("1 cup"))
+
+						//confirm step data
+						.andExpect(jsonPath("steps", hasSize(2)))
+						.andExpect(jsonPath("steps[0]").isNotEmpty())
+						.andExpect(jsonPath("steps[1]").isNotEmpty())
+
+						//confirm review data
+						.andExpect(jsonPath("reviews").isEmpty())
+						.andReturn().getResponse();
+	}
+
+	@Test
+	@Order(5)
+	@WithUserDetails("maliksa")
+	public void testCreateNewRecipeFailureBehavior() throws Exception {
+
+		Recipe recipe = new Recipe();
+
+		CustomUserDetails maliksa = userRepo.findByUsername("maliksa");
+		recipe.setUser(maliksa);
+
+		//force failure with empty Recipe object
+		this.mockMvc.perform(
+						post("/recipes")
+								//set body equal to empty recipe object
+								.content(TestUtil.convertObjectToJsonBytes(recipe))
+								//set Content-Type header
+								.contentType("application/json")
+				)
+				//confirm status code 400 BAD REQUEST
+				.andExpect(status().isBadRequest())
+
+				//confirm the body only contains a String
+				.andExpect(jsonPath("$").isString());
+	}
+
+	@Test
+	@Order(6)
+	public void testGetRecipesByNameSuccessBehavior() throws Exception {
+
+		//set up get request to search for recipes with names including the word recipe
+		MvcResult mvcResult = this.mockMvc.perform(get("/recipes/search/recipe"))
+				//expect 200 OK
+				.andExpect(status().isOk())
+				//expect JSON in return
+				.andExpect(content().contentType("application/json"))
+				//return the MvcResult
+				.andReturn();
+
+		//pull json byte array from the result
+		byte[] jsonByteArray = mvcResult.getResponse().getContentAsByteArray();
+		//convert the json bytes to an array of Recipe objects
+		Recipe[] returnedRecipes = TestUtil.convertJsonBytesToObject(jsonByteArray, Recipe[].class);
+
+		//confirm 3 recipes were returned
+		assertThat(returnedRecipes.length, is(3));
+
+
+		for(Recipe r: returnedRecipes) {
+			//confirm none of the recipes are null
+			assertThat(r, notNullValue());
+			//confirm they all have IDs
+			assertThat(r.getId(), notNullValue());
+			//confirm they all contain recipe in the name
+			assertThat(r.getName(), containsString("recipe"));
+		}
+
+		//set up get request to search for recipes with names containing potato
+		byte[] jsonBytes = this.mockMvc.perform(get("/recipes/search/potato"))
+				//expect 200 OK
+				.andExpect(status().isOk())
+				//expect json
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+				//return response byte array
+				.andReturn().getResponse().getContentAsByteArray();
+
+		//get recipes as a java array
+		returnedRecipes = TestUtil.convertJsonBytesToObject(jsonBytes, Recipe[].class);
+
+		//confirm only one recipe was returned
+		assertThat(returnedRecipes.length, is(1));
+
+		//make sure the recipe isn't null
+		assertThat(returnedRecipes[0], notNullValue());
+
+		//expect that the name should contain potato
+		assertThat(returnedRecipes[0].getName(), containsString("potato"));
+	}
+
+	@Test
+	@Order(7)
+	public void testGetRecipeByNameFailureBehavior() throws Exception {
+
+		byte[] contentAsByteArray = this.mockMvc.perform(get("/recipes/search/should not exist"))
+				//expect 404 NOT FOUND
+				.andExpect(status().isNotFound())
+				//expect only a String in the body
+				.andExpect(content().contentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8"))
+				//retrieve content byte array
+				.andReturn().getResponse().getContentAsByteArray();
+
+		//convert JSON to String
+		String message = new String(contentAsByteArray);
+
+		//confirm error message is correct
+		assertThat(message, is("No recipes could be found with that name."));
+	}
+
+	@Test
+	@Order(8)
+	@WithUserDetails("maliksa")
+	public void testDeleteRecipeByIdSuccessBehavior() throws Exception {
+		Recipe recipeToDelete = recipeRepo.findByNameContaining("caramel in a pan").get(0);
+		final long recipeId = recipeToDelete.getId();
+
+		//get the recipe with ID recipeId for future error message confirmation
+		byte[] responseByteArr = this.mockMvc.perform(get("/recipes/" + recipeId))
+				.andExpect(status().isOk())
+				//confirm correct recipe was returned
+				.andExpect(jsonPath("id").value(recipeId))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		Recipe recipe3 = TestUtil.convertJsonBytesToObject(responseByteArr, Recipe.class);
+
+		//set up delete request
+		byte[] deleteResponseByteArr = this.mockMvc.perform(delete("/recipes/" + recipeId))
+				//confirm 200 OK was returned
+				.andExpect(status().isOk())
+				//confirm a String was returned
+				.andExpect(content().contentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8"))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		//pull delete message from byte[]
+		String returnedDeleteConfirmationMessage = new String(deleteResponseByteArr);
+
+		//confirm the message is as expected using the previously acquired Recipe object
+		assertThat(returnedDeleteConfirmationMessage, is("The recipe with ID "  + recipe3.getId() + " and name " + recipe3.getName() + " was deleted."));
+	}
+
+	@Test
+	@Order(9)
+	@WithUserDetails("maliksa")
+	public void testDeleteRecipeByIdFailureBehavior() throws Exception {
+		//force error with invalid ID
+		this.mockMvc.perform(delete("/recipes/5000"))
+				//expect 400 BAD REQUEST
+				.andExpect(status().isBadRequest())
+				//expect plain text aka a String
+				.andExpect(content().contentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8"))
+				//confirm correct error message
+				.andExpect(content().string(is("No recipe with ID 5000 could be found. Could not delete.")));
+	}
+
+	@Test
+	@Order(10)
+	public void testGetAllRecipesPagingBehavior() throws Exception {
+		//request the first page of two recipes
+		this.mockMvc.perform(get("/recipes").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].id").value(1))
+				.andExpect(jsonPath("$[1].id").value(2));
+
+		//use the last id of the first page as the cursor for the next one
+		this.mockMvc.perform(get("/recipes").param("after", "2").param("limit", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id").value(3));
+
+		//a page past the end is empty rather than not found
+		this.mockMvc.perform(get("/recipes").param("after", "5000"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(0)));
+	}
+
+	@Test
+	@Order(10)
+	public void testStreamAllRecipesBehavior() throws Exception {
+		//the streaming endpoint writes its body asynchronously
+		MvcResult mvcResult = this.mockMvc.perform(get("/recipes/stream").param("format", "array"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		this.mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$", hasSize(4)))
+				.andExpect(jsonPath("$[0].name").value("test recipe"));
+
+		this.mockMvc.perform(get("/recipes/stream").param("format", "csv"))
+				.andExpect(status().isBadRequest())
+				.andExpect(status().reason(containsString("Unknown format csv")));
+	}
+
+	@Test
+	@Order(10)
+	public void testStoredAverageMatchesInMemoryAverage() throws Exception {
+		//recipe 1 was seeded with a single review rated 2 - two more make an average that isn't a short decimal
+		recipeService.adjustRatingAggregates(1L, 2, 8);
+		try {
+			Recipe copy = Recipe.builder().reviewCount(1).ratingSum(2).build();
+			copy.applyRatingChange(2, 8);
+
+			//the stored row, and the cached recipe that the API serves, agree with the in-memory division
+			assertThat(recipeRepo.findAverageRatingById(1L), is(copy.getAverageRating()));
+			this.mockMvc.perform(get("/recipes/1"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("averageRating").value(copy.getAverageRating()));
+		} finally {
+			recipeService.adjustRatingAggregates(1L, -2, -8);
+		}
+	}
+
+	@Test
+	@Order(11)
+	@WithUserDetails("ben")
+	public void testPostNewReviewUpdatesRatingBehavior() throws Exception {
+		//recipe 1 was seeded with a single review rated 2
+		this.mockMvc.perform(get("/recipes/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("reviewCount").value(1))
+				.andExpect(jsonPath("averageRating").value(2.0));
+
+		Review review = Review.builder().description("much better the second time").rating(6).build();
+
+		this.mockMvc.perform(post("/review/1")
+						.contentType("application/json")
+						.content(TestUtil.convertObjectToJsonBytes(review)))
+				.andExpect(status().isCreated())
+				.andExpect(header().string("Location", endsWith("/recipes/1")))
+				//the reviewed recipe, as it was answered before
+				.andExpect(jsonPath("id").value(1))
+				.andExpect(jsonPath("reviews", hasSize(2)))
+				.andExpect(jsonPath("reviewCount").value(2))
+				.andExpect(jsonPath("averageRating").value(4.0));
+
+		//the stored aggregates were updated along with the review
+		this.mockMvc.perform(get("/recipes/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("reviews", hasSize(2)))
+				.andExpect(jsonPath("reviewCount").value(2))
+				.andExpect(jsonPath("averageRating").value(4.0));
+	}
+
+	@Test
+	@Order(11)
+	@WithUserDetails("maliksa")
+	public void testUpdateRecipeIgnoresReviewsBehavior() throws Exception {
+		Recipe recipe = recipeRepo.findByNameContaining("another another test recipe").get(0);
+		byte[] responseByteArr = this.mockMvc.perform(get("/recipes/" + recipe.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("reviewCount").value(0))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		//reviews only change through the review endpoints, so one slipped into an update isn't stored
+		Recipe updatedRecipe = TestUtil.convertJsonBytesToObject(responseByteArr, Recipe.class);
+		updatedRecipe.setMinutesToMake(3);
+		updatedRecipe.setReviews(Set.of(Review.builder().description("my own recipe is great").rating(10).build()));
+
+		this.mockMvc.perform(patch("/recipes")
+						.contentType("application/json")
+						.content(TestUtil.convertObjectToJsonBytes(updatedRecipe)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("minutesToMake").value(3))
+				.andExpect(jsonPath("reviews", hasSize(0)))
+				.andExpect(jsonPath("reviewCount").value(0));
+
+		//the stored aggregates still match the stored reviews
+		this.mockMvc.perform(get("/recipes/" + recipe.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("minutesToMake").value(3))
+				.andExpect(jsonPath("reviews", hasSize(0)))
+				.andExpect(jsonPath("reviewCount").value(0))
+				.andExpect(jsonPath("averageRating").value(0.0));
+		assertThat(recipeRepo.findAverageRatingById(recipe.getId()), is(0.0));
+	}
+
+	@Test
+	@Order(12)
+	public void testGetRecipesByMinRatingBehavior() throws Exception {
+		//recipe 1 now averages 4 and recipe 4 averages 10
+		this.mockMvc.perform(get("/recipes/search/rating/5"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id").value(4));
+
+		//highest rated first
+		this.mockMvc.perform(get("/recipes/search/rating/1").param("sort", "rating"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].id").value(4))
+				.andExpect(jsonPath("$[1].id").value(1));
+
+		//continue after the first recipe using its rating and id as the cursor
+		this.mockMvc.perform(get("/recipes/search/rating/1").param("sort", "rating")
+						.param("afterRating", "10").param("after", "4"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id").value(1));
+
+		this.mockMvc.perform(get("/recipes/search/rating/11"))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	@Order(10)
+	public void testGetRecipeSummariesBehavior() throws Exception {
+		this.mockMvc.perform(get("/recipes").param("view", "summary"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(4)))
+				.andExpect(jsonPath("$[0].id").value(1))
+				.andExpect(jsonPath("$[0].name").value("test recipe"))
+				.andExpect(jsonPath("$[0].author").value("maliksa"))
+				.andExpect(jsonPath("$[0].reviewCount").value(1))
+				//summaries leave out the recipe's collections
+				.andExpect(jsonPath("$[0].ingredients").doesNotExist())
+				.andExpect(jsonPath("$[0].reviews").doesNotExist());
+
+		this.mockMvc.perform(get("/recipes/search/potato").param("view", "summary"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].name").value("chocolate and potato chips"));
+	}
+
+	@Test
+	@Order(10)
+	public void testBasicAuthBehavior() throws Exception {
+		this.mockMvc.perform(post("/user")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\": \"basicauth\", \"password\": \"password\", " +
+								"\"userMeta\": {\"name\": \"Basic Auth\", \"email\": \"basic@auth.com\"}}"))
+				.andExpect(status().isOk());
+
+		//authenticated, but not an admin - the second request is answered from the credential cache
+		for (int i = 0; i < 2; i++) {
+			this.mockMvc.perform(get("/metrics/cache").with(httpBasic("basicauth", "password")))
+					.andExpect(status().isForbidden());
+		}
+		this.mockMvc.perform(get("/metrics/cache").with(httpBasic("basicauth", "wrong password")))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	//posts a review, so runs after the rating tests
+	@Order(13)
+	public void testTokenAuthBehavior() throws Exception {
+		this.mockMvc.perform(post("/user")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\": \"tokenauth\", \"password\": \"password\", " +
+								"\"userMeta\": {\"name\": \"Token Auth\", \"email\": \"token@auth.com\"}}"))
+				.andExpect(status().isOk());
+
+		MvcResult result = this.mockMvc.perform(post("/auth/token").with(httpBasic("tokenauth", "password")))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("tokenType").value("Bearer"))
+				.andReturn();
+		String token = JsonPath.read(result.getResponse().getContentAsString(), "$.token");
+
+		//authenticated as a user, not an admin
+		this.mockMvc.perform(get("/metrics/cache").header("Authorization", "Bearer " + token))
+				.andExpect(status().isForbidden());
+		this.mockMvc.perform(get("/metrics/cache").header("Authorization", "Bearer " + token + "x"))
+				.andExpect(status().isUnauthorized());
+		//writes see the principal rebuilt from the token
+		this.mockMvc.perform(post("/review/2").header("Authorization", "Bearer " + token)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"rating\": 6, \"description\": \"reviewed with a token\"}"))
+				.andExpect(status().isCreated());
+		//a token can't be exchanged for a new one
+		this.mockMvc.perform(post("/auth/token").header("Authorization", "Bearer " + token))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	//adds recipes, so runs after the list and search tests
+	@Order(14)
+	@WithUserDetails("maliksa")
+	public void testBulkImportBehavior() throws Exception {
+		//remembered as a search with no results
+		this.mockMvc.perform(get("/recipes/search/bulk imported"))
+				.andExpect(status().isNotFound());
+
+		String steps = "\"steps\": [{\"stepNumber\": 1, \"description\": \"mix\"}]";
+		String ingredients = "\"ingredients\": [{\"name\": \"flour\", \"amount\": \"1 cup\"}]";
+		String ndjson =
+				"{\"name\": \"bulk imported bread\", \"minutesToMake\": 60, \"difficultyRating\": 4, " + steps + ", " + ingredients + "}\n" +
+				//no steps
+				"{\"name\": \"bulk imported flour\", \"minutesToMake\": 1, \"difficultyRating\": 1, " + ingredients + "}\n" +
+				//difficulty out of range
+				"{\"name\": \"bulk imported cake\", \"minutesToMake\": 30, \"difficultyRating\": 11, " + steps + ", " + ingredients + "}\n" +
+				"{\"name\": \"bulk imported pancakes\", \"minutesToMake\": 15, \"difficultyRating\": 2, " + steps + ", " + ingredients + "}\n";
+
+		this.mockMvc.perform(post("/recipes/bulk").contentType("application/x-ndjson").content(ndjson))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("imported").value(2))
+				.andExpect(jsonPath("rejected[*].index", contains(1, 2)))
+				.andExpect(jsonPath("rejected[1].message").value("Difficulty rating must be between 0 and 10."))
+				.andExpect(jsonPath("error").isEmpty());
+
+		this.mockMvc.perform(get("/recipes/search/bulk imported"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[*].name", containsInAnyOrder("bulk imported bread", "bulk imported pancakes")));
+
+		//a JSON array works the same way, up to a recipe that can't be read at all
+		this.mockMvc.perform(post("/recipes/bulk").contentType(MediaType.APPLICATION_JSON)
+						.content("[{\"name\": \"bulk imported toast\", \"minutesToMake\": 5, \"difficultyRating\": 1, " +
+								steps + ", " + ingredients + "}, {\"name\": ]"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("imported").value(1))
+				.andExpect(jsonPath("error", startsWith("Recipe 1 could not be read")));
+
+		//a chunk the database turns down is reported recipe by recipe, and the chunks around it are kept
+		Object chunkSize = ReflectionTestUtils.getField(recipeImportService, "chunkSize");
+		ReflectionTestUtils.setField(recipeImportService, "chunkSize", 1);
+		try {
+			this.mockMvc.perform(post("/recipes/bulk").contentType("application/x-ndjson")
+							.content("{\"name\": \"" + "bulk imported loaf".repeat(20) + "\", \"minutesToMake\": 5, " +
+									"\"difficultyRating\": 1, " + steps + ", " + ingredients + "}\n" +
+									"{\"name\": \"bulk imported muffins\", \"minutesToMake\": 20, " +
+									"\"difficultyRating\": 2, " + steps + ", " + ingredients + "}\n"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("imported").value(1))
+					.andExpect(jsonPath("rejected[*].index", contains(0)))
+					.andExpect(jsonPath("rejected[0].message", startsWith("Could not be stored")));
+		} finally {
+			ReflectionTestUtils.setField(recipeImportService, "chunkSize", chunkSize);
+		}
+	}
+
+	@Test
+	@Order(10)
+	public void testReadinessWaitsForCacheWarmUp() throws Exception {
+		this.mockMvc.perform(get("/status/readiness"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("readiness").value("ACCEPTING_TRAFFIC"))
+				.andExpect(jsonPath("cacheWarmUp.state").value("COMPLETE"))
+				.andExpect(jsonPath("cacheWarmUp.pagesLoaded").value(2));
+	}
+
+	@Test
+	@Order(10)
+	@WithUserDetails("ADMIN")
+	public void testCacheMetricsBehavior() throws Exception {
+		this.mockMvc.perform(get("/recipes/1"));
+		this.mockMvc.perform(get("/recipes/1"));
+
+		this.mockMvc.perform(get("/metrics/cache"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("recipeCache.near.hits", greaterThanOrEqualTo(1)))
+				.andExpect(jsonPath("recipeCache.ehcache.puts").isNumber())
+				.andExpect(jsonPath("recipeCache.loadTimes.count", greaterThanOrEqualTo(1)));
+
+		this.mockMvc.perform(get("/metrics/cache/noSuchCache"))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	@Order(10)
+	@WithUserDetails("ADMIN")
+	public void testEndpointMetricsBehavior() throws Exception {
+		this.mockMvc.perform(get("/recipes/1"))
+				.andExpect(status().isOk());
+		this.mockMvc.perform(get("/recipes/999999"))
+				.andExpect(status().isNotFound());
+
+		this.mockMvc.perform(get("/metrics/endpoints"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("['GET /recipes/{id}'].count", greaterThanOrEqualTo(2)))
+				.andExpect(jsonPath("['GET /recipes/{id}'].clientErrors", greaterThanOrEqualTo(1)))
+				.andExpect(jsonPath("['GET /recipes/{id}'].latency.p95Ms").isNumber())
+				.andExpect(jsonPath("['GET /recipes/{id}'].phases.serialization.maxMs", greaterThan(0.0)));
+
+		//the missing recipe's NoSuchRecipeException counts against the service method
+		this.mockMvc.perform(get("/metrics/services"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("['RecipeService.getRecipeById'].count", greaterThanOrEqualTo(2)))
+				.andExpect(jsonPath("['RecipeService.getRecipeById'].errors", greaterThanOrEqualTo(1)));
+
+		this.mockMvc.perform(get("/metrics/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("text/plain"))
+				.andExpect(content().string(containsString("# TYPE recipeapi_http_request_duration_seconds summary")))
+				.andExpect(content().string(containsString(
+						"recipeapi_http_request_duration_seconds{method=\"GET\",uri=\"/recipes/{id}\",quantile=\"0.95\"}")))
+				.andExpect(content().string(containsString(
+						"recipeapi_service_calls_total{service=\"RecipeService\",method=\"getRecipeById\"}")));
+	}
+
+	@Test
+	@Order(10)
+	@WithUserDetails("ben")
+	public void testCacheMetricsAreForAdminsOnly() throws Exception {
+		this.mockMvc.perform(get("/metrics/cache"))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	@Order(10)
+	@WithUserDetails("ben")
+	public void testOnlyOwnersMayDeleteBehavior() throws Exception {
+		Recipe gherkinsRecipe = recipeRepo.findByNameContaining("another test recipe").get(0);
+		Long gherkinsId = userRepo.findByUsername("gherkin").getId();
+
+		//the ownership index answers from the foreign key, and remembers the answer
+		assertThat(ownershipIndex.recipeOwner(gherkinsRecipe.getId()), is(gherkinsId));
+
+		this.mockMvc.perform(delete("/recipes/" + gherkinsRecipe.getId()))
+				.andExpect(status().isForbidden());
+		this.mockMvc.perform(get("/recipes/" + gherkinsRecipe.getId()))
+				.andExpect(status().isOk());
+	}
+
+//	@Test
+//	//make sure this test runs last
+//	@Order(11)
+//	public void testGetAllRecipesFailureBehavior() throws Exception {
+//
+//		//delete all entries to force error
+//		recipeRepo.deleteAll();
+//
+//		//perform GET all recipes
+//		this.mockMvc.perform(get("/recipes"))
+//
+//				.andDo(print())
+//
+//				//expect 404 NOT FOUND
+//				.andExpect(status().isNotFound())
+//
+//				//expect error message defined in RecipeService class
+//				.andExpect(jsonPath("$").value("There are no recipes yet :( feel free to add one though"));
+//	}
+}
@@ -0,0 +1,140 @@
+package com.sadatmalik.recipeapi.cache;
+
+import com.sadatmalik.recipeapi.model.CustomUserDetails;
+import com.sadatmalik.recipeapi.model.Recipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static com.sadatmalik.recipeapi.cache.ListCacheDependencies.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ListCacheDependenciesTest {
+
+	ListCacheDependencies dependencies;
+
+	Cache recipeLists;
+
+	Cache reviewLists;
+
+	@BeforeEach
+	void setUp() {
+		dependencies = new ListCacheDependencies();
+		dependencies.cacheManager = new ConcurrentMapCacheManager(RECIPE_LIST_CACHE, RECIPE_SUMMARY_CACHE,
+				REVIEW_LIST_CACHE);
+		recipeLists = dependencies.cacheManager.getCache(RECIPE_LIST_CACHE);
+		reviewLists = dependencies.cacheManager.getCache(REVIEW_LIST_CACHE);
+
+		//a full first page of two recipes, and the partial page after it
+		record(ListCacheKeys.recipes(0, 2), List.of(1L, 2L), 2, 0, anyRecipe());
+		record(ListCacheKeys.recipes(2, 2), List.of(3L), 2, 2, anyRecipe());
+		record(ListCacheKeys.recipesByUser("idfk", 0, 2), List.of(2L), 2, 0, authoredBy("idfk"));
+		record(ListCacheKeys.recipesByName("cake", 0, 2), List.of(3L), 2, 0, nameContains("cake"));
+	}
+
+	@Test
+	void testUpdateEvictsOnlyPagesHoldingTheRecipe() {
+		dependencies.recipeChanged(1L, recipe(1L, "soup", "bob"));
+
+		assertThat(recipeLists.get(ListCacheKeys.recipes(0, 2)), nullValue());
+		assertThat(recipeLists.get(ListCacheKeys.recipes(2, 2)), notNullValue());
+		assertThat(recipeLists.get(ListCacheKeys.recipesByUser("idfk", 0, 2)), notNullValue());
+		assertThat(recipeLists.get(ListCacheKeys.recipesByName("cake", 0, 2)), notNullValue());
+	}
+
+	@Test
+	void testNewRecipeEvictsPagesItBelongsOn() {
+		//id 4 sorts after the full first page, so only the open-ended pages it matches are affected
+		dependencies.recipeChanged(4L, recipe(4L, "Carrot Cake", "bob"));
+
+		assertThat(recipeLists.get(ListCacheKeys.recipes(0, 2)), notNullValue());
+		assertThat(recipeLists.get(ListCacheKeys.recipes(2, 2)), nullValue());
+		assertThat(recipeLists.get(ListCacheKeys.recipesByUser("idfk", 0, 2)), notNullValue());
+		assertThat(recipeLists.get(ListCacheKeys.recipesByName("cake", 0, 2)), nullValue());
+	}
+
+	@Test
+	void testDeleteEvictsPagesHoldingTheRecipe() {
+		dependencies.recipeChanged(2L, null);
+
+		assertThat(recipeLists.get(ListCacheKeys.recipes(0, 2)), nullValue());
+		assertThat(recipeLists.get(ListCacheKeys.recipesByUser("idfk", 0, 2)), nullValue());
+		assertThat(recipeLists.get(ListCacheKeys.recipes(2, 2)), notNullValue());
+		//dependencies outlive the eviction, in case a stale load puts the page back
+		assertThat(dependencies.size(RECIPE_LIST_CACHE), is(4));
+	}
+
+	@Test
+	void testReloadedPageIsIndexedByItsNewRecipes() {
+		record(ListCacheKeys.recipes(0, 2), List.of(5L, 6L), 2, 0, anyRecipe());
+
+		dependencies.recipeChanged(1L, null);
+		assertThat(recipeLists.get(ListCacheKeys.recipes(0, 2)), notNullValue());
+
+		dependencies.recipeChanged(6L, null);
+		assertThat(recipeLists.get(ListCacheKeys.recipes(0, 2)), nullValue());
+	}
+
+	@Test
+	void testPagesBeyondTheBoundAreEvictedFromTheCache() {
+		dependencies = new ListCacheDependencies();
+		dependencies.cacheManager = new ConcurrentMapCacheManager(RECIPE_LIST_CACHE);
+		dependencies.maxPages = 2;
+		recipeLists = dependencies.cacheManager.getCache(RECIPE_LIST_CACHE);
+
+		List<String> keys = List.of(ListCacheKeys.recipesByName("a", 0, 2), ListCacheKeys.recipesByName("b", 0, 2),
+				ListCacheKeys.recipesByName("c", 0, 2));
+		for (String key : keys) {
+			record(key, List.of(1L), 2, 0, anyRecipe());
+		}
+
+		//a page no longer tracked can't stay cached, since a write wouldn't evict it
+		assertThat(dependencies.size(RECIPE_LIST_CACHE), is(2));
+		assertThat(keys.stream().filter(key -> recipeLists.get(key) != null).count(), is(2L));
+	}
+
+	@Test
+	void testRatingChangeEvictsRatingPages() {
+		record(ListCacheKeys.recipesByMinRating(4, 0, 2), List.of(1L), 2, 0, ratedAtLeast(4));
+		dependencies.recordUnorderedPage(RECIPE_LIST_CACHE,
+				ListCacheKeys.recipesByMinRatingSortedByRating(3, null, null, 2), List.of(1L), ratedAtLeast(3));
+		recipeLists.put(ListCacheKeys.recipesByMinRatingSortedByRating(3, null, null, 2), List.of());
+
+		//recipe 3 now rates 4.5, so it belongs on both rating pages - but still not on the full first page
+		dependencies.recipeChanged(3L, Recipe.builder().id(3L).averageRating(4.5).build());
+
+		assertThat(recipeLists.get(ListCacheKeys.recipesByMinRating(4, 0, 2)), nullValue());
+		assertThat(recipeLists.get(ListCacheKeys.recipesByMinRatingSortedByRating(3, null, null, 2)), nullValue());
+		assertThat(recipeLists.get(ListCacheKeys.recipes(0, 2)), notNullValue());
+	}
+
+	@Test
+	void testReviewsChangedEvictsRecipeAndReviewerLists() {
+		reviewLists.put(ListCacheKeys.reviewsByRecipe(1L), List.of());
+		reviewLists.put(ListCacheKeys.reviewsByRecipe(2L), List.of());
+		reviewLists.put(ListCacheKeys.reviewsByUser("ben"), List.of());
+		reviewLists.put(ListCacheKeys.reviewsByUser("idfk"), List.of());
+
+		dependencies.reviewsChanged(1L, Set.of("ben"));
+
+		assertThat(reviewLists.get(ListCacheKeys.reviewsByRecipe(1L)), nullValue());
+		assertThat(reviewLists.get(ListCacheKeys.reviewsByUser("ben")), nullValue());
+		assertThat(reviewLists.get(ListCacheKeys.reviewsByRecipe(2L)), notNullValue());
+		assertThat(reviewLists.get(ListCacheKeys.reviewsByUser("idfk")), notNullValue());
+	}
+
+	private void record(String key, List<Long> ids, int pageSize, long after, Predicate<Recipe> query) {
+		dependencies.recordPage(RECIPE_LIST_CACHE, key, ids, pageSize, after, query);
+		recipeLists.put(key, ids);
+	}
+
+	private static Recipe recipe(Long id, String name, String username) {
+		return Recipe.builder().id(id).name(name).user(CustomUserDetails.builder().username(username).build()).build();
+	}
+}
@@ -0,0 +1,101 @@
+package com.sadatmalik.recipeapi.cache;
+
+import com.sadatmalik.recipeapi.exceptions.NoSuchRecipeException;
+import com.sadatmalik.recipeapi.model.CustomUserDetails;
+import com.sadatmalik.recipeapi.model.Recipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NegativeCacheTest {
+
+	NegativeCache negativeCache;
+
+	@BeforeEach
+	void setUp() {
+		negativeCache = new NegativeCache(Duration.ofMinutes(1), 100);
+	}
+
+	@Test
+	void testAbsentLookupsThrowWithoutQuerying() throws NoSuchRecipeException {
+		String key = NegativeCache.recipe(5L);
+		negativeCache.throwIfAbsent(key, NoSuchRecipeException::new);
+
+		NoSuchRecipeException notFound = new NoSuchRecipeException("No recipe with ID 5 could be found.");
+		assertThat(negativeCache.absent(key, notFound), sameInstance(notFound));
+		assertThrows(NoSuchRecipeException.class, () -> negativeCache.throwIfAbsent(key, NoSuchRecipeException::new));
+	}
+
+	@Test
+	void testRecipeWrittenClearsTheMarkersItAnswers() {
+		negativeCache.markAbsent(NegativeCache.ALL_RECIPES);
+		negativeCache.markAbsent(NegativeCache.recipe(5L));
+		negativeCache.markAbsent(NegativeCache.recipesByName("cake"));
+		negativeCache.markAbsent(NegativeCache.recipesByName("soup"));
+		negativeCache.markAbsent(NegativeCache.recipesByUser("idfk"));
+		negativeCache.markAbsent(NegativeCache.recipesByUser("bob"));
+		negativeCache.markAbsent(NegativeCache.recipesByMinRating(4.0));
+
+		//no transaction here, so the markers are removed straight away
+		negativeCache.recipeWritten(Recipe.builder().id(5L).name("Carrot CAKE")
+				.user(CustomUserDetails.builder().username("idfk").build()).build());
+
+		assertThat(negativeCache.isAbsent(NegativeCache.ALL_RECIPES), is(false));
+		assertThat(negativeCache.isAbsent(NegativeCache.recipe(5L)), is(false));
+		assertThat(negativeCache.isAbsent(NegativeCache.recipesByName("cake")), is(false));
+		assertThat(negativeCache.isAbsent(NegativeCache.recipesByUser("idfk")), is(false));
+		assertThat(negativeCache.isAbsent(NegativeCache.recipesByName("soup")), is(true));
+		assertThat(negativeCache.isAbsent(NegativeCache.recipesByUser("bob")), is(true));
+		assertThat(negativeCache.isAbsent(NegativeCache.recipesByMinRating(4.0)), is(true));
+	}
+
+	@Test
+	void testRatingAndReviewChanges() {
+		negativeCache.markAbsent(NegativeCache.recipesByMinRating(4.0));
+		negativeCache.markAbsent(NegativeCache.recipesByMinRating(4.5));
+		negativeCache.markAbsent(NegativeCache.review(7L));
+		negativeCache.markAbsent(NegativeCache.reviewsByRecipe(1L));
+		negativeCache.markAbsent(NegativeCache.reviewsByUser("ben"));
+
+		negativeCache.ratingChanged(4.2);
+		negativeCache.reviewWritten(1L, "ben", List.of(7L));
+
+		assertThat(negativeCache.isAbsent(NegativeCache.recipesByMinRating(4.0)), is(false));
+		assertThat(negativeCache.isAbsent(NegativeCache.recipesByMinRating(4.5)), is(true));
+		assertThat(negativeCache.isAbsent(NegativeCache.review(7L)), is(false));
+		assertThat(negativeCache.isAbsent(NegativeCache.reviewsByRecipe(1L)), is(false));
+		assertThat(negativeCache.isAbsent(NegativeCache.reviewsByUser("ben")), is(false));
+	}
+
+	@Test
+	void testRemoteEvictionsNameOneMarker() {
+		assertThat(NegativeCache.marker("recipeCache", 5L), is(NegativeCache.recipe(5L)));
+		assertThat(NegativeCache.marker("reviewCache", 7L), is(NegativeCache.review(7L)));
+		assertThat(NegativeCache.marker("reviewListCache", ListCacheKeys.reviewsByUser("idfk")),
+				is(NegativeCache.reviewsByUser("idfk")));
+		assertThat(NegativeCache.marker("recipeListCache", ListCacheKeys.recipes(0, 20)), is(NegativeCache.ALL_RECIPES));
+		assertThat(NegativeCache.marker("recipeSummaryCache", ListCacheKeys.recipesByName("a:b", 0, 20)),
+				is(NegativeCache.recipesByName("a:b")));
+		assertThat(NegativeCache.marker("recipeListCache", ListCacheKeys.recipesByUser("idfk", 3, 20)),
+				is(NegativeCache.recipesByUser("idfk")));
+		assertThat(NegativeCache.marker("recipeListCache",
+				ListCacheKeys.recipesByMinRatingSortedByRating(4.0, 4.5, 2L, 20)), is(NegativeCache.recipesByMinRating(4)));
+		assertThat(NegativeCache.marker("userCache", "idfk"), nullValue());
+	}
+
+	@Test
+	void testSizeIsBounded() {
+		for (long id = 0; id < 1000; id++) {
+			negativeCache.markAbsent(NegativeCache.recipe(id));
+		}
+		assertThat(negativeCache.size() <= 100, is(true));
+	}
+}
@@ -0,0 +1,203 @@
+package com.sadatmalik.recipeapi.cache;
+
+import com.sadatmalik.recipeapi.exceptions.NoSuchRecipeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TieredCacheTest {
+
+	ConcurrentMapCache far;
+
+	TieredCache cache;
+
+	@BeforeEach
+	void setUp() {
+		far = new ConcurrentMapCache("recipeCache");
+		cache = new TieredCache(far, 10, Duration.ofMinutes(1));
+	}
+
+	@Test
+	void testFarHitIsPromotedToNearCache() {
+		far.put(1L, "test recipe");
+
+		assertThat(cache.get(1L).get(), is("test recipe"));
+		assertThat(cache.get(1L).get(), is("test recipe"));
+
+		assertThat(cache.getFarHits(), is(1L));
+		assertThat(cache.getNearMisses(), is(1L));
+		assertThat(cache.getNearHits(), is(1L));
+	}
+
+	@Test
+	void testLoaderRunsOnceAndSharesTheInstance() {
+		Object loaded = cache.get(1L, Object::new);
+
+		assertThat(cache.get(1L, Object::new), sameInstance(loaded));
+		assertThat(far.get(1L).get(), sameInstance(loaded));
+		assertThat(cache.getFarMisses(), is(1L));
+		assertThat(cache.getNearHits(), is(1L));
+	}
+
+	@Test
+	void testEvictAndClearReachBothTiers() {
+		cache.put(1L, "test recipe");
+		cache.put(2L, "another test recipe");
+
+		cache.evict(1L);
+		assertThat(cache.get(1L), nullValue());
+		assertThat(far.get(1L), nullValue());
+
+		cache.clear();
+		assertThat(cache.get(2L), nullValue());
+		assertThat(cache.getNearSize(), is(0L));
+	}
+
+	@Test
+	void testLoaderRunsWithoutHoldingTheFarCache() throws Exception {
+		//ConcurrentMapCache, like Ehcache, would run a loader under a lock that evicting the key waits for
+		ExecutorService evictor = Executors.newSingleThreadExecutor();
+		try {
+			Object loaded = cache.get(1L, () -> evictor.submit(() -> cache.evict(1L)).get(5, TimeUnit.SECONDS) == null
+					? "test recipe" : null);
+
+			assertThat(loaded, is("test recipe"));
+			//the eviction raced the load, so the loaded value isn't kept
+			assertThat(far.get(1L), nullValue());
+		} finally {
+			evictor.shutdownNow();
+		}
+	}
+
+	@Test
+	void testWriteToAnotherKeyDoesNotDiscardALoad() {
+		cache.put(1L, "test recipe");
+
+		//another key written while this one loads, as a review post evicts pages and other recipes
+		Object loaded = cache.get(2L, () -> {
+			cache.evict(1L);
+			cache.put(3L, "another test recipe");
+			return "loaded recipe";
+		});
+
+		assertThat(loaded, is("loaded recipe"));
+		assertThat(far.get(2L).get(), is("loaded recipe"));
+		assertThat(cache.get(2L).get(), is("loaded recipe"));
+		assertThat(cache.getNearHits(), is(1L));
+		assertThat(cache.getFarHits(), is(0L));
+	}
+
+	@Test
+	void testConcurrentMissesShareOneLoad() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+		ExecutorService loader = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> first = loader.submit(() -> cache.get(1L, () -> {
+				loads.incrementAndGet();
+				loading.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				return "test recipe";
+			}));
+			loading.await(5, TimeUnit.SECONDS);
+
+			Thread waiter = new Thread(() -> cache.get(1L, () -> "another test recipe"));
+			waiter.start();
+			//the waiter is counted as it starts waiting
+			for (int i = 0; i < 500 && cache.getLoadWaits() == 0; i++) {
+				Thread.sleep(10);
+			}
+			release.countDown();
+			waiter.join(5000);
+
+			assertThat(first.get(5, TimeUnit.SECONDS), is("test recipe"));
+			assertThat(cache.get(1L).get(), is("test recipe"));
+			assertThat(loads.get(), is(1));
+			assertThat(cache.getFarMisses(), is(1L));
+			assertThat(cache.getLoadWaits(), is(1L));
+			assertThat(cache.getFarHits(), is(0L));
+		} finally {
+			loader.shutdownNow();
+		}
+	}
+
+	@Test
+	void testLoaderAskingForItsOwnKeyFails() {
+		Cache.ValueRetrievalException e = assertThrows(Cache.ValueRetrievalException.class,
+				() -> cache.get(1L, () -> cache.get(1L, () -> "test recipe")));
+
+		assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+		assertThat(cache.get(1L), nullValue());
+	}
+
+	@Test
+	void testNullValuesAreCached() {
+		assertThat(cache.get(1L, () -> null), nullValue());
+		assertThat(cache.get(1L), notNullValue());
+		assertThat(cache.get(1L).get(), nullValue());
+	}
+
+	@Test
+	void testStaleValueIsServedWhileOneRefreshRuns() {
+		List<Runnable> refreshes = new ArrayList<>();
+		TieredCache refreshing = new TieredCache(far, 10, Duration.ofMinutes(1), Duration.ofNanos(1), refreshes::add);
+
+		assertThat(refreshing.get(1L, () -> "test recipe"), is("test recipe"));
+
+		//past the soft ttl the old value is returned, and only one reload is queued however many readers there are
+		assertThat(refreshing.get(1L, () -> "updated recipe"), is("test recipe"));
+		assertThat(refreshing.get(1L, () -> "updated recipe"), is("test recipe"));
+		assertThat(refreshes.size(), is(1));
+
+		refreshes.get(0).run();
+		assertThat(refreshing.get(1L, () -> "newer recipe"), is("updated recipe"));
+		assertThat(far.get(1L).get(), is("updated recipe"));
+		assertThat(refreshing.getRefreshes(), is(1L));
+	}
+
+	@Test
+	void testEvictionWinsOverARunningRefresh() {
+		List<Runnable> refreshes = new ArrayList<>();
+		TieredCache refreshing = new TieredCache(far, 10, Duration.ofMinutes(1), Duration.ofNanos(1), refreshes::add);
+
+		refreshing.get(1L, () -> "test recipe");
+		refreshing.get(1L, () -> "updated recipe");
+		refreshing.evict(1L);
+		refreshes.get(0).run();
+
+		assertThat(far.get(1L), nullValue());
+		assertThat(refreshing.getRefreshes(), is(0L));
+	}
+
+	@Test
+	void testRefreshOfADeletedKeyEvictsIt() {
+		List<Runnable> refreshes = new ArrayList<>();
+		TieredCache refreshing = new TieredCache(far, 10, Duration.ofMinutes(1), Duration.ofNanos(1), refreshes::add);
+
+		refreshing.get(1L, () -> "test recipe");
+		//as @Cacheable hands it over, wrapped
+		refreshing.get(1L, () -> {
+			throw new RuntimeException(new NoSuchRecipeException());
+		});
+		refreshes.get(0).run();
+
+		assertThat(refreshing.get(1L), nullValue());
+		assertThat(far.get(1L), nullValue());
+	}
+}
@@ -0,0 +1,150 @@
+package com.sadatmalik.recipeapi.cache.ehcache;
+
+import com.sadatmalik.recipeapi.model.*;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
+import org.ehcache.spi.serialization.SerializerException;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class CompactSerializerTest {
+
+	ClassLoader classLoader = getClass().getClassLoader();
+
+	@Test
+	void testRecipeRoundTripKeepsWhatTheApiReturns() throws ClassNotFoundException {
+		RecipeSerializer serializer = new RecipeSerializer(classLoader);
+		Recipe read = serializer.read(serializer.serialize(recipe(1L)));
+
+		assertThat(read.getId(), is(1L));
+		assertThat(read.getName(), is("crème brûlée"));
+		assertThat(read.getAuthor(), is("idfk"));
+		assertThat(read.getMinutesToMake(), is(45));
+		assertThat(read.getDifficultyRating(), is(7));
+		assertThat(read.getAverageRating(), is(8.5));
+		assertThat(read.getReviewCount(), is(2));
+		assertThat(read.getRatingSum(), is(17L));
+		assertThat(read.getIngredients(), hasSize(1));
+		assertThat(read.getIngredients().iterator().next().getState(), nullValue());
+		assertThat(read.getSteps().iterator().next().getDescription(), is("bake"));
+		assertThat(read.getReviews(), hasSize(2));
+		assertThat(read.getReviews().iterator().next().getAuthor(), is("ben"));
+
+		//only the username of the author is kept
+		assertThat(read.getUser().getPassword(), nullValue());
+		assertThat(read.getUser().getAuthorities(), empty());
+		assertThat(read.getUser().getUserMeta(), nullValue());
+	}
+
+	@Test
+	void testNullsRoundTrip() throws ClassNotFoundException {
+		RecipeSerializer serializer = new RecipeSerializer(classLoader);
+		Recipe read = serializer.read(serializer.serialize(new Recipe()));
+
+		assertThat(read.getId(), nullValue());
+		assertThat(read.getName(), nullValue());
+		assertThat(read.getUser(), nullValue());
+		assertThat(read.getMinutesToMake(), nullValue());
+		assertThat(read.getReviews(), nullValue());
+		assertThat(read.getIngredients(), empty());
+	}
+
+	@Test
+	void testListsRoundTrip() throws ClassNotFoundException {
+		ListSerializer serializer = new ListSerializer(classLoader);
+
+		ArrayList<Recipe> recipes = new ArrayList<>(List.of(recipe(1L), recipe(2L)));
+		ArrayList<?> read = serializer.read(serializer.serialize(recipes));
+		assertThat(read, hasSize(2));
+		assertThat(((Recipe) read.get(1)).getId(), is(2L));
+
+		ArrayList<RecipeSummary> summaries = new ArrayList<>(List.of(RecipeSummary.builder().id(3L)
+				.name("soup").author("bob").averageRating(4.5).build()));
+		read = serializer.read(serializer.serialize(summaries));
+		assertThat(((RecipeSummary) read.get(0)).getAuthor(), is("bob"));
+		assertThat(((RecipeSummary) read.get(0)).getMinutesToMake(), nullValue());
+
+		assertThat(serializer.read(serializer.serialize(new ArrayList<>())).isEmpty(), is(true));
+
+		//anything else still round trips, through Java serialization
+		read = serializer.read(serializer.serialize(new ArrayList<>(List.of("a", 1L))));
+		assertThat(read, contains("a", 1L));
+	}
+
+	@Test
+	void testListOfProxiesIsWrittenCompactly() throws ClassNotFoundException {
+		ListSerializer serializer = new ListSerializer(classLoader);
+
+		//as Hibernate hands out references: a Recipe subclass whose own fields are empty, which isn't serializable
+		Recipe target = recipe(2L);
+		LazyInitializer initializer = mock(LazyInitializer.class);
+		when(initializer.getImplementation()).thenReturn(target);
+		Recipe proxy = mock(Recipe.class, withSettings().extraInterfaces(HibernateProxy.class));
+		when(((HibernateProxy) proxy).getHibernateLazyInitializer()).thenReturn(initializer);
+
+		ArrayList<Recipe> recipes = new ArrayList<>(List.of(recipe(1L), proxy));
+		ByteBuffer serialized = serializer.serialize(recipes);
+		int size = serialized.remaining();
+		ArrayList<?> read = serializer.read(serialized);
+
+		assertThat(read, hasSize(2));
+		assertThat(read.get(1), instanceOf(Recipe.class));
+		assertThat(((Recipe) read.get(1)).getId(), is(2L));
+		assertThat(((Recipe) read.get(1)).getName(), is("crème brûlée"));
+		assertThat(size, is(serializer.serialize(new ArrayList<>(List.of(recipe(1L), target))).remaining()));
+	}
+
+	@Test
+	void testCompactFormIsSeveralTimesSmaller() throws ClassNotFoundException {
+		Recipe recipe = recipe(1L);
+		int compact = new RecipeSerializer(classLoader).serialize(recipe).remaining();
+		int java = new PlainJavaSerializer<Recipe>(classLoader).serialize(recipe).remaining();
+		assertThat(compact * 3, lessThan(java));
+
+		RecipeSerializer serializer = new RecipeSerializer(classLoader);
+		assertThat(serializer.equals(recipe, serializer.serialize(recipe)), is(true));
+		assertThat(serializer.equals(recipe(2L), serializer.serialize(recipe)), is(false));
+	}
+
+	@Test
+	void testUnknownVersionIsRejected() {
+		ByteBuffer future = ByteBuffer.wrap(new byte[]{(byte) (CompactSerializer.VERSION + 1), 0});
+		assertThrows(SerializerException.class, () -> new RecipeSerializer(classLoader).read(future));
+		assertThrows(SerializerException.class, () -> new ReviewSerializer(classLoader)
+				.read(ByteBuffer.wrap(new byte[]{CompactSerializer.VERSION, 2})));
+	}
+
+	static Recipe recipe(Long id) {
+		CustomUserDetails author = new CustomUserDetails("idfk",
+				"$2a$10$KaG2ybJg6e1bZrQOF8oBveUXNNNdS6rq4yjGdOsm7g0QdJ5j3kMgy",
+				new ArrayList<>(List.of(new Role(Role.Roles.ROLE_USER))),
+				UserMeta.builder().email("idfk@example.com").name("Idfk").build());
+		CustomUserDetails reviewer = new CustomUserDetails("ben", "$2a$10$secret",
+				new ArrayList<>(List.of(new Role(Role.Roles.ROLE_USER))),
+				UserMeta.builder().email("ben@example.com").name("Ben").build());
+
+		Recipe recipe = Recipe.builder()
+				.id(id)
+				.name("crème brûlée")
+				.user(author)
+				.minutesToMake(45)
+				.difficultyRating(7)
+				.ingredients(new ArrayList<>(List.of(Ingredient.builder().id(10L).name("cream").amount("500ml").build())))
+				.steps(new ArrayList<>(List.of(Step.builder().id(20L).stepNumber(1).description("bake").build())))
+				.reviews(new ArrayList<>(List.of(
+						Review.builder().id(30L).user(reviewer).rating(9).description("lovely").build(),
+						Review.builder().id(31L).user(reviewer).rating(8).description("nice").build())))
+				.build();
+		recipe.applyRatingChange(2, 17);
+		return recipe;
+	}
+}
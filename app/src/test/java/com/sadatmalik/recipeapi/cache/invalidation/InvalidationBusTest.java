@@ -0,0 +1,182 @@
+package com.sadatmalik.recipeapi.cache.invalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class InvalidationBusTest {
+
+	List<InvalidationBus> buses = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		buses.forEach(InvalidationBus::close);
+	}
+
+	@Test
+	void testEvictionsReachOtherNodesOnly() {
+		ConcurrentMapCacheManager localA = new ConcurrentMapCacheManager("recipeCache");
+		ConcurrentMapCacheManager localB = new ConcurrentMapCacheManager("recipeCache");
+		BroadcastingCacheManager nodeA = new BroadcastingCacheManager(localA, bus(new LoopbackTransport()));
+		BroadcastingCacheManager nodeB = new BroadcastingCacheManager(localB, bus(new LoopbackTransport()));
+
+		nodeA.getCache("recipeCache").put(1L, "test recipe");
+		nodeB.getCache("recipeCache").get(1L, () -> "test recipe");
+		nodeB.getCache("recipeCache").get(2L, () -> "another test recipe");
+
+		//a put on node A replaces its own copy, and evicts node B's
+		nodeA.getCache("recipeCache").put(1L, "updated recipe");
+		assertThat(localA.getCache("recipeCache").get(1L).get(), is("updated recipe"));
+		assertThat(localB.getCache("recipeCache").get(1L), nullValue());
+		assertThat(localB.getCache("recipeCache").get(2L), notNullValue());
+
+		nodeA.getCache("recipeCache").clear();
+		assertThat(localB.getCache("recipeCache").get(2L), nullValue());
+	}
+
+	@Test
+	void testLostMessagesClearEverything() {
+		InvalidationBus bus = bus(null);
+		AtomicInteger gaps = new AtomicInteger();
+		bus.subscribe(listener(gaps));
+
+		bus.receive(message(1, InvalidationMessage.Type.EVICT));
+		bus.receive(message(2, InvalidationMessage.Type.EVICT));
+		bus.receive(message(2, InvalidationMessage.Type.HEARTBEAT));
+		assertThat(gaps.get(), is(0));
+
+		//message 3 never arrived
+		bus.receive(message(4, InvalidationMessage.Type.EVICT));
+		assertThat(gaps.get(), is(1));
+
+		//nor did 5, which the next heartbeat reveals
+		bus.receive(message(5, InvalidationMessage.Type.HEARTBEAT));
+		assertThat(gaps.get(), is(2));
+	}
+
+	@Test
+	void testMessagesSurviveTheWire() {
+		InvalidationMessage byName = new InvalidationMessage("node", 7, InvalidationMessage.Type.EVICT,
+				"recipeListCache", "name:a|b:0:20");
+		byte[] bytes = byName.encode();
+		InvalidationMessage decoded = InvalidationMessage.decode(bytes, bytes.length);
+		assertThat(decoded.getKey(), is("name:a|b:0:20"));
+		assertThat(decoded.getSequence(), is(7L));
+
+		bytes = new InvalidationMessage("node", 8, InvalidationMessage.Type.EVICT, "recipeCache", 5L).encode();
+		assertThat(InvalidationMessage.decode(bytes, bytes.length).getKey(), is(5L));
+	}
+
+	@Test
+	void testUdpTransport() throws Exception {
+		UdpTransport receiving = new UdpTransport("127.0.0.1", 0, List.of(), "test secret");
+		InvalidationBus nodeB = bus(receiving, 10);
+		String peer = "127.0.0.1:" + receiving.getLocalPort();
+		InvalidationBus nodeA = bus(new UdpTransport("127.0.0.1", 0, List.of(peer), "test secret"), 0);
+		InvalidationBus stranger = bus(new UdpTransport("127.0.0.1", 0, List.of(peer), "another secret"), 0);
+
+		CountDownLatch received = new CountDownLatch(1);
+		List<Object> keys = new CopyOnWriteArrayList<>();
+		nodeB.subscribe(new InvalidationListener() {
+			@Override
+			public void onRemoteInvalidation(String cacheName, Object key) {
+				keys.add(key);
+				received.countDown();
+			}
+
+			@Override
+			public void onRemoteGap() {
+			}
+		});
+
+		//neither a datagram signed with another secret nor an unsigned one gets through
+		stranger.publishEvict("recipeCache", 2L);
+		byte[] unsigned = new InvalidationMessage("stranger", 1, InvalidationMessage.Type.EVICT, "recipeCache", 3L)
+				.encode();
+		try (DatagramSocket socket = new DatagramSocket()) {
+			socket.send(new DatagramPacket(unsigned, unsigned.length, new InetSocketAddress("127.0.0.1",
+					receiving.getLocalPort())));
+		}
+		nodeA.publishEvict("recipeCache", 1L);
+		assertThat(received.await(5, TimeUnit.SECONDS), is(true));
+		assertThat(keys, contains(1L));
+	}
+
+	@Test
+	void testFullListenerQueueBecomesOneGap() throws InterruptedException {
+		InvalidationBus bus = bus(new LoopbackTransport(), 1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch gapped = new CountDownLatch(1);
+		AtomicInteger invalidations = new AtomicInteger();
+		AtomicInteger gaps = new AtomicInteger();
+		bus.subscribe(new InvalidationListener() {
+			@Override
+			public void onRemoteInvalidation(String cacheName, Object key) {
+				invalidations.incrementAndGet();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			@Override
+			public void onRemoteGap() {
+				gaps.incrementAndGet();
+				gapped.countDown();
+			}
+		});
+
+		//the first runs and blocks, the second waits in the queue, and the rest overflow it
+		for (long sequence = 1; sequence <= 5; sequence++) {
+			bus.receive(message(sequence, InvalidationMessage.Type.EVICT));
+		}
+		release.countDown();
+
+		assertThat(gapped.await(5, TimeUnit.SECONDS), is(true));
+		assertThat(invalidations.get(), is(1));
+		assertThat(gaps.get(), is(1));
+	}
+
+	private InvalidationBus bus(InvalidationTransport transport) {
+		return bus(transport, 0);
+	}
+
+	private InvalidationBus bus(InvalidationTransport transport, int listenerQueueCapacity) {
+		InvalidationBus bus = new InvalidationBus(transport, Duration.ofMinutes(1), listenerQueueCapacity);
+		buses.add(bus);
+		return bus;
+	}
+
+	private static InvalidationMessage message(long sequence, InvalidationMessage.Type type) {
+		return new InvalidationMessage("other node", sequence, type, "recipeCache", 1L);
+	}
+
+	private static InvalidationListener listener(AtomicInteger gaps) {
+		return new InvalidationListener() {
+			@Override
+			public void onRemoteInvalidation(String cacheName, Object key) {
+			}
+
+			@Override
+			public void onRemoteGap() {
+				gaps.incrementAndGet();
+			}
+		};
+	}
+}
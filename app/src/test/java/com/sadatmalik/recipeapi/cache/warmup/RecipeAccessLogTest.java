@@ -0,0 +1,72 @@
+package com.sadatmalik.recipeapi.cache.warmup;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class RecipeAccessLogTest {
+
+	@TempDir
+	Path directory;
+
+	WarmUpProperties properties;
+
+	@BeforeEach
+	void setUp() {
+		properties = new WarmUpProperties();
+		properties.setTopRecipes(2);
+		properties.setAccessLog(directory.resolve("recipe-access.log"));
+		properties.setAccessLogSaveInterval(Duration.ofHours(1));
+	}
+
+	@Test
+	void testMostReadRecipesComeFirst() {
+		RecipeAccessLog accessLog = accessLog();
+		read(accessLog, 1L, 1);
+		read(accessLog, 2L, 5);
+		read(accessLog, 3L, 3);
+
+		assertThat(accessLog.topRecipeIds(2), contains(2L, 3L));
+
+		accessLog.forget(2L);
+		assertThat(accessLog.topRecipeIds(2), contains(3L, 1L));
+		accessLog.close();
+	}
+
+	@Test
+	void testCountsSurviveARestartAtHalfWeight() throws Exception {
+		RecipeAccessLog before = accessLog();
+		for (long id = 1; id <= 10; id++) {
+			read(before, id, (int) id * 2);
+		}
+		before.close();
+
+		//only twice the preloaded number of recipes are kept
+		assertThat(Files.readAllLines(properties.getAccessLog()), contains("10 20", "9 18", "8 16", "7 14"));
+
+		RecipeAccessLog after = accessLog();
+		read(after, 1L, 12);
+		assertThat(after.topRecipeIds(4), contains(1L, 10L, 9L, 8L));
+		after.close();
+	}
+
+	private RecipeAccessLog accessLog() {
+		RecipeAccessLog accessLog = new RecipeAccessLog();
+		accessLog.properties = properties;
+		accessLog.load();
+		return accessLog;
+	}
+
+	private static void read(RecipeAccessLog accessLog, Long id, int times) {
+		for (int i = 0; i < times; i++) {
+			accessLog.recordRead(id);
+		}
+	}
+}
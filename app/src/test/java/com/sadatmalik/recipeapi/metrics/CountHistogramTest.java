@@ -0,0 +1,40 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CountHistogramTest {
+
+	@Test
+	void testPercentilesAreExact() {
+		CountHistogram histogram = new CountHistogram();
+		for (int statements = 1; statements <= 100; statements++) {
+			histogram.record(statements);
+		}
+
+		assertThat(histogram.getCount(), is(100L));
+		assertThat(histogram.getMax(), is(100L));
+		assertThat(histogram.getMean(), is(50.5));
+		//LatencyHistogram would report 55, the top of its 48-55 bucket
+		assertThat(histogram.percentile(0.5), is(50L));
+		assertThat(histogram.percentile(0.95), is(95L));
+		assertThat(histogram.percentile(0.99), is(99L));
+		assertThat(histogram.percentile(1.0), is(100L));
+	}
+
+	@Test
+	void testLargeCountsReportTheMax() {
+		CountHistogram histogram = new CountHistogram();
+		assertThat(histogram.percentile(0.5), is(0L));
+
+		histogram.record(3);
+		histogram.record(CountHistogram.MAX_EXACT + 1);
+		histogram.record(1000);
+
+		assertThat(histogram.percentile(0.3), is(3L));
+		assertThat(histogram.percentile(0.99), is(1000L));
+		assertThat(histogram.getMax(), is(1000L));
+	}
+}
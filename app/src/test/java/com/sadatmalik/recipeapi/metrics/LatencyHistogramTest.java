@@ -0,0 +1,34 @@
+package com.sadatmalik.recipeapi.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class LatencyHistogramTest {
+
+	@Test
+	void testPercentilesAreWithinABucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long micros = 1; micros <= 1000; micros++) {
+			histogram.record(micros * 1000);
+		}
+
+		assertThat(histogram.getCount(), is(1000L));
+		assertThat(histogram.getMaxNanos(), is(1_000_000L));
+		assertThat(histogram.getMeanNanos(), is(500_500L));
+		assertThat((double) histogram.percentileNanos(0.5), closeTo(500_000, 125_000));
+		assertThat((double) histogram.percentileNanos(0.99), closeTo(990_000, 10_000));
+		assertThat(histogram.percentileNanos(1.0), is(1_000_000L));
+	}
+
+	@Test
+	void testBucketsCoverEveryValue() {
+		assertThat(new LatencyHistogram().percentileNanos(0.5), is(0L));
+		for (long value : new long[]{0, 1, 3, 4, 5, 7, 8, 1000, 123_456_789, Long.MAX_VALUE}) {
+			int bucket = LatencyHistogram.bucketOf(value);
+			assertThat(LatencyHistogram.upperBoundOf(bucket), greaterThanOrEqualTo(value));
+			assertThat(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < value, is(true));
+		}
+	}
+}
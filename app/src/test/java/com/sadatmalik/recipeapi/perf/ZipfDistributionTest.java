@@ -0,0 +1,49 @@
+package com.sadatmalik.recipeapi.perf;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ZipfDistributionTest {
+
+	@Test
+	void testLowRanksDominate() {
+		ZipfDistribution zipf = new ZipfDistribution(1000, 1.1);
+		Random random = new Random(42);
+		int[] counts = new int[1001];
+		for (int i = 0; i < 100_000; i++) {
+			counts[zipf.sampleRank(random)]++;
+		}
+
+		//rank 1 is drawn about 2^1.1 times as often as rank 2, and far more often than the tail
+		assertThat(counts[1], greaterThan(counts[2] * 3 / 2));
+		assertThat(counts[1], greaterThan(counts[500] * 100));
+		assertThat(counts[0], is(0));
+	}
+
+	@Test
+	void testSameSeedSameSamples() {
+		ZipfDistribution zipf = new ZipfDistribution(100, 1.0);
+		Random first = new Random(7);
+		Random second = new Random(7);
+		for (int i = 0; i < 1000; i++) {
+			assertThat(zipf.sampleId(first), is(zipf.sampleId(second)));
+		}
+	}
+
+	@Test
+	void testEveryRankMapsToItsOwnId() {
+		ZipfDistribution zipf = new ZipfDistribution(1000, 1.0);
+		Set<Integer> ids = new HashSet<>();
+		for (int rank = 1; rank <= 1000; rank++) {
+			ids.add(zipf.idOf(rank));
+		}
+		assertThat(ids, hasSize(1000));
+		assertThat(ids, everyItem(both(greaterThanOrEqualTo(1)).and(lessThanOrEqualTo(1000))));
+	}
+}
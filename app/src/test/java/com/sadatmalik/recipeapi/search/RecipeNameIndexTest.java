@@ -0,0 +1,51 @@
+package com.sadatmalik.recipeapi.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+
+class RecipeNameIndexTest {
+
+	RecipeNameIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new RecipeNameIndex();
+		index.add(1L, "test recipe");
+		index.add(2L, "another test recipe");
+		index.add(3L, "Chocolate and Potato Chips");
+	}
+
+	@Test
+	void testSearchMatchesSubstringsIgnoringCase() {
+		assertThat(index.search("recipe"), contains(1L, 2L));
+		assertThat(index.search("POTATO"), contains(3L));
+		//short queries fall back to checking every name
+		assertThat(index.search("ch"), contains(3L));
+	}
+
+	@Test
+	void testSearchRequiresContiguousMatch() {
+		//every trigram of "potato chocolate" is in recipe 3's name, so it's a candidate - only verification rejects it
+		for (String gram : RecipeNameIndex.grams("potato chocolate")) {
+			assertThat(RecipeNameIndex.grams("chocolate and potato chips"), hasItem(gram));
+		}
+		assertThat(index.search("potato chocolate"), empty());
+		assertThat(index.search("potato chips"), contains(3L));
+		assertThat(index.search("should not exist"), empty());
+	}
+
+	@Test
+	void testUpdatesAndRemovals() {
+		index.add(1L, "caramel in a pan");
+		assertThat(index.search("recipe"), contains(2L));
+		assertThat(index.search("caramel"), contains(1L));
+
+		index.remove(2L);
+		assertThat(index.search("recipe"), empty());
+	}
+}
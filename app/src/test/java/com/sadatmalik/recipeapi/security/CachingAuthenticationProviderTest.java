@@ -0,0 +1,100 @@
+package com.sadatmalik.recipeapi.security;
+
+import com.sadatmalik.recipeapi.model.CustomUserDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingAuthenticationProviderTest {
+
+	AtomicInteger loads = new AtomicInteger();
+
+	AtomicInteger bcryptChecks = new AtomicInteger();
+
+	BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+
+	String passwordHash = bcrypt.encode("password");
+
+	CredentialCache credentialCache;
+
+	CachingAuthenticationProvider provider;
+
+	@BeforeEach
+	void setUp() {
+		credentialCache = new CredentialCache(Duration.ofMinutes(1), 100);
+		credentialCache.cacheManager = new ConcurrentMapCacheManager("userCache");
+		credentialCache.init();
+
+		provider = new CachingAuthenticationProvider(credentialCache);
+		provider.setUserDetailsService(username -> {
+			loads.incrementAndGet();
+			return CustomUserDetails.builder().username(username).password(passwordHash)
+					.isAccountNonExpired(true).isAccountNonLocked(true).isCredentialsNonExpired(true).isEnabled(true)
+					.build();
+		});
+		provider.setPasswordEncoder(new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				return bcrypt.encode(rawPassword);
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				bcryptChecks.incrementAndGet();
+				return bcrypt.matches(rawPassword, encodedPassword);
+			}
+		});
+	}
+
+	@Test
+	void testVerifiedCredentialsSkipTheDatabaseAndBcrypt() {
+		Authentication first = provider.authenticate(token("ben", "password"));
+		Authentication second = provider.authenticate(token("ben", "password"));
+
+		assertThat(first.isAuthenticated(), is(true));
+		assertThat(second.getName(), is("ben"));
+		assertThat(loads.get(), is(1));
+		assertThat(bcryptChecks.get(), is(1));
+	}
+
+	@Test
+	void testWrongPasswordIsAlwaysChecked() {
+		provider.authenticate(token("ben", "password"));
+
+		//a cached user that fails is reloaded and checked again before the attempt is rejected
+		assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("ben", "wrong")));
+		assertThat(bcryptChecks.get(), is(3));
+		assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("ben", "wrong")));
+		assertThat(bcryptChecks.get(), is(5));
+	}
+
+	@Test
+	void testChangesDropTheCachedCredentials() {
+		provider.authenticate(token("ben", "password"));
+		assertThat(credentialCache.isVerified("ben", "password", passwordHash), is(true));
+
+		//a credential verified against the old hash no longer counts
+		assertThat(credentialCache.isVerified("ben", "password", bcrypt.encode("password")), is(false));
+
+		credentialCache.removeUserFromCache("ben");
+		provider.authenticate(token("ben", "password"));
+		assertThat(loads.get(), is(2));
+		assertThat(bcryptChecks.get(), is(2));
+	}
+
+	private static UsernamePasswordAuthenticationToken token(String username, String password) {
+		return new UsernamePasswordAuthenticationToken(username, password);
+	}
+}
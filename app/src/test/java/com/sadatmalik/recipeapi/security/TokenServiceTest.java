@@ -0,0 +1,71 @@
+package com.sadatmalik.recipeapi.security;
+
+import com.sadatmalik.recipeapi.model.CustomUserDetails;
+import com.sadatmalik.recipeapi.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenServiceTest {
+
+	static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+	TokenService tokenService = new TokenService(SECRET, Duration.ofMinutes(15));
+
+	@Test
+	void testTokenCarriesTheUserAndRoles() {
+		CustomUserDetails user = verify(tokenService.issue(user()));
+
+		assertThat(user.getId(), is(7L));
+		assertThat(user.getUsername(), is("ben"));
+		assertThat(user.getPassword(), nullValue());
+		assertThat(user.getAuthorities(), hasSize(2));
+		assertThat(user.getAuthorities().iterator().next(), instanceOf(Role.class));
+	}
+
+	@Test
+	void testTamperedOrForeignTokensAreRejected() {
+		String token = tokenService.issue(user());
+		String[] parts = token.split("\\.");
+
+		//a payload claiming admin rights with the original signature
+		String admin = Base64.getUrlEncoder().withoutPadding().encodeToString(
+				"{\"sub\":\"ben\",\"uid\":7,\"roles\":[\"ROLE_ADMIN\"],\"exp\":9999999999}".getBytes());
+		assertThrows(BadCredentialsException.class, () -> tokenService.verify(parts[0] + "." + admin + "." + parts[2]));
+
+		String unsigned = "eyJhbGciOiJub25lIn0." + parts[1] + ".";
+		assertThrows(BadCredentialsException.class, () -> tokenService.verify(unsigned));
+		assertThrows(BadCredentialsException.class, () -> tokenService.verify("not a token"));
+
+		TokenService otherSecret = new TokenService("", Duration.ofMinutes(15));
+		assertThrows(BadCredentialsException.class, () -> otherSecret.verify(token));
+	}
+
+	@Test
+	void testExpiredTokensAreRejected() {
+		String token = tokenService.issue(user());
+		tokenService.clock = Clock.fixed(Instant.now().plus(Duration.ofMinutes(16)), ZoneOffset.UTC);
+		assertThrows(BadCredentialsException.class, () -> tokenService.verify(token));
+	}
+
+	private CustomUserDetails verify(String token) {
+		return tokenService.verify(token);
+	}
+
+	private static CustomUserDetails user() {
+		CustomUserDetails user = CustomUserDetails.builder().id(7L).username("ben").password("$2a$10$hash")
+				.authorities(List.of(new Role(Role.Roles.ROLE_USER), new Role(Role.Roles.ROLE_ADMIN)))
+				.build();
+		return user;
+	}
+}
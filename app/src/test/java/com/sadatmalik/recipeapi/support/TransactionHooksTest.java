@@ -0,0 +1,50 @@
+package com.sadatmalik.recipeapi.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+class TransactionHooksTest {
+
+	List<String> ran = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		TransactionSynchronizationManager.initSynchronization();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	@Test
+	void testActionsWaitForTheCommit() {
+		TransactionHooks.afterCommit(() -> ran.add("evict"));
+		assertThat(ran, empty());
+
+		TransactionSynchronizationUtils.triggerAfterCommit();
+		assertThat(ran, contains("evict"));
+	}
+
+	@Test
+	void testActionRegisteredByAnAfterCommitActionStillRuns() {
+		//e.g. an eviction after commit, which broadcasts to other nodes after commit
+		TransactionHooks.afterCommit(() -> {
+			ran.add("evict");
+			TransactionHooks.afterCommit(() -> ran.add("broadcast"));
+		});
+
+		TransactionSynchronizationUtils.triggerAfterCommit();
+		assertThat(ran, contains("evict", "broadcast"));
+	}
+}
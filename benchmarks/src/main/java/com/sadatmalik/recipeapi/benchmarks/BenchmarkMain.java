@@ -0,0 +1,27 @@
+package com.sadatmalik.recipeapi.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// JMH's own main, defaulting to JSON results in jmh-result.json so runs can be kept and compared (for example on
+// jmh.morethan.io). Passing -rf or -rff overrides either default.
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.add("-rf");
+            options.add("json");
+        }
+        if (!options.contains("-rff")) {
+            options.add("-rff");
+            options.add("jmh-result.json");
+        }
+        Main.main(options.toArray(new String[0]));
+    }
+}
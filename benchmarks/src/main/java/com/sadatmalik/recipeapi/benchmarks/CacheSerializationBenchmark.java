@@ -0,0 +1,120 @@
+package com.sadatmalik.recipeapi.benchmarks;
+
+import com.sadatmalik.recipeapi.cache.ehcache.ListSerializer;
+import com.sadatmalik.recipeapi.cache.ehcache.RecipeSerializer;
+import com.sadatmalik.recipeapi.model.Recipe;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
+import org.ehcache.spi.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+// What a recipe and a page of recipes cost on their way through Ehcache's offheap and disk tiers, where every put
+// serializes and every hit deserializes. "compact" is what ehcache.xml configures (RecipeSerializer and
+// ListSerializer), "java" is Ehcache's default Java serialization for comparison. Java serialization also follows
+// each review back to its recipe and writes the authors' user details; the compact layouts don't.
+//
+// offheapGet reads through a real offheap tier: the heap tier holds a single entry and the benchmark alternates
+// between two keys, so every get misses the heap and deserializes.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"compact", "java"})
+    String serializer;
+
+    @Param({"2", "10", "40"})
+    int size;
+
+    @Param({"0", "10", "100"})
+    int reviews;
+
+    Serializer<Recipe> recipeSerializer;
+
+    Serializer<ArrayList> pageSerializer;
+
+    Recipe recipe;
+
+    ArrayList<Recipe> page;
+
+    ByteBuffer recipeBinary;
+
+    ByteBuffer pageBinary;
+
+    CacheManager cacheManager;
+
+    Cache<Long, Recipe> offheap;
+
+    long key;
+
+    @Setup
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setUp() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        if (serializer.equals("compact")) {
+            recipeSerializer = new RecipeSerializer(classLoader);
+            pageSerializer = new ListSerializer(classLoader);
+        } else {
+            recipeSerializer = new PlainJavaSerializer<>(classLoader);
+            pageSerializer = new PlainJavaSerializer(classLoader);
+        }
+
+        recipe = Fixtures.recipe(1L, size, reviews);
+        page = Fixtures.page(PAGE_SIZE, size, reviews);
+        recipeBinary = recipeSerializer.serialize(recipe);
+        pageBinary = pageSerializer.serialize(page);
+
+        cacheManager = CacheManagerBuilder.newCacheManagerBuilder().build(true);
+        offheap = cacheManager.createCache("recipeCache", CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Long.class, Recipe.class,
+                        ResourcePoolsBuilder.heap(1).offheap(64, MemoryUnit.MB))
+                .withValueSerializer(recipeSerializer));
+        offheap.put(1L, recipe);
+        offheap.put(2L, Fixtures.recipe(2L, size, reviews));
+    }
+
+    @TearDown
+    public void tearDown() {
+        cacheManager.close();
+    }
+
+    @Benchmark
+    public ByteBuffer serializeRecipe() {
+        return recipeSerializer.serialize(recipe);
+    }
+
+    @Benchmark
+    public Recipe readRecipe() throws ClassNotFoundException {
+        return recipeSerializer.read(recipeBinary.duplicate());
+    }
+
+    @Benchmark
+    public ByteBuffer serializePage() {
+        return pageSerializer.serialize(page);
+    }
+
+    @Benchmark
+    public ArrayList readPage() throws ClassNotFoundException {
+        return pageSerializer.read(pageBinary.duplicate());
+    }
+
+    @Benchmark
+    public Recipe offheapGet() {
+        key = key == 1 ? 2 : 1;
+        return offheap.get(key);
+    }
+}
@@ -0,0 +1,70 @@
+package com.sadatmalik.recipeapi.benchmarks;
+
+import com.sadatmalik.recipeapi.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Recipes shaped like the ones the API loads: an author with a role and user meta, ingredients and steps, and
+// reviews pointing back at their recipe. Ratings are fixed per review, so every run measures the same objects.
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    // size is the number of ingredients and also of steps
+    static Recipe recipe(long id, int size, int reviews) {
+        Recipe recipe = Recipe.builder()
+                .id(id)
+                .name("crème brûlée " + id)
+                .user(user("author", id))
+                .minutesToMake(45)
+                .difficultyRating(7)
+                .ingredients(new ArrayList<>())
+                .steps(new ArrayList<>())
+                .reviews(new ArrayList<>())
+                .build();
+        for (int i = 1; i <= size; i++) {
+            recipe.getIngredients().add(Ingredient.builder()
+                    .id(id * 1000 + i)
+                    .name("ingredient " + i)
+                    .amount(i + " tbsp")
+                    .state(i % 2 == 0 ? "chopped" : null)
+                    .build());
+            recipe.getSteps().add(Step.builder()
+                    .id(id * 1000 + i)
+                    .stepNumber(i)
+                    .description("stir in ingredient " + i + " and simmer for a few minutes")
+                    .build());
+        }
+        long ratingSum = 0;
+        for (int i = 1; i <= reviews; i++) {
+            int rating = 1 + i * 7 % 10;
+            recipe.getReviews().add(Review.builder()
+                    .id(id * 100_000 + i)
+                    .user(user("reviewer", i))
+                    .rating(rating)
+                    .description("would make again, review " + i)
+                    .build());
+            ratingSum += rating;
+        }
+        recipe.linkReviews();
+        recipe.applyRatingChange(reviews, ratingSum);
+        return recipe;
+    }
+
+    static ArrayList<Recipe> page(int recipes, int size, int reviews) {
+        ArrayList<Recipe> page = new ArrayList<>(recipes);
+        for (long id = 1; id <= recipes; id++) {
+            page.add(recipe(id, size, reviews));
+        }
+        return page;
+    }
+
+    private static CustomUserDetails user(String name, long id) {
+        return new CustomUserDetails(name + id,
+                "$2a$10$KaG2ybJg6e1bZrQOF8oBveUXNNNdS6rq4yjGdOsm7g0QdJ5j3kMgy",
+                new ArrayList<>(List.of(new Role(Role.Roles.ROLE_USER))),
+                UserMeta.builder().email(name + id + "@example.com").name(name + " " + id).build());
+    }
+}
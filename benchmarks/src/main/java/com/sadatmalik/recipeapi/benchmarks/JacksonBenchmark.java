@@ -0,0 +1,61 @@
+package com.sadatmalik.recipeapi.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sadatmalik.recipeapi.model.Recipe;
+import com.sadatmalik.recipeapi.model.Review;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+// Response bodies and request bodies through an ObjectMapper configured the way Spring Boot configures the
+// application's (Jackson2ObjectMapperBuilder defaults).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JacksonBenchmark {
+
+    @Param({"2", "10", "40"})
+    int size;
+
+    @Param({"0", "10", "100", "1000"})
+    int reviews;
+
+    ObjectMapper objectMapper;
+
+    Recipe recipe;
+
+    Collection<Review> reviewPage;
+
+    byte[] recipeJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        recipe = Fixtures.recipe(1L, size, reviews);
+        reviewPage = recipe.getReviews();
+        recipeJson = objectMapper.writeValueAsBytes(recipe);
+    }
+
+    @Benchmark
+    public byte[] writeRecipe() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(recipe);
+    }
+
+    @Benchmark
+    public Recipe readRecipe() throws IOException {
+        return objectMapper.readValue(recipeJson, Recipe.class);
+    }
+
+    // a recipe's reviews, as GET /review/recipe/{recipeId} returns them
+    @Benchmark
+    public byte[] writeReviews() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reviewPage);
+    }
+}
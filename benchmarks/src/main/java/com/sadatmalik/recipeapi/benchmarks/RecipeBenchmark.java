@@ -0,0 +1,62 @@
+package com.sadatmalik.recipeapi.benchmarks;
+
+import com.sadatmalik.recipeapi.model.Recipe;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+// The model methods every recipe request passes through: validate on the way in, generateLocationURI and the
+// rating aggregates on the way out.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RecipeBenchmark {
+
+    @Param({"2", "10", "40"})
+    int size;
+
+    @Param({"0", "10", "100", "1000"})
+    int reviews;
+
+    Recipe recipe;
+
+    @Setup
+    public void setUp() {
+        recipe = Fixtures.recipe(1L, size, reviews);
+        // generateLocationURI builds on the current request, as it would inside a controller
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/recipes/1");
+        request.setServerName("localhost");
+        request.setServerPort(8080);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public double calculateAverageRating() {
+        recipe.calculateAverageRating();
+        return recipe.getAverageRating();
+    }
+
+    @Benchmark
+    public Recipe validate() {
+        recipe.validate();
+        return recipe;
+    }
+
+    @Benchmark
+    public URI generateLocationURI() {
+        recipe.generateLocationURI();
+        return recipe.getLocationURI();
+    }
+}
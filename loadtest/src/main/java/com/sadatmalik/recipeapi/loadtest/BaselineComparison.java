@@ -0,0 +1,88 @@
+package com.sadatmalik.recipeapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Compares a run with an earlier one, operation by operation. A percentile regresses when it's more than the
+// tolerance above the baseline's, throughput when it's more than the tolerance below, and the error rate when it
+// rises by more than a percentage point. Only runs at the same rate and mix are comparable.
+public class BaselineComparison {
+
+    // differences smaller than this are noise, however large relative to a sub-millisecond baseline
+    private static final double NOISE_FLOOR_MS = 0.5;
+
+    private final double tolerance;
+
+    private final List<String> warnings = new ArrayList<>();
+
+    private final List<String> regressions = new ArrayList<>();
+
+    public BaselineComparison(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public void compare(JsonNode current, JsonNode baseline) {
+        if (current.get("rate").asDouble() != baseline.get("rate").asDouble() ||
+                !current.get("mix").equals(baseline.get("mix"))) {
+            warnings.add("The baseline ran at " + baseline.get("rate") + " requests per second with mix " +
+                    baseline.get("mix") + ", so it isn't comparable with this run");
+        }
+
+        compareStats("total", current.get("total"), baseline.get("total"));
+        Iterator<Map.Entry<String, JsonNode>> operations = current.get("operations").fields();
+        while (operations.hasNext()) {
+            Map.Entry<String, JsonNode> operation = operations.next();
+            JsonNode before = baseline.get("operations").get(operation.getKey());
+            if (before == null) {
+                warnings.add(operation.getKey() + " isn't in the baseline");
+            } else {
+                compareStats(operation.getKey(), operation.getValue(), before);
+            }
+        }
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public List<String> getRegressions() {
+        return regressions;
+    }
+
+    private void compareStats(String operation, JsonNode current, JsonNode baseline) {
+        for (String percentile : List.of("p50Ms", "p99Ms")) {
+            double now = current.get(percentile).asDouble();
+            double before = baseline.get(percentile).asDouble();
+            if (now > before * (1 + tolerance) && now - before > NOISE_FLOOR_MS) {
+                regressions.add(operation + " " + percentile + " went from " + before + " to " + now);
+            }
+        }
+
+        double throughput = current.get("throughput").asDouble();
+        double baselineThroughput = baseline.get("throughput").asDouble();
+        if (throughput < baselineThroughput * (1 - tolerance)) {
+            regressions.add(operation + " throughput went from " + baselineThroughput + " to " + throughput +
+                    " requests per second");
+        }
+
+        double errorRate = errorRate(current);
+        double baselineErrorRate = errorRate(baseline);
+        if (errorRate > baselineErrorRate + 0.01) {
+            regressions.add(operation + " error rate went from " + percent(baselineErrorRate) + " to " +
+                    percent(errorRate));
+        }
+    }
+
+    private static double errorRate(JsonNode stats) {
+        long sent = stats.get("completed").asLong() + stats.get("dropped").asLong();
+        return sent == 0 ? 0 : (stats.get("errors").asLong() + stats.get("dropped").asLong()) / (double) sent;
+    }
+
+    private static String percent(double rate) {
+        return Math.round(rate * 1000) / 10.0 + "%";
+    }
+}
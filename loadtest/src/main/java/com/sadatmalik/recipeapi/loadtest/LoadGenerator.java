@@ -0,0 +1,80 @@
+package com.sadatmalik.recipeapi.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Sends requests at a fixed rate - an open model, like independent users arriving - whatever the server's doing.
+// A closed loop that waits for each response before sending the next slows down with the server and under-reports
+// exactly the stalls worth knowing about (coordinated omission). Here each request is due at a fixed time and its
+// response time counts from then, so a request that had to wait for the generator to catch up is charged for it.
+public class LoadGenerator {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(35);
+
+    private final HttpClient client;
+
+    private final Workload workload;
+
+    private final LoadTestOptions options;
+
+    private final Random random;
+
+    public LoadGenerator(HttpClient client, Workload workload, LoadTestOptions options) {
+        this.client = client;
+        this.workload = workload;
+        this.options = options;
+        this.random = new Random(options.getSeed());
+    }
+
+    // returns once every request sent has completed, failed or timed out
+    public LoadResults run(Duration length) throws InterruptedException {
+        LoadResults results = new LoadResults(length);
+        AtomicInteger inFlight = new AtomicInteger();
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long requests = (long) (length.toNanos() / intervalNanos);
+
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long due = start + (long) (i * intervalNanos);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = workload.pick(random);
+            if (inFlight.get() >= options.getMaxInFlight()) {
+                results.drop(operation);
+                continue;
+            }
+            inFlight.incrementAndGet();
+            long sent = System.nanoTime();
+            client.sendAsync(workload.request(operation, random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        results.record(operation, due, sent, System.nanoTime(), isOk(operation, response));
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return results;
+    }
+
+    // A read that finds nothing is a normal answer - not every user has recipes or reviews. The recipe endpoints
+    // answer it with 404, the review endpoints with 400.
+    private static boolean isOk(Operation operation, HttpResponse<?> response) {
+        if (response == null) {
+            return false;
+        }
+        int status = response.statusCode();
+        boolean write = operation == Operation.POST_REVIEW || operation == Operation.PATCH_RECIPE;
+        return status < 400 || (!write && (status == 404 || status == 400));
+    }
+}
@@ -0,0 +1,74 @@
+package com.sadatmalik.recipeapi.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The stats of one run, by operation and over all of them
+public class LoadResults {
+
+    private final Map<Operation, OperationStats> operations = new EnumMap<>(Operation.class);
+
+    private final OperationStats total = new OperationStats();
+
+    private final double seconds;
+
+    LoadResults(Duration length) {
+        for (Operation operation : Operation.values()) {
+            operations.put(operation, new OperationStats());
+        }
+        this.seconds = length.toMillis() / 1000.0;
+    }
+
+    void record(Operation operation, long dueNanos, long sentNanos, long doneNanos, boolean ok) {
+        operations.get(operation).record(dueNanos, sentNanos, doneNanos, ok);
+        total.record(dueNanos, sentNanos, doneNanos, ok);
+    }
+
+    void drop(Operation operation) {
+        operations.get(operation).drop();
+        total.drop();
+    }
+
+    // what's written to --out, and what a later run compares with as its --baseline
+    public Map<String, Object> toMap(LoadTestOptions options) {
+        Map<String, Object> mix = new LinkedHashMap<>();
+        options.getMix().forEach((operation, weight) -> mix.put(operation.getName(), weight));
+
+        Map<String, Object> byOperation = new LinkedHashMap<>();
+        operations.forEach((operation, stats) -> {
+            if (stats.getResponseTime().getTotalCount() > 0) {
+                byOperation.put(operation.getName(), stats.toMap(seconds));
+            }
+        });
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("rate", options.getRate());
+        map.put("durationSeconds", seconds);
+        map.put("mix", mix);
+        map.put("operations", byOperation);
+        map.put("total", total.toMap(seconds));
+        return map;
+    }
+
+    public String toTable(LoadTestOptions options) {
+        Map<String, Object> map = toMap(options);
+        StringBuilder table = new StringBuilder(String.format("%-16s %9s %7s %7s %8s %8s %8s %8s %8s %8s%n",
+                "operation", "completed", "errors", "dropped", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms",
+                "max ms"));
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> byOperation = (Map<String, Map<String, Object>>) map.get("operations");
+        byOperation.forEach((name, stats) -> table.append(row(name, stats)));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> totals = (Map<String, Object>) map.get("total");
+        table.append(row("total", totals));
+        return table.toString();
+    }
+
+    private static String row(String name, Map<String, Object> stats) {
+        return String.format("%-16s %9d %7d %7d %8.1f %8.2f %8.2f %8.2f %8.2f %8.2f%n", name, stats.get("completed"),
+                stats.get("errors"), stats.get("dropped"), stats.get("throughput"), stats.get("p50Ms"),
+                stats.get("p90Ms"), stats.get("p99Ms"), stats.get("p999Ms"), stats.get("maxMs"));
+    }
+}
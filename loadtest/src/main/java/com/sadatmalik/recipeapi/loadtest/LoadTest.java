@@ -0,0 +1,99 @@
+package com.sadatmalik.recipeapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sadatmalik.recipeapi.RecipeapiApplication;
+import com.sadatmalik.recipeapi.perf.PerfDataProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs a load test: boots the application on the perf profile unless given a --target, sends a warmup's worth of
+// unrecorded load, then the measured run. Prints the results by operation, writes them to --out and, with a
+// --baseline, exits with 1 if they regressed from it. See LoadTestOptions for the options.
+//
+// Booted in this JVM, the application shares the CPUs with the load generator - for the steadiest numbers, start
+// it on its own (--spring.profiles.active=perf) and point --target at it.
+public class LoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTest.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        String[] applicationArgs = options.getApplicationArgs().toArray(new String[0]);
+
+        ConfigurableApplicationContext application = null;
+        String target = options.getTarget();
+        PerfDataProperties data;
+        if (target == null) {
+            // replacing the test profile application.properties activates, rather than adding to it
+            List<String> bootArgs = new ArrayList<>(List.of("--spring.profiles.active=perf", "--server.port=0"));
+            bootArgs.addAll(options.getApplicationArgs());
+            application = new SpringApplicationBuilder(RecipeapiApplication.class)
+                    .run(bootArgs.toArray(new String[0]));
+            target = "http://localhost:" + ((WebServerApplicationContext) application).getWebServer().getPort();
+            data = application.getBean(PerfDataProperties.class);
+        } else {
+            data = new Binder(ConfigurationPropertySources.from(new SimpleCommandLinePropertySource(applicationArgs)))
+                    .bind("recipeapi.perf.data", PerfDataProperties.class)
+                    .orElseGet(PerfDataProperties::new);
+        }
+
+        int exitCode;
+        try {
+            exitCode = run(options, target, data);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestOptions options, String target, PerfDataProperties data) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Workload workload = new Workload(target, data, options.getMix());
+        workload.prepare(client, options.getWriters());
+        LoadGenerator generator = new LoadGenerator(client, workload, options);
+
+        LOGGER.info("Warming up " + target + " at " + options.getRate() + " requests per second for " +
+                options.getWarmup().getSeconds() + "s");
+        generator.run(options.getWarmup());
+        LOGGER.info("Measuring for " + options.getDuration().getSeconds() + "s");
+        LoadResults results = generator.run(options.getDuration());
+
+        System.out.println();
+        System.out.print(results.toTable(options));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode current = objectMapper.valueToTree(results.toMap(options));
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(options.getOut().toFile(), current);
+        LOGGER.info("Wrote the results to " + options.getOut().toAbsolutePath());
+
+        if (options.getBaseline() == null) {
+            return 0;
+        }
+        BaselineComparison comparison = new BaselineComparison(options.getTolerance());
+        comparison.compare(current, objectMapper.readTree(options.getBaseline().toFile()));
+        comparison.getWarnings().forEach(warning -> System.out.println("WARNING: " + warning));
+        if (comparison.getRegressions().isEmpty()) {
+            System.out.println("No regressions from " + options.getBaseline());
+            return 0;
+        }
+        comparison.getRegressions().forEach(regression -> System.out.println("REGRESSION: " + regression));
+        return 1;
+    }
+}
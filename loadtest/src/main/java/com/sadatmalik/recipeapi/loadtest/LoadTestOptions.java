@@ -0,0 +1,121 @@
+package com.sadatmalik.recipeapi.loadtest;
+
+import lombok.Getter;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Command line options, all in --name=value form:
+//
+//   --target=http://host:8080   an application that's already running; without one, the application is booted in
+//                               this JVM on the perf profile on a random port
+//   --rate=200                  requests per second, sent on schedule whether or not earlier ones have finished
+//   --duration=60s              how long to measure for, after --warmup=15s of unrecorded load
+//   --mix=get-recipe:60,...     relative weights of the operations (see Operation); only those listed are sent
+//   --seed=42                   seeds the choice of operations and of the recipes, users and reviews they ask for
+//   --max-in-flight=2000        requests due while this many are outstanding are dropped and counted as errors
+//   --writers=20                how many of the most prolific authors patch their own recipes
+//   --out=loadtest-result.json  where the results are written
+//   --baseline=file.json        an earlier run's results to compare with - the exit code is 1 on a regression
+//   --tolerance=0.1             how much worse than the baseline a percentile or throughput may get
+//
+// Anything else, e.g. --recipeapi.perf.data.recipes=10000, is handed to the booted application. The dataset sizes
+// (recipeapi.perf.data.*) are also read from these arguments when --target is given, and must match the target's.
+@Getter
+public class LoadTestOptions {
+
+    private String target;
+
+    private double rate = 200;
+
+    private Duration duration = Duration.ofSeconds(60);
+
+    private Duration warmup = Duration.ofSeconds(15);
+
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+    private long seed = 42;
+
+    private int maxInFlight = 2000;
+
+    private int writers = 20;
+
+    private Path out = Paths.get("loadtest-result.json");
+
+    private Path baseline;
+
+    private double tolerance = 0.1;
+
+    private final List<String> applicationArgs = new ArrayList<>();
+
+    public static LoadTestOptions parse(String... args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (Operation operation : Operation.values()) {
+            options.mix.put(operation, operation.getDefaultWeight());
+        }
+
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = arg.startsWith("--") && equals > 0 ? arg.substring(2, equals) : "";
+            String value = equals > 0 ? arg.substring(equals + 1) : "";
+            switch (name) {
+                case "target":
+                    options.target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                case "rate":
+                    options.rate = Double.parseDouble(value);
+                    break;
+                case "duration":
+                    options.duration = DurationStyle.detectAndParse(value);
+                    break;
+                case "warmup":
+                    options.warmup = DurationStyle.detectAndParse(value);
+                    break;
+                case "mix":
+                    options.mix.clear();
+                    for (String weight : value.split(",")) {
+                        String[] parts = weight.trim().split(":");
+                        if (parts.length != 2) {
+                            throw new IllegalArgumentException("Expected operation:weight in --mix, not " + weight);
+                        }
+                        options.mix.put(Operation.named(parts[0]), Integer.parseInt(parts[1]));
+                    }
+                    break;
+                case "seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "max-in-flight":
+                    options.maxInFlight = Integer.parseInt(value);
+                    break;
+                case "writers":
+                    options.writers = Integer.parseInt(value);
+                    break;
+                case "out":
+                    options.out = Paths.get(value);
+                    break;
+                case "baseline":
+                    options.baseline = Paths.get(value);
+                    break;
+                case "tolerance":
+                    options.tolerance = Double.parseDouble(value);
+                    break;
+                default:
+                    options.applicationArgs.add(arg);
+            }
+        }
+
+        if (options.rate <= 0) {
+            throw new IllegalArgumentException("--rate must be above 0");
+        }
+        if (options.mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("--mix must give at least one operation a weight above 0");
+        }
+        return options;
+    }
+}
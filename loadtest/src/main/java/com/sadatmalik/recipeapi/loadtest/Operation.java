@@ -0,0 +1,44 @@
+package com.sadatmalik.recipeapi.loadtest;
+
+// The requests the load test can send, by the name used in --mix and in the results
+public enum Operation {
+
+    GET_RECIPE("get-recipe", 50),              // GET /recipes/{id}
+    SEARCH_NAME("search-name", 8),             // GET /recipes/search/{name}
+    SEARCH_RATING("search-rating", 8),         // GET /recipes/search/rating/{min}?sort=rating
+    SEARCH_USER("search-user", 8),             // GET /recipes/search/user/{username}
+    GET_REVIEW("get-review", 8),               // GET /review/{id}
+    RECIPE_REVIEWS("recipe-reviews", 8),       // GET /review/recipe/{recipeId}
+    USER_REVIEWS("user-reviews", 4),           // GET /review/user/{username}
+    POST_REVIEW("post-review", 4),             // POST /review/{recipeId}
+    PATCH_RECIPE("patch-recipe", 2);           // PATCH /recipes
+
+    private final String name;
+
+    // the default share of requests, out of 100
+    private final int defaultWeight;
+
+    Operation(String name, int defaultWeight) {
+        this.name = name;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    public static Operation named(String name) {
+        for (Operation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + name + " - expected one of get-recipe, " +
+                "search-name, search-rating, search-user, get-review, recipe-reviews, user-reviews, post-review " +
+                "or patch-recipe");
+    }
+}
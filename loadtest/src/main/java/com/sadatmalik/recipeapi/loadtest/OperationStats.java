@@ -0,0 +1,66 @@
+package com.sadatmalik.recipeapi.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// The latencies of one operation, in microseconds. Response time runs from when a request was due to be sent,
+// so time spent queued behind a slow server counts against it; service time from when it was actually sent.
+public class OperationStats {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Histogram responseTime = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+
+    private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    void record(long dueNanos, long sentNanos, long doneNanos, boolean ok) {
+        if (!ok) {
+            errors.increment();
+        }
+        responseTime.recordValue(micros(doneNanos - dueNanos));
+        serviceTime.recordValue(micros(doneNanos - sentNanos));
+    }
+
+    // due while --max-in-flight requests were outstanding, so never sent
+    void drop() {
+        dropped.increment();
+    }
+
+    Histogram getResponseTime() {
+        return responseTime;
+    }
+
+    // completed, errors, dropped, throughput, response time percentiles and service time p99, in milliseconds
+    Map<String, Object> toMap(double seconds) {
+        long completed = responseTime.getTotalCount();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("completed", completed);
+        map.put("errors", errors.sum());
+        map.put("dropped", dropped.sum());
+        map.put("throughput", Math.round((completed - errors.sum()) / seconds * 10) / 10.0);
+        map.put("p50Ms", millis(responseTime.getValueAtPercentile(50)));
+        map.put("p90Ms", millis(responseTime.getValueAtPercentile(90)));
+        map.put("p99Ms", millis(responseTime.getValueAtPercentile(99)));
+        map.put("p999Ms", millis(responseTime.getValueAtPercentile(99.9)));
+        map.put("maxMs", millis(responseTime.getMaxValue()));
+        map.put("serviceP99Ms", millis(serviceTime.getValueAtPercentile(99)));
+        return map;
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), HIGHEST_MICROS);
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+}
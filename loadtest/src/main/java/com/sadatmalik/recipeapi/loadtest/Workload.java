@@ -0,0 +1,198 @@
+package com.sadatmalik.recipeapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sadatmalik.recipeapi.perf.PerfDataProperties;
+import com.sadatmalik.recipeapi.perf.ZipfDistribution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Turns an operation into a request against the perf dataset (see PerfDataGenerator). Recipes are picked with the
+// same Zipf skew their reviews were generated with, so the popular recipes get most of the reads as well, and
+// searched authors with the skew their recipes were spread with.
+//
+// Writes leave the dataset much as they found it: reviews are posted by ADMIN, who has no recipes of their own to
+// be refused on, and recipes are patched by their owners with their current contents. Posted reviews do stay, so
+// delete perf-data/ now and again to get back to the generated dataset.
+public class Workload {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Workload.class);
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    // words that occur in the generated recipe names
+    private static final String[] NAME_SEARCHES = {"curry", "soup", "bread", "stew", "lasagne", "pancakes", "rice",
+            "pie", "risotto", "tacos", "dahl", "cake", "spicy", "creamy", "roasted", "classic"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String target;
+
+    private final PerfDataProperties data;
+
+    private final ZipfDistribution popularRecipes;
+
+    private final ZipfDistribution prolificAuthors;
+
+    private final Operation[] operations;
+
+    // running totals of the weights, for picking an operation
+    private final int[] cumulativeWeights;
+
+    private String adminToken;
+
+    private final List<OwnedRecipe> ownedRecipes = new ArrayList<>();
+
+    public Workload(String target, PerfDataProperties data, Map<Operation, Integer> mix) {
+        this.target = target;
+        this.data = data;
+        this.popularRecipes = new ZipfDistribution(data.getRecipes(), data.getReviewSkew());
+        this.prolificAuthors = new ZipfDistribution(data.getUsers(), data.getAuthorSkew());
+
+        List<Operation> weighted = new ArrayList<>();
+        List<Integer> totals = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+            if (weight.getValue() > 0) {
+                total += weight.getValue();
+                weighted.add(weight.getKey());
+                totals.add(total);
+            }
+        }
+        this.operations = weighted.toArray(new Operation[0]);
+        this.cumulativeWeights = totals.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Logs in and collects the recipes to patch, before any load is sent. The writers are the most prolific
+    // authors, so each has recipes to patch.
+    public void prepare(HttpClient client, int writers) throws IOException, InterruptedException {
+        adminToken = token(client, "ADMIN", "admin");
+
+        if (!isSent(Operation.PATCH_RECIPE)) {
+            return;
+        }
+        for (int rank = 1; rank <= Math.min(writers, data.getUsers()); rank++) {
+            String username = "user" + prolificAuthors.idOf(rank);
+            HttpResponse<String> response = client.send(get("/recipes/search/user/" + username + "?limit=10"),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                continue;
+            }
+            String token = token(client, username, "password");
+            for (JsonNode recipe : objectMapper.readTree(response.body())) {
+                // reviews come back without their authors, and aren't changed through a recipe anyway
+                ((ObjectNode) recipe).remove("reviews");
+                ownedRecipes.add(new OwnedRecipe(token, objectMapper.writeValueAsString(recipe)));
+            }
+        }
+        if (ownedRecipes.isEmpty()) {
+            throw new IllegalStateException("None of the " + writers + " most prolific authors has a recipe to " +
+                    "patch - is the dataset at " + target + " the perf profile's, with the same sizes?");
+        }
+        LOGGER.info("Patching " + ownedRecipes.size() + " recipes of the " + writers + " most prolific authors");
+    }
+
+    public Operation pick(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    public HttpRequest request(Operation operation, Random random) {
+        switch (operation) {
+            case GET_RECIPE:
+                return get("/recipes/" + popularRecipes.sampleId(random));
+            case SEARCH_NAME:
+                return get("/recipes/search/" + NAME_SEARCHES[random.nextInt(NAME_SEARCHES.length)]);
+            case SEARCH_RATING:
+                return get("/recipes/search/rating/" + (5 + random.nextInt(9) * 0.5) + "?sort=rating");
+            case SEARCH_USER:
+                return get("/recipes/search/user/user" + prolificAuthors.sampleId(random));
+            case GET_REVIEW:
+                return get("/review/" + (1 + random.nextInt(data.getReviews())));
+            case RECIPE_REVIEWS:
+                return get("/review/recipe/" + popularRecipes.sampleId(random));
+            case USER_REVIEWS:
+                return get("/review/user/user" + (1 + random.nextInt(data.getUsers())));
+            case POST_REVIEW:
+                String review = "{\"rating\":" + (1 + random.nextInt(10)) + ",\"description\":\"load test review\"}";
+                return json("/review/" + popularRecipes.sampleId(random), adminToken)
+                        .POST(HttpRequest.BodyPublishers.ofString(review))
+                        .build();
+            case PATCH_RECIPE:
+                OwnedRecipe recipe = ownedRecipes.get(random.nextInt(ownedRecipes.size()));
+                return json("/recipes", recipe.token)
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(recipe.json))
+                        .build();
+            default:
+                throw new IllegalArgumentException("No request for " + operation);
+        }
+    }
+
+    private boolean isSent(Operation operation) {
+        for (Operation sent : operations) {
+            if (sent == operation) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(target + path)).timeout(TIMEOUT).GET().build();
+    }
+
+    private HttpRequest.Builder json(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(target + path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token);
+    }
+
+    // a bearer token, so the load isn't spent on BCrypt checks of the Basic credentials
+    private String token(HttpClient client, String username, String password)
+            throws IOException, InterruptedException {
+        String credentials = Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target + "/auth/token"))
+                .timeout(TIMEOUT)
+                .header("Authorization", "Basic " + credentials)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not log in as " + username + ": HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private static class OwnedRecipe {
+
+        final String token;
+
+        final String json;
+
+        OwnedRecipe(String token, String json) {
+            this.token = token;
+            this.json = json;
+        }
+    }
+}
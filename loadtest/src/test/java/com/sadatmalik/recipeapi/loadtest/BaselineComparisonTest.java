@@ -0,0 +1,77 @@
+package com.sadatmalik.recipeapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class BaselineComparisonTest {
+
+	ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	void testSameRunHasNoRegressions() {
+		BaselineComparison comparison = new BaselineComparison(0.1);
+
+		comparison.compare(run(200, 10, 50, 1000, 0), run(200, 10, 50, 1000, 0));
+
+		assertThat(comparison.getRegressions(), empty());
+		assertThat(comparison.getWarnings(), empty());
+	}
+
+	@Test
+	void testChangesWithinToleranceOrNoiseAreNotRegressions() {
+		BaselineComparison comparison = new BaselineComparison(0.1);
+
+		//p50 up 100% but only 0.2ms, p99 up 8%, throughput down 5%
+		comparison.compare(run(200, 0.4, 54, 950, 0), run(200, 0.2, 50, 1000, 0));
+
+		assertThat(comparison.getRegressions(), empty());
+	}
+
+	@Test
+	void testSlowerLowerThroughputAndMoreErrorsAreRegressions() {
+		BaselineComparison comparison = new BaselineComparison(0.1);
+
+		comparison.compare(run(200, 10, 80, 800, 50), run(200, 10, 50, 1000, 0));
+
+		//the total and the one operation, each for p99, throughput and errors
+		assertThat(comparison.getRegressions(), hasSize(6));
+		assertThat(comparison.getRegressions(), hasItem("total p99Ms went from 50.0 to 80.0"));
+		assertThat(comparison.getRegressions(), hasItem(startsWith("get-recipe throughput went from 1000.0 to 800.0")));
+		assertThat(comparison.getRegressions(), hasItem("get-recipe error rate went from 0.0% to 6.3%"));
+	}
+
+	@Test
+	void testDifferentRateIsWarnedAbout() {
+		BaselineComparison comparison = new BaselineComparison(0.1);
+
+		comparison.compare(run(100, 10, 50, 1000, 0), run(200, 10, 50, 1000, 0));
+
+		assertThat(comparison.getWarnings(), hasSize(1));
+		assertThat(comparison.getWarnings().get(0), containsString("isn't comparable"));
+	}
+
+	// a run of get-recipe alone, in LoadResults' format
+	private ObjectNode run(double rate, double p50Ms, double p99Ms, double throughput, long errors) {
+		ObjectNode run = mapper.createObjectNode();
+		run.put("rate", rate);
+		run.putObject("mix").put("get-recipe", 100);
+		run.set("total", stats(p50Ms, p99Ms, throughput, errors));
+		run.putObject("operations").set("get-recipe", stats(p50Ms, p99Ms, throughput, errors));
+		return run;
+	}
+
+	private ObjectNode stats(double p50Ms, double p99Ms, double throughput, long errors) {
+		ObjectNode stats = mapper.createObjectNode();
+		stats.put("completed", 800);
+		stats.put("errors", errors);
+		stats.put("dropped", 0);
+		stats.put("throughput", throughput);
+		stats.put("p50Ms", p50Ms);
+		stats.put("p99Ms", p99Ms);
+		return stats;
+	}
+}
@@ -0,0 +1,63 @@
+package com.sadatmalik.recipeapi.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoadTestOptionsTest {
+
+	@Test
+	void testDefaults() {
+		LoadTestOptions options = LoadTestOptions.parse();
+
+		assertThat(options.getTarget(), nullValue());
+		assertThat(options.getRate(), is(200.0));
+		assertThat(options.getDuration(), is(Duration.ofSeconds(60)));
+		assertThat(options.getMix().get(Operation.GET_RECIPE), is(50));
+		assertThat(options.getMix().size(), is(Operation.values().length));
+		assertThat(options.getBaseline(), nullValue());
+	}
+
+	@Test
+	void testOptionsAreParsed() {
+		LoadTestOptions options = LoadTestOptions.parse("--target=http://localhost:8080/", "--rate=50.5",
+				"--duration=2m", "--warmup=500ms", "--mix=get-recipe:3, post-review:1", "--seed=7",
+				"--max-in-flight=10", "--writers=2", "--out=run.json", "--baseline=base.json", "--tolerance=0.25");
+
+		assertThat(options.getTarget(), is("http://localhost:8080"));
+		assertThat(options.getRate(), is(50.5));
+		assertThat(options.getDuration(), is(Duration.ofMinutes(2)));
+		assertThat(options.getWarmup(), is(Duration.ofMillis(500)));
+		assertThat(options.getMix().size(), is(2));
+		assertThat(options.getMix().get(Operation.GET_RECIPE), is(3));
+		assertThat(options.getMix().get(Operation.POST_REVIEW), is(1));
+		assertThat(options.getSeed(), is(7L));
+		assertThat(options.getMaxInFlight(), is(10));
+		assertThat(options.getWriters(), is(2));
+		assertThat(options.getOut(), is(Paths.get("run.json")));
+		assertThat(options.getBaseline(), is(Paths.get("base.json")));
+		assertThat(options.getTolerance(), is(0.25));
+		assertThat(options.getApplicationArgs(), empty());
+	}
+
+	@Test
+	void testOtherArgumentsGoToTheApplication() {
+		LoadTestOptions options = LoadTestOptions.parse("--recipeapi.perf.data.recipes=10000", "--rate=10", "debug");
+
+		assertThat(options.getApplicationArgs(), contains("--recipeapi.perf.data.recipes=10000", "debug"));
+		assertThat(options.getRate(), is(10.0));
+	}
+
+	@Test
+	void testInvalidOptionsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> LoadTestOptions.parse("--rate=0"));
+		assertThrows(IllegalArgumentException.class, () -> LoadTestOptions.parse("--mix=get-recipe"));
+		assertThrows(IllegalArgumentException.class, () -> LoadTestOptions.parse("--mix=get-everything:1"));
+		assertThrows(IllegalArgumentException.class, () -> LoadTestOptions.parse("--mix=get-recipe:0"));
+	}
+}
@@ -1,123 +0,0 @@
-package com.sadatmalik.recipeapi.controllers;
-
-import com.sadatmalik.recipeapi.exceptions.NoSuchRecipeException;
-import com.sadatmalik.recipeapi.model.CustomUserDetails;
-import com.sadatmalik.recipeapi.model.Recipe;
-import com.sadatmalik.recipeapi.services.CustomUserDetailsService;
-import com.sadatmalik.recipeapi.services.RecipeService;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.web.bind.annotation.*;
-
-import java.security.Principal;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
-
-@RestController
-@RequestMapping("/recipes")
-public class RecipeController {
-
-    @Autowired
-    RecipeService recipeService;
-
-    @Autowired
-    CustomUserDetailsService customUserDetailsService;
-
-    @PostMapping
-    public ResponseEntity<?> createNewRecipe(@RequestBody Recipe recipe, Principal principal) {
-        try {
-            recipe.setUser(customUserDetailsService.getUser(principal.getName()));
-            Recipe insertedRecipe = recipeService.createNewRecipe(recipe);
-            return ResponseEntity.created(insertedRecipe.getLocationURI()).body(insertedRecipe);
-        } catch (IllegalStateException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
-    }
-
-    @GetMapping("/{id}")
-    public ResponseEntity<?> getRecipeById(@PathVariable("id") Long id) {
-        try {
-            Recipe recipe = recipeService.getRecipeById(id);
-            return ResponseEntity.ok(recipe);
-        } catch (NoSuchRecipeException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        }
-    }
-
-    @GetMapping
-    public ResponseEntity<?> getAllRecipes() {
-        try {
-            return ResponseEntity.ok(recipeService.getAllRecipes());
-        } catch (NoSuchRecipeException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        }
-    }
-
-    @GetMapping("/search/{name}")
-    public ResponseEntity<?> getRecipesByName(@PathVariable("name") String name) {
-        try {
-            ArrayList<Recipe> matchingRecipes = recipeService.getRecipesByName(name);
-            return ResponseEntity.ok(matchingRecipes);
-        } catch (NoSuchRecipeException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        }
-    }
-
-    @GetMapping("/search/rating/{min}")
-    public ResponseEntity<?> getRecipesByMinRating(@PathVariable("min") Long min) {
-        try {
-
-            List<Recipe> matchingRecipes = recipeService.getAllRecipes().stream()
-                    .filter(recipe -> recipe.getAverageRating() >= min)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(matchingRecipes);
-        } catch (NoSuchRecipeException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        }
-    }
-
-    @GetMapping("/search/user/{username}")
-    public ResponseEntity<?> getRecipesByUser(@PathVariable("username") String username) {
-        try {
-            ArrayList<Recipe> matchingRecipes = recipeService.getRecipesByUser(username);
-            return ResponseEntity.ok(matchingRecipes);
-        } catch (NoSuchRecipeException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        }
-    }
-
-    @DeleteMapping("/{id}")
-    //make sure that a user is either an admin or the owner of the recipe before they are allowed to delete
-    @PreAuthorize("hasPermission(#id, 'Recipe', 'delete')")
-    public ResponseEntity<?> deleteRecipeById(@PathVariable("id") Long id) {
-        try {
-            Recipe deletedRecipe = recipeService.deleteRecipeById(id);
-            return ResponseEntity.ok("The recipe with ID " + deletedRecipe.getId() +
-                    " and name " + deletedRecipe.getName() + " was deleted.");
-        } catch (NoSuchRecipeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
-    }
-
-    @PatchMapping
-    //make sure that a user is either an admin or the owner of the recipe before they are allowed to update
-    @PreAuthorize("hasPermission(#updatedRecipe.id, 'Recipe', 'edit')")
-    public ResponseEntity<?> updateRecipe(Authentication authentication,
-                                          @RequestBody Recipe updatedRecipe) {
-
-        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-        updatedRecipe.setUser(userDetails);
-
-        try {
-            Recipe returnedUpdatedRecipe = recipeService.updateRecipe(updatedRecipe, true);
-            return ResponseEntity.ok(returnedUpdatedRecipe);
-        } catch (NoSuchRecipeException | IllegalStateException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
-    }
-}
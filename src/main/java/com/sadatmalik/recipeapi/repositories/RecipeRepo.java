@@ -1,15 +0,0 @@
-package com.sadatmalik.recipeapi.repositories;
-
-import com.sadatmalik.recipeapi.model.Recipe;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-import java.util.ArrayList;
-
-@Repository
-public interface RecipeRepo extends JpaRepository<Recipe, Long> {
-
-    ArrayList<Recipe> findByNameContaining(String name);
-
-    ArrayList<Recipe> findByUser_Username(String name);
-}
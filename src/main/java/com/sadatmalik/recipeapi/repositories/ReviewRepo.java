@@ -1,13 +0,0 @@
-package com.sadatmalik.recipeapi.repositories;
-
-import com.sadatmalik.recipeapi.model.Review;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-import java.util.ArrayList;
-
-@Repository
-public interface ReviewRepo extends JpaRepository<Review, Long> {
-
-    ArrayList<Review> findByUser_Username(String username);
-}
\ No newline at end of file